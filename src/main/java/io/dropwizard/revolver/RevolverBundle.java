@@ -15,6 +15,8 @@
  */
 package io.dropwizard.revolver;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.json.MetricsModule;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -34,12 +36,25 @@ import io.dropwizard.assets.AssetsBundle;
 import io.dropwizard.msgpack.MsgPackBundle;
 import io.dropwizard.revolver.aeroapike.AerospikeConnectionManager;
 import io.dropwizard.revolver.callback.CallbackHandler;
+import io.dropwizard.revolver.composite.CompositeApiExecutor;
 import io.dropwizard.revolver.core.RevolverExecutionException;
 import io.dropwizard.revolver.core.config.AerospikeMailBoxConfig;
+import io.dropwizard.revolver.core.config.CompositeApiConfig;
+import io.dropwizard.revolver.core.config.FileTraceSinkConfig;
+import io.dropwizard.revolver.core.config.HttpTraceSinkConfig;
 import io.dropwizard.revolver.core.config.InMemoryMailBoxConfig;
+import io.dropwizard.revolver.core.config.LogTraceSinkConfig;
 import io.dropwizard.revolver.core.config.RevolverConfig;
 import io.dropwizard.revolver.core.config.RevolverServiceConfig;
+import io.dropwizard.revolver.core.config.TraceSinkConfig;
+import io.dropwizard.revolver.core.config.TracingConfig;
+import io.dropwizard.revolver.core.metrics.ConnectionMetrics;
+import io.dropwizard.revolver.core.tracing.AsyncTraceCollector;
+import io.dropwizard.revolver.core.tracing.TraceCollector;
+import io.dropwizard.revolver.core.tracing.TraceSink;
+import io.dropwizard.revolver.discovery.EndpointSpec;
 import io.dropwizard.revolver.discovery.RevolverServiceResolver;
+import io.dropwizard.revolver.discovery.model.MultiHostEndpointSpec;
 import io.dropwizard.revolver.discovery.model.RangerEndpointSpec;
 import io.dropwizard.revolver.discovery.model.SimpleEndpointSpec;
 import io.dropwizard.revolver.exception.RevolverExceptionMapper;
@@ -52,12 +67,16 @@ import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpsServiceConfig;
 import io.dropwizard.revolver.http.model.ApiPathMap;
+import io.dropwizard.revolver.http.router.ApiPathRouter;
 import io.dropwizard.revolver.persistence.AeroSpikePersistenceProvider;
 import io.dropwizard.revolver.persistence.InMemoryPersistenceProvider;
 import io.dropwizard.revolver.persistence.PersistenceProvider;
+import io.dropwizard.revolver.resource.RevolverCacheResource;
 import io.dropwizard.revolver.resource.RevolverCallbackResource;
+import io.dropwizard.revolver.resource.RevolverCompositeResource;
 import io.dropwizard.revolver.resource.RevolverMailboxResource;
 import io.dropwizard.revolver.resource.RevolverMetadataResource;
+import io.dropwizard.revolver.resource.RevolverMetricsResource;
 import io.dropwizard.revolver.resource.RevolverRequestResource;
 import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
@@ -67,8 +86,6 @@ import lombok.val;
 import org.apache.curator.framework.CuratorFramework;
 import org.msgpack.jackson.dataformat.MessagePackFactory;
 
-import javax.ws.rs.core.MultivaluedHashMap;
-import javax.ws.rs.core.MultivaluedMap;
 import java.io.IOException;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
@@ -88,7 +105,12 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
 
     private static Map<String, RevolverHttpCommand> httpCommands = new HashMap<>();
 
-    private static MultivaluedMap<String, ApiPathMap> serviceToPathMap = new MultivaluedHashMap<>();
+    private static Map<String, ApiPathRouter> serviceRouters = new HashMap<>();
+
+    private static Map<String, CompositeApiExecutor> compositeApis = new HashMap<>();
+
+    private static TraceCollector traceCollector = trace -> {
+    };
 
     public static final ObjectMapper msgPackObjectMapper = new ObjectMapper(new MessagePackFactory());
 
@@ -96,6 +118,8 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
 
     private static RevolverServiceResolver serviceNameResolver = null;
 
+    private static MetricRegistry metrics = new MetricRegistry();
+
     @Override
     public void initialize(final Bootstrap<?> bootstrap) {
         //Reset everything before configuration
@@ -112,7 +136,9 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
         //Add metrics publisher
         final HystrixCodaHaleMetricsPublisher metricsPublisher = new HystrixCodaHaleMetricsPublisher(environment.metrics());
         HystrixPlugins.getInstance().registerMetricsPublisher(metricsPublisher);
+        metrics = environment.metrics();
         initializeRevolver(configuration, environment);
+        registerClientMetrics(environment.metrics());
         final RevolverConfig revolverConfig = getRevolverConfig(configuration);
         if(Strings.isNullOrEmpty(revolverConfig.getHystrixStreamPath())) {
             environment.getApplicationContext().addServlet(HystrixMetricsStreamServlet.class, "/hystrix.stream");
@@ -128,11 +154,15 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
                 .build();
         environment.jersey().register(new RevolverRequestFilter(revolverConfig));
         environment.jersey().register(new RevolverRequestResource(environment.getObjectMapper(),
-                msgPackObjectMapper, xmlObjectMapper, persistenceProvider, callbackHandler));
+                msgPackObjectMapper, xmlObjectMapper, persistenceProvider, callbackHandler, revolverConfig.getBatch()));
         environment.jersey().register(new RevolverCallbackResource(persistenceProvider, callbackHandler));
         environment.jersey().register(new RevolverMailboxResource(persistenceProvider, environment.getObjectMapper(),
                 xmlObjectMapper, msgPackObjectMapper));
         environment.jersey().register(new RevolverMetadataResource(revolverConfig));
+        environment.jersey().register(new RevolverCacheResource());
+        environment.jersey().register(new RevolverMetricsResource());
+        environment.jersey().register(new RevolverCompositeResource(environment.getObjectMapper(), xmlObjectMapper,
+                msgPackObjectMapper));
     }
 
 
@@ -144,8 +174,12 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
         bootstrap.getObjectMapper().registerSubtypes(new NamedType(TokenAuthConfig.class, "token"));
         bootstrap.getObjectMapper().registerSubtypes(new NamedType(SimpleEndpointSpec.class, "simple"));
         bootstrap.getObjectMapper().registerSubtypes(new NamedType(RangerEndpointSpec.class, "ranger_sharded"));
+        bootstrap.getObjectMapper().registerSubtypes(new NamedType(MultiHostEndpointSpec.class, "multi_host"));
         bootstrap.getObjectMapper().registerSubtypes(new NamedType(InMemoryMailBoxConfig.class, "in_memory"));
         bootstrap.getObjectMapper().registerSubtypes(new NamedType(AerospikeMailBoxConfig.class, "aerospike"));
+        bootstrap.getObjectMapper().registerSubtypes(new NamedType(LogTraceSinkConfig.class, "slf4j"));
+        bootstrap.getObjectMapper().registerSubtypes(new NamedType(FileTraceSinkConfig.class, "file"));
+        bootstrap.getObjectMapper().registerSubtypes(new NamedType(HttpTraceSinkConfig.class, "http"));
     }
 
     private void configureXmlMapper() {
@@ -165,10 +199,9 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
             return tokenMatch.matcher(o2Expr).groupCount() - tokenMatch.matcher(o1Expr).groupCount();
         });
         apis.sort(Comparator.comparing(RevolverHttpApiConfig::getPath));
-        apis.forEach(apiConfig -> serviceToPathMap.add(serviceConfiguration.getService(),
-                ApiPathMap.builder()
-                        .api(apiConfig)
-                        .path(generatePathExpression(apiConfig.getPath())).build()));
+        final ApiPathRouter router = new ApiPathRouter();
+        apis.forEach(apiConfig -> router.register(apiConfig, generatePathExpression(apiConfig.getPath())));
+        serviceRouters.put(serviceConfiguration.getService(), router);
         final ImmutableMap.Builder<String, RevolverHttpApiConfig> configMapBuilder = ImmutableMap.builder();
         apis.forEach(apiConfig -> configMapBuilder.put(apiConfig.getApi(), apiConfig));
         return configMapBuilder.build();
@@ -179,12 +212,15 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
     }
 
     public static ApiPathMap matchPath(final String service, final String path) {
-        if (serviceToPathMap.containsKey(service)) {
-            final val apiMap = serviceToPathMap.get(service).stream().filter(api -> path.matches(api.getPath())).findFirst();
-            return apiMap.orElse(null);
-        } else {
+        final ApiPathRouter router = serviceRouters.get(service);
+        if (router == null) {
             return null;
         }
+        return router.match(path);
+    }
+
+    public static Map<String, RevolverHttpCommand> getHttpCommands() {
+        return Collections.unmodifiableMap(httpCommands);
     }
 
     public static RevolverHttpCommand getHttpCommand(final String service) {
@@ -195,6 +231,14 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
         return command;
     }
 
+    public static CompositeApiExecutor getCompositeApi(final String name) {
+        return compositeApis.get(name);
+    }
+
+    public static TraceCollector getTraceCollector() {
+        return traceCollector;
+    }
+
     public static RevolverServiceResolver getServiceNameResolver() {
         return serviceNameResolver;
     }
@@ -235,6 +279,7 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
                     .objectMapper(environment.getObjectMapper())
                     .build();
         }
+        traceCollector = createTraceCollector(revolverConfig.getTracing(), environment);
         for (final RevolverServiceConfig config : revolverConfig.getServices()) {
             final String type = config.getType();
             switch (type) {
@@ -249,16 +294,39 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
 
             }
         }
+        for (final CompositeApiConfig composite : revolverConfig.getComposites()) {
+            composite.getSteps().stream()
+                    .filter(step -> !httpCommands.containsKey(step.getService()))
+                    .findFirst()
+                    .ifPresent(step -> {
+                        throw new IllegalArgumentException("Composite api " + composite.getName() + " uses unknown service " + step.getService());
+                    });
+            addCompositeApi(new CompositeApiExecutor(composite, environment.getObjectMapper()));
+        }
         System.out.println("***************************************************************************************************");
         System.out.println("Revolver Service Map");
         System.out.println("***************************************************************************************************");
-        serviceToPathMap.forEach( (k, v) -> {
+        httpCommands.forEach( (k, v) -> {
             System.out.println("\tService: " +k);
-            v.forEach( a -> a.getApi().getMethods().forEach(b -> System.out.println("\t\t[" +b.name() +"] " + a.getApi().getApi() +": " +a.getPath())));
+            v.getApiConfigurations().values().forEach( a -> a.getMethods().forEach(b -> System.out.println("\t\t[" +b.name() +"] " + a.getApi() +": " +a.getPath())));
         });
         System.out.println("***************************************************************************************************");
     }
 
+    private static TraceCollector createTraceCollector(final TracingConfig tracingConfig, final Environment environment) throws IOException {
+        if (!tracingConfig.isEnabled() || tracingConfig.getSinks().isEmpty()) {
+            return trace -> {
+            };
+        }
+        final List<TraceSink> sinks = new ArrayList<>();
+        for (TraceSinkConfig sinkConfig : tracingConfig.getSinks()) {
+            sinks.add(TraceSink.create(sinkConfig, environment.getObjectMapper()));
+        }
+        final AsyncTraceCollector collector = new AsyncTraceCollector(tracingConfig, sinks, metrics);
+        environment.lifecycle().manage(collector);
+        return collector;
+    }
+
     private static void registerHttpsCommand(RevolverConfig revolverConfig, RevolverServiceConfig config) throws CertificateException, NoSuchAlgorithmException, KeyStoreException, IOException, KeyManagementException, UnrecoverableKeyException {
         final RevolverHttpsServiceConfig httpsConfig = (RevolverHttpsServiceConfig) config;
         final RevolverHttpServiceConfig revolverHttpServiceConfig = RevolverHttpServiceConfig.builder()
@@ -266,11 +334,18 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
                 .auth(httpsConfig.getAuth())
                 .authEnabled(httpsConfig.isAuthEnabled())
                 .compression(httpsConfig.isCompression())
+                .responseCompression(httpsConfig.isResponseCompression())
+                .compressionThresholdInBytes(httpsConfig.getCompressionThresholdInBytes())
+                .hedgeBudgetPercentage(httpsConfig.getHedgeBudgetPercentage())
+                .retryBudgetPercentage(httpsConfig.getRetryBudgetPercentage())
+                .responseCacheSizeInBytes(httpsConfig.getResponseCacheSizeInBytes())
+                .lastKnownGoodSizeInBytes(httpsConfig.getLastKnownGoodSizeInBytes())
                 .connectionKeepAliveInMillis(httpsConfig.getConnectionKeepAliveInMillis())
                 .connectionPoolSize(httpsConfig.getConnectionPoolSize())
                 .enpoint(httpsConfig.getEndpoint())
                 .keystorePassword(httpsConfig.getKeystorePassword())
                 .keyStorePath(httpsConfig.getKeyStorePath())
+                .protocols(httpsConfig.getProtocols())
                 .secured(true)
                 .service(httpsConfig.getService())
                 .trackingHeaders(httpsConfig.isTrackingHeaders())
@@ -282,9 +357,8 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
                     .runtimeConfig(revolverConfig.getGlobal())
                     .serviceConfiguration(revolverHttpServiceConfig).apiConfigurations(generateApiConfigMap(revolverHttpServiceConfig))
                     .serviceResolver(serviceNameResolver)
-                    .traceCollector(trace -> {
-                        //TODO: Put in a publisher if required
-                    }).build());
+                    .metrics(metrics)
+                    .traceCollector(traceCollector).build());
         } catch (ExecutionException e) {
             log.error("Error creating http command: {}", config.getService(), e);
         }
@@ -299,16 +373,58 @@ public abstract class RevolverBundle<T extends Configuration> implements Configu
                     .runtimeConfig(revolverConfig.getGlobal())
                     .serviceConfiguration(httpConfig).apiConfigurations(generateApiConfigMap(httpConfig))
                     .serviceResolver(serviceNameResolver)
-                    .traceCollector(trace -> {
-                        //TODO: Put in a publisher if required
-                    }).build());
+                    .metrics(metrics)
+                    .traceCollector(traceCollector).build());
         } catch (ExecutionException e) {
             log.error("Error creating http command: {}", config.getService(), e);
         }
     }
 
+    /**
+     * Connection vs in flight call counts per service. With h2 many in flight calls (streams) share a connection.
+     * Commands are looked up on every read so that gauges keep working when a service is reloaded.
+     */
+    private static void registerClientMetrics(final MetricRegistry metrics) {
+        httpCommands.keySet().forEach(service -> {
+            final String prefix = MetricRegistry.name("revolver", service, "http");
+            metrics.removeMatching((name, metric) -> name.startsWith(prefix + "."));
+            metrics.register(MetricRegistry.name(prefix, "connections"),
+                    (Gauge<Integer>) () -> getHttpCommand(service).getClient().connectionPool().connectionCount());
+            metrics.register(MetricRegistry.name(prefix, "idleConnections"),
+                    (Gauge<Integer>) () -> getHttpCommand(service).getClient().connectionPool().idleConnectionCount());
+            metrics.register(MetricRegistry.name(prefix, "activeCalls"),
+                    (Gauge<Integer>) () -> getHttpCommand(service).getClient().dispatcher().runningCallsCount());
+            metrics.register(MetricRegistry.name(prefix, "queuedCalls"),
+                    (Gauge<Integer>) () -> getHttpCommand(service).getClient().dispatcher().queuedCallsCount());
+            metrics.register(MetricRegistry.name(prefix, "callsPerConnection"), (Gauge<Double>) () -> {
+                val client = getHttpCommand(service).getClient();
+                final int active = client.connectionPool().connectionCount() - client.connectionPool().idleConnectionCount();
+                return active <= 0 ? 0.0 : (double) client.dispatcher().runningCallsCount() / active;
+            });
+            final ConnectionMetrics connectionMetrics = ConnectionMetrics.forService(service);
+            metrics.register(MetricRegistry.name(prefix, "connectionReuseRatio"), (Gauge<Double>) connectionMetrics::reuseRatio);
+            for (ConnectionMetrics.Phase phase : ConnectionMetrics.Phase.values()) {
+                metrics.register(MetricRegistry.name(prefix, phase.name().toLowerCase(), "p99"),
+                        (Gauge<Double>) () -> connectionMetrics.percentile99(phase));
+            }
+            final EndpointSpec endpoint = getHttpCommand(service).getServiceConfiguration().getEndpoint();
+            if (serviceNameResolver != null && serviceNameResolver.zoneTraffic(endpoint) != null) {
+                final String zonePrefix = MetricRegistry.name("revolver", service, "zone");
+                metrics.removeMatching((name, metric) -> name.startsWith(zonePrefix + "."));
+                metrics.register(MetricRegistry.name(zonePrefix, "localShare"),
+                        (Gauge<Double>) () -> serviceNameResolver.zoneTraffic(endpoint).getLocalShare());
+                metrics.register(MetricRegistry.name(zonePrefix, "failover"),
+                        (Gauge<Integer>) () -> serviceNameResolver.zoneTraffic(endpoint).isFailover() ? 1 : 0);
+            }
+        });
+    }
+
     public static void addHttpCommand(String service, RevolverHttpCommand httpCommand) {
         httpCommands.put(service, httpCommand);
     }
 
+    public static void addCompositeApi(CompositeApiExecutor compositeApi) {
+        compositeApis.put(compositeApi.getConfig().getName(), compositeApi);
+    }
+
 }
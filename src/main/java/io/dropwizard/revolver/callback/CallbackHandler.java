@@ -240,9 +240,7 @@ public class CallbackHandler {
                             .serviceConfiguration(httpConfig)
                             .apiConfigurations(generateApiConfigMap(httpConfig))
                             .serviceResolver(RevolverBundle.getServiceNameResolver())
-                            .traceCollector(trace -> {
-                                //TODO: Put in a publisher if required
-                            }).build()
+                            .traceCollector(RevolverBundle.getTraceCollector()).build()
             );
         }
         return RevolverBundle.getHttpCommand(httpConfig.getService());
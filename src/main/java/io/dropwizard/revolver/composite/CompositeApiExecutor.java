@@ -0,0 +1,372 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.composite;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.base.Strings;
+import io.dropwizard.revolver.RevolverBundle;
+import io.dropwizard.revolver.core.config.CompositeApiConfig;
+import io.dropwizard.revolver.core.config.CompositeStepConfig;
+import io.dropwizard.revolver.core.model.RevolverCompositeResponse;
+import io.dropwizard.revolver.core.model.RevolverCompositeStepTrace;
+import io.dropwizard.revolver.core.tracing.TraceInfo;
+import io.dropwizard.revolver.http.RevolversHttpHeaders;
+import io.dropwizard.revolver.http.model.RevolverHttpRequest;
+import io.dropwizard.revolver.http.model.RevolverHttpResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Executes a composite api: every step starts as soon as the steps it depends on have succeeded, so independent steps
+ * run in parallel. The step graph is validated once when the executor is created.
+ * @author phaneesh
+ */
+@Slf4j
+public class CompositeApiExecutor {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*([^{}\\s]+)\\s*}}");
+
+    private static final String REQUEST = "request";
+
+    private static final int DEFAULT_TIMEOUT = 10000;
+
+    @Getter
+    private final CompositeApiConfig config;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Steps in an order where every step comes after the steps it depends on
+     */
+    private final List<CompositeStepConfig> executionOrder = new ArrayList<>();
+
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+
+    public CompositeApiExecutor(final CompositeApiConfig config, final ObjectMapper objectMapper) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+        if (config.getSteps() == null || config.getSteps().isEmpty()) {
+            throw new IllegalArgumentException("Composite api " + config.getName() + " has no steps");
+        }
+        final Map<String, CompositeStepConfig> steps = new LinkedHashMap<>();
+        for (CompositeStepConfig step : config.getSteps()) {
+            if (Strings.isNullOrEmpty(step.getName()) || REQUEST.equals(step.getName()) || steps.put(step.getName(), step) != null) {
+                throw new IllegalArgumentException("Invalid or duplicate step name in composite api " + config.getName() + ": " + step.getName());
+            }
+        }
+        steps.values().forEach(step -> {
+            final Set<String> stepDependencies = references(step);
+            stepDependencies.forEach(dependency -> {
+                if (!steps.containsKey(dependency)) {
+                    throw new IllegalArgumentException("Step " + step.getName() + " of composite api " + config.getName()
+                            + " references unknown step " + dependency);
+                }
+            });
+            dependencies.put(step.getName(), stepDependencies);
+        });
+        //Kahn's algorithm; whatever is left unordered is part of a cycle
+        final Set<String> ordered = new HashSet<>();
+        while (ordered.size() < steps.size()) {
+            final List<CompositeStepConfig> ready = new ArrayList<>();
+            steps.values().stream()
+                    .filter(step -> !ordered.contains(step.getName()) && ordered.containsAll(dependencies.get(step.getName())))
+                    .forEach(ready::add);
+            if (ready.isEmpty()) {
+                throw new IllegalArgumentException("Steps of composite api " + config.getName() + " have a dependency cycle");
+            }
+            ready.forEach(step -> ordered.add(step.getName()));
+            executionOrder.addAll(ready);
+        }
+    }
+
+    public RevolverCompositeResponse execute(final MultivaluedMap<String, String> queryParams,
+                                             final MultivaluedMap<String, String> headers) {
+        final long start = System.currentTimeMillis();
+        final long deadline = start + (config.getTimeoutInMillis() > 0 ? config.getTimeoutInMillis() : DEFAULT_TIMEOUT);
+        final Execution execution = new Execution(queryParams, headers, deadline,
+                headers.getFirst(RevolversHttpHeaders.REQUEST_ID_HEADER),
+                Strings.isNullOrEmpty(headers.getFirst(RevolversHttpHeaders.TXN_ID_HEADER))
+                        ? UUID.randomUUID().toString() : headers.getFirst(RevolversHttpHeaders.TXN_ID_HEADER),
+                new ConcurrentHashMap<>());
+        for (CompositeStepConfig step : executionOrder) {
+            final CompletableFuture<?>[] upstream = dependencies.get(step.getName()).stream()
+                    .map(execution.getResults()::get)
+                    .toArray(CompletableFuture[]::new);
+            execution.getResults().put(step.getName(), CompletableFuture.allOf(upstream)
+                    .thenCompose(ignored -> run(step, execution)));
+        }
+        try {
+            CompletableFuture.allOf(execution.getResults().values().toArray(new CompletableFuture[0]))
+                    .get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Composite api {} did not complete within its deadline", config.getName());
+        }
+        final Map<String, JsonNode> data = new LinkedHashMap<>();
+        final RevolverCompositeResponse.RevolverCompositeResponseBuilder response = RevolverCompositeResponse.builder();
+        for (CompositeStepConfig step : config.getSteps()) {
+            final CompletableFuture<StepResult> result = execution.getResults().get(step.getName());
+            if (result.isDone()) {
+                final StepResult stepResult = result.join();
+                if (stepResult.isSuccess()) {
+                    data.put(step.getName(), stepResult.getBody());
+                }
+                response.trace(stepResult.getTrace());
+            } else {
+                response.trace(RevolverCompositeStepTrace.builder()
+                        .step(step.getName())
+                        .status(RevolverCompositeStepTrace.Status.TIMEOUT)
+                        .latencyInMillis(System.currentTimeMillis() - start)
+                        .error("Composite deadline exceeded")
+                        .build());
+            }
+        }
+        return response.data(data)
+                .durationInMillis(System.currentTimeMillis() - start)
+                .build();
+    }
+
+    /**
+     * A composite is successful when all its non optional steps are
+     */
+    public boolean isSuccessful(final RevolverCompositeResponse response) {
+        final Set<String> optional = new HashSet<>();
+        config.getSteps().stream().filter(CompositeStepConfig::isOptional).forEach(step -> optional.add(step.getName()));
+        return response.getTrace().stream()
+                .allMatch(trace -> optional.contains(trace.getStep()) || trace.getStatus() == RevolverCompositeStepTrace.Status.SUCCESS);
+    }
+
+    private CompletableFuture<StepResult> run(final CompositeStepConfig step, final Execution execution) {
+        for (String dependency : dependencies.get(step.getName())) {
+            if (!execution.getResults().get(dependency).join().isSuccess()) {
+                return CompletableFuture.completedFuture(result(step, RevolverCompositeStepTrace.Status.SKIPPED, 0, 0,
+                        "Depends on " + dependency + " which did not succeed", null));
+            }
+        }
+        final long start = System.currentTimeMillis();
+        try {
+            final Function<String, JsonNode> resolver = expression -> resolve(expression, execution);
+            final String path = StringUtils.removeStart(substitute(step.getPath(), resolver, CompositeApiExecutor::pathSegment), "/");
+            val apiMap = RevolverBundle.matchPath(step.getService(), path);
+            if (apiMap == null) {
+                return CompletableFuture.completedFuture(result(step, RevolverCompositeStepTrace.Status.FAILED, 400, 0,
+                        "No api of " + step.getService() + " matches " + path, null));
+            }
+            final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+            if (step.getHeaders() != null) {
+                step.getHeaders().forEach((name, value) -> headers.putSingle(name, substitute(value, resolver, CompositeApiExecutor::text)));
+            }
+            long budget = execution.getDeadline() - start;
+            if (step.getTimeoutInMillis() > 0) {
+                budget = Math.min(budget, step.getTimeoutInMillis());
+            }
+            headers.putSingle(RevolversHttpHeaders.DEADLINE_HEADER, String.valueOf(budget));
+            final MultivaluedMap<String, String> queryParams = new MultivaluedHashMap<>();
+            if (step.getQueryParams() != null) {
+                step.getQueryParams().forEach((name, value) -> queryParams.putSingle(name, substitute(value, resolver, CompositeApiExecutor::text)));
+            }
+            byte[] body = null;
+            if (step.getBody() != null) {
+                body = substitute(step.getBody(), resolver, JsonNode::toString).getBytes(StandardCharsets.UTF_8);
+                if (headers.keySet().stream().noneMatch(HttpHeaders.CONTENT_TYPE::equalsIgnoreCase)) {
+                    headers.putSingle(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+                }
+            }
+            return RevolverBundle.getHttpCommand(step.getService()).executeAsync(
+                    RevolverHttpRequest.builder()
+                            .traceInfo(
+                                    TraceInfo.builder()
+                                            .requestId(UUID.randomUUID().toString())
+                                            .parentRequestId(execution.getRequestId())
+                                            .transactionId(execution.getTransactionId())
+                                            .timestamp(System.currentTimeMillis())
+                                            .build())
+                            .api(apiMap.getApi().getApi())
+                            .service(step.getService())
+                            .path(path)
+                            .method(step.getMethod())
+                            .headers(headers)
+                            .queryParams(queryParams)
+                            .body(body)
+                            .build())
+                    .handle((response, t) -> t == null ? result(step, response, start) : failure(step, t, start));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failure(step, e, start));
+        }
+    }
+
+    private StepResult result(final CompositeStepConfig step, final RevolverHttpResponse response, final long start) {
+        final long latency = System.currentTimeMillis() - start;
+        if (response.getStatusCode() < 200 || response.getStatusCode() >= 300) {
+            return result(step, RevolverCompositeStepTrace.Status.FAILED, response.getStatusCode(), latency,
+                    "Upstream responded with " + response.getStatusCode(), null);
+        }
+        JsonNode body = NullNode.getInstance();
+        if (response.getBody() != null && response.getBody().length > 0) {
+            try {
+                body = objectMapper.readTree(response.getBody());
+            } catch (IOException e) {
+                body = TextNode.valueOf(new String(response.getBody(), StandardCharsets.UTF_8));
+            }
+        }
+        return result(step, RevolverCompositeStepTrace.Status.SUCCESS, response.getStatusCode(), latency, null, body);
+    }
+
+    private StepResult failure(final CompositeStepConfig step, final Throwable t, final long start) {
+        final Throwable cause = ExceptionUtils.getRootCause(t) == null ? t : ExceptionUtils.getRootCause(t);
+        return result(step, cause instanceof TimeoutException ? RevolverCompositeStepTrace.Status.TIMEOUT : RevolverCompositeStepTrace.Status.FAILED,
+                0, System.currentTimeMillis() - start, Strings.nullToEmpty(cause.getMessage()), null);
+    }
+
+    private static StepResult result(final CompositeStepConfig step, final RevolverCompositeStepTrace.Status status,
+                                     final int statusCode, final long latency, final String error, final JsonNode body) {
+        return new StepResult(RevolverCompositeStepTrace.builder()
+                .step(step.getName())
+                .status(status)
+                .statusCode(statusCode)
+                .latencyInMillis(latency)
+                .error(error)
+                .build(), body);
+    }
+
+    /**
+     * Value of a placeholder expression, null if it does not resolve
+     */
+    private static JsonNode resolve(final String expression, final Execution execution) {
+        final String[] parts = expression.split("\\.");
+        if (REQUEST.equals(parts[0])) {
+            if (parts.length < 3) {
+                return null;
+            }
+            final String name = StringUtils.join(parts, '.', 2, parts.length);
+            String value = null;
+            if ("query".equals(parts[1])) {
+                value = execution.getQueryParams().getFirst(name);
+            } else if ("header".equals(parts[1])) {
+                value = execution.getHeaders().keySet().stream()
+                        .filter(name::equalsIgnoreCase)
+                        .findFirst()
+                        .map(execution.getHeaders()::getFirst)
+                        .orElse(null);
+            }
+            return value == null ? null : TextNode.valueOf(value);
+        }
+        JsonNode node = execution.getResults().get(parts[0]).join().getBody();
+        for (int i = 1; i < parts.length && node != null; i++) {
+            node = node.isArray() && StringUtils.isNumeric(parts[i]) ? node.get(Integer.parseInt(parts[i])) : node.get(parts[i]);
+        }
+        return node == null || node instanceof MissingNode ? null : node;
+    }
+
+    private static String substitute(final String template, final Function<String, JsonNode> resolver,
+                                     final Function<JsonNode, String> formatter) {
+        final Matcher matcher = PLACEHOLDER.matcher(template);
+        final StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            final JsonNode value = resolver.apply(matcher.group(1));
+            if (value == null) {
+                throw new IllegalArgumentException("Unresolved placeholder " + matcher.group());
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(formatter.apply(value)));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static String text(final JsonNode value) {
+        return value.isValueNode() ? value.asText() : value.toString();
+    }
+
+    private static String pathSegment(final JsonNode value) {
+        try {
+            return URLEncoder.encode(text(value), "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Set<String> references(final CompositeStepConfig step) {
+        final List<String> templates = new ArrayList<>();
+        templates.add(step.getPath());
+        templates.add(step.getBody());
+        if (step.getQueryParams() != null) {
+            templates.addAll(step.getQueryParams().values());
+        }
+        if (step.getHeaders() != null) {
+            templates.addAll(step.getHeaders().values());
+        }
+        final Set<String> references = new LinkedHashSet<>();
+        if (step.getDependsOn() != null) {
+            references.addAll(step.getDependsOn());
+        }
+        templates.stream().filter(Objects::nonNull).forEach(template -> {
+            final Matcher matcher = PLACEHOLDER.matcher(template);
+            while (matcher.find()) {
+                final String source = matcher.group(1).split("\\.")[0];
+                if (!REQUEST.equals(source)) {
+                    references.add(source);
+                }
+            }
+        });
+        return references;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Execution {
+        private final MultivaluedMap<String, String> queryParams;
+        private final MultivaluedMap<String, String> headers;
+        private final long deadline;
+        private final String requestId;
+        private final String transactionId;
+        private final Map<String, CompletableFuture<StepResult>> results;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class StepResult {
+        private final RevolverCompositeStepTrace trace;
+        private final JsonNode body;
+
+        boolean isSuccess() {
+            return trace.getStatus() == RevolverCompositeStepTrace.Status.SUCCESS;
+        }
+    }
+}
@@ -20,10 +20,13 @@ package io.dropwizard.revolver.core;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Strings;
 import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixObservableCommand;
 import io.dropwizard.revolver.core.config.ClientConfig;
 import io.dropwizard.revolver.core.config.CommandHandlerConfig;
 import io.dropwizard.revolver.core.config.RevolverServiceConfig;
 import io.dropwizard.revolver.core.config.RuntimeConfig;
+import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
+import io.dropwizard.revolver.core.limiter.ConcurrencyLimiter;
 import io.dropwizard.revolver.core.model.RevolverRequest;
 import io.dropwizard.revolver.core.model.RevolverResponse;
 import io.dropwizard.revolver.core.tracing.Trace;
@@ -35,10 +38,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.MDC;
 import rx.Observable;
+import rx.subscriptions.Subscriptions;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -54,6 +62,9 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
     private final Map<String, CommandHandlerConfigType> apiConfigurations;
     private final TraceCollector traceCollector;
     private ClientConfig clientConfiguration;
+    private final Map<String, HystrixCommand.Setter> setters = new ConcurrentHashMap<>();
+    private final Map<String, HystrixObservableCommand.Setter> observableSetters = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrencyLimiter> concurrencyLimiters = new HashMap<>();
 
     public RevolverCommand(final ContextType context, final ClientConfig clientConfiguration,
                            final RuntimeConfig runtimeConfig, final ServiceConfigurationType serviceConfiguration,
@@ -65,6 +76,13 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
         this.serviceConfiguration = serviceConfiguration;
         this.apiConfigurations = apiConfigurations;
         this.traceCollector = traceCollector;
+        apiConfigurations.keySet().forEach(api -> {
+            final ThreadPoolConfig threadPoolConfig = RevolverCommandHelper.threadPoolConfig(this, api);
+            if (threadPoolConfig.getConcurrencyLimit() != null) {
+                concurrencyLimiters.put(api, new ConcurrencyLimiter(threadPoolConfig.getConcurrencyLimit(),
+                        threadPoolConfig.getConcurrency(), threadPoolConfig.getTimeout()));
+            }
+        });
     }
 
     @SuppressWarnings("unchecked")
@@ -76,10 +94,16 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
         final RequestType normalizedRequest = RevolverCommandHelper.normalize(request);
         final TraceInfo traceInfo = normalizedRequest.getTrace();
         addContextInfo(request, traceInfo);
+        final ConcurrencyLimiter limiter = concurrencyLimiters.get(request.getApi());
+        if (limiter != null && !limiter.tryAcquire()) {
+            return rejected(normalizedRequest, limiter);
+        }
         final Stopwatch watch = Stopwatch.createStarted();
+        final long start = System.nanoTime();
         String errorMessage = null;
+        Throwable failure = null;
         try {
-            ResponseType response = (ResponseType) new RevolverCommandHandler(RevolverCommandHelper.setter(this, request.getApi()),
+            ResponseType response = (ResponseType) new RevolverCommandHandler(setter(request.getApi()),
                     this.context, this, normalizedRequest).execute();
             log.debug("Command response: " + response);
             return response;
@@ -88,12 +112,14 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
             if (rootCause == null) {
                 rootCause = t;
             }
+            failure = rootCause;
             if (rootCause instanceof TimeoutException) {
                 throw (TimeoutException) rootCause;
             }
             errorMessage = rootCause.getLocalizedMessage();
             throw new RevolverExecutionException(RevolverExecutionException.Type.SERVICE_ERROR, rootCause);
         } finally {
+            release(limiter, start, failure);
             publishTrace(Trace.builder()
                     .caller(this.clientConfiguration.getClientName())
                     .service(this.serviceConfiguration.getService())
@@ -123,32 +149,85 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
         final RequestType normalizedRequest = RevolverCommandHelper.normalize(request);
         final TraceInfo traceInfo = normalizedRequest.getTrace();
         addContextInfo(request, traceInfo);
+        final ConcurrencyLimiter limiter = concurrencyLimiters.get(request.getApi());
+        if (limiter != null && !limiter.tryAcquire()) {
+            removeContextInfo();
+            final CompletableFuture<ResponseType> rejection = new CompletableFuture<>();
+            try {
+                rejection.complete(rejected(normalizedRequest, limiter));
+            } catch (RevolverExecutionException e) {
+                rejection.completeExceptionally(e);
+            }
+            return rejection;
+        }
         final Stopwatch watch = Stopwatch.createStarted();
-        final Future<ResponseType> responseFuture = new RevolverCommandHandler(RevolverCommandHelper.setter(this, request.getApi()), this.context, this, normalizedRequest).queue();
-        return CompletableFuture.supplyAsync(() -> {
-                    String errorMessage = null;
-                    try {
-                        return responseFuture.get();
-                    } catch (Throwable t) {
-                        errorMessage = RevolverExceptionHelper.getLeafErrorMessage(t);
-                        throw new RevolverExecutionException(RevolverExecutionException.Type.SERVICE_ERROR, String.format("Error executing command %s", RevolverCommandHelper.getName(request)), RevolverExceptionHelper.getLeafThrowable(t));
-                    } finally {
-                        publishTrace(Trace.builder()
-                                .caller(this.clientConfiguration.getClientName())
-                                .service(this.serviceConfiguration.getService())
-                                .api(request.getApi())
-                                .duration(watch.stop().elapsed(TimeUnit.MILLISECONDS))
-                                .transactionId(traceInfo.getTransactionId())
-                                .requestId(traceInfo.getRequestId())
-                                .parentRequestId(traceInfo.getParentRequestId())
-                                .timestamp(traceInfo.getTimestamp())
-                                .attributes(traceInfo.getAttributes())
-                                .error(!Strings.isNullOrEmpty(errorMessage))
-                                .errorReason(errorMessage).build());
-                        removeContextInfo();
-                    }
-                }
-        );
+        final long start = System.nanoTime();
+        final Observable<ResponseType> responseObservable = isNonBlocking(request.getApi())
+                ? new RevolverObservableCommandHandler(observableSetter(request.getApi()), this.context, this, normalizedRequest).toObservable()
+                : new RevolverCommandHandler(setter(request.getApi()), this.context, this, normalizedRequest).toObservable();
+        final CompletableFuture<ResponseType> result = new CompletableFuture<>();
+        //Complete directly from the hystrix callback; no thread is parked waiting for the response
+        responseObservable.subscribe(response -> {
+            release(limiter, start, null);
+            publishTrace(asyncTrace(request, traceInfo, watch, null));
+            removeContextInfo();
+            result.complete(response);
+        }, t -> {
+            release(limiter, start, RevolverExceptionHelper.getLeafThrowable(t));
+            publishTrace(asyncTrace(request, traceInfo, watch, RevolverExceptionHelper.getLeafErrorMessage(t)));
+            removeContextInfo();
+            result.completeExceptionally(new RevolverExecutionException(RevolverExecutionException.Type.SERVICE_ERROR, String.format("Error executing command %s", RevolverCommandHelper.getName(request)), RevolverExceptionHelper.getLeafThrowable(t)));
+        });
+        return result;
+    }
+
+    /**
+     * A call turned away by the adaptive concurrency limit gets the api's fallback, like a hystrix rejection would
+     */
+    private ResponseType rejected(final RequestType request, final ConcurrencyLimiter limiter) {
+        if (isFallbackEnabled(request.getApi())) {
+            try {
+                return fallback(this.context, request);
+            } catch (Exception e) {
+                log.debug("No fallback for rejected call to {}: {}", RevolverCommandHelper.getName(request), e.getMessage());
+            }
+        }
+        throw new RevolverExecutionException(RevolverExecutionException.Type.SERVICE_ERROR,
+                String.format("Concurrency limit of %d reached for %s", limiter.getLimit(), RevolverCommandHelper.getName(request)),
+                new RejectedExecutionException());
+    }
+
+    /**
+     * Timeouts & rejections are drops; other failures say nothing about upstream capacity
+     */
+    private static void release(final ConcurrencyLimiter limiter, final long start, final Throwable failure) {
+        if (limiter == null) {
+            return;
+        }
+        if (failure == null || failure instanceof TimeoutException || failure instanceof RejectedExecutionException) {
+            limiter.release(System.nanoTime() - start, failure != null);
+        } else {
+            limiter.release();
+        }
+    }
+
+    public Map<String, ConcurrencyLimiter> getConcurrencyLimiters() {
+        return Collections.unmodifiableMap(concurrencyLimiters);
+    }
+
+    private Trace asyncTrace(final RequestType request, final TraceInfo traceInfo, final Stopwatch watch, final String errorMessage) {
+        return Trace.builder()
+                .caller(this.clientConfiguration.getClientName())
+                .service(this.serviceConfiguration.getService())
+                .api(request.getApi())
+                .duration(watch.stop().elapsed(TimeUnit.MILLISECONDS))
+                .transactionId(traceInfo.getTransactionId())
+                .requestId(traceInfo.getRequestId())
+                .parentRequestId(traceInfo.getParentRequestId())
+                .timestamp(traceInfo.getTimestamp())
+                .attributes(traceInfo.getAttributes())
+                .error(!Strings.isNullOrEmpty(errorMessage))
+                .errorReason(errorMessage).build();
     }
 
     @SuppressWarnings("unchecked")
@@ -156,7 +235,7 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
         final RequestType normalizedRequest = RevolverCommandHelper.normalize(request);
         final TraceInfo traceInfo = normalizedRequest.getTrace();
         addContextInfo(request, traceInfo);
-        return new RevolverCommandHandler(RevolverCommandHelper.setter(this, request.getApi()), this.context, this, normalizedRequest).toObservable();
+        return new RevolverCommandHandler(setter(request.getApi()), this.context, this, normalizedRequest).toObservable();
     }
 
     private void publishTrace(Trace build) {
@@ -175,8 +254,40 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
         return true;
     }
 
+    /**
+     * Whether failures of the api go to {@link #fallback(RevolverContext, RevolverRequest)}; read once per api when
+     * its hystrix setter is built
+     */
+    public boolean isFallbackEnabled(final String api) {
+        return isFallbackEnabled();
+    }
+
+    /**
+     * Hystrix setters only depend on the api configuration which is fixed for the lifetime of this command,
+     * so they are built once per api instead of on every execution.
+     */
+    private HystrixCommand.Setter setter(final String api) {
+        return setters.computeIfAbsent(api, key -> RevolverCommandHelper.setter(this, key));
+    }
+
+    private HystrixObservableCommand.Setter observableSetter(final String api) {
+        return observableSetters.computeIfAbsent(api, key -> RevolverCommandHelper.observableSetter(this, key));
+    }
+
+    /**
+     * Whether async executions of the api should use {@link #executeNonBlocking(RevolverContext, RevolverRequest)}
+     * under semaphore isolation instead of blocking a hystrix pool thread on {@link #execute(RevolverContext, RevolverRequest)}
+     */
+    protected boolean isNonBlocking(final String api) {
+        return false;
+    }
+
     protected abstract ResponseType execute(final ContextType context, final RequestType request) throws Exception;
 
+    protected CompletableFuture<ResponseType> executeNonBlocking(final ContextType context, final RequestType request) {
+        throw new UnsupportedOperationException("Non blocking execution is not supported by " + getClass().getSimpleName());
+    }
+
     protected abstract ResponseType fallback(final ContextType context, final RequestType request);
 
     protected ClientConfig getClientConfiguration() {
@@ -220,4 +331,49 @@ public abstract class RevolverCommand<RequestType extends RevolverRequest, Respo
         }
     }
 
+    private static class RevolverObservableCommandHandler<RequestType extends RevolverRequest, ResponseType extends RevolverResponse, ContextType extends RevolverContext, ServiceConfigurationType extends RevolverServiceConfig, CommandHandlerConfigurationType extends CommandHandlerConfig>
+            extends HystrixObservableCommand<ResponseType> {
+        private final RevolverCommand<RequestType, ResponseType, ContextType, ServiceConfigurationType, CommandHandlerConfigurationType> handler;
+        private final RequestType request;
+        private final ContextType context;
+
+        RevolverObservableCommandHandler(final HystrixObservableCommand.Setter setter, final ContextType context, final RevolverCommand<RequestType, ResponseType, ContextType, ServiceConfigurationType, CommandHandlerConfigurationType> handler, final RequestType request) {
+            super(setter);
+            this.context = context;
+            this.handler = handler;
+            this.request = request;
+        }
+
+        @Override
+        protected Observable<ResponseType> construct() {
+            return Observable.create(subscriber -> {
+                final CompletableFuture<ResponseType> response;
+                try {
+                    response = this.handler.executeNonBlocking(this.context, this.request);
+                } catch (Exception e) {
+                    subscriber.onError(e);
+                    return;
+                }
+                //Hystrix unsubscribes on timeout; propagate it so that the underlying call gets cancelled
+                subscriber.add(Subscriptions.create(() -> response.cancel(true)));
+                response.whenComplete((result, t) -> {
+                    if (subscriber.isUnsubscribed()) {
+                        return;
+                    }
+                    if (t != null) {
+                        subscriber.onError(t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+                    } else {
+                        subscriber.onNext(result);
+                        subscriber.onCompleted();
+                    }
+                });
+            });
+        }
+
+        @Override
+        protected Observable<ResponseType> resumeWithFallback() {
+            return Observable.just(this.handler.fallback(this.context, this.request));
+        }
+    }
+
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Limits for the batch endpoint (/apis/batch)
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchConfig {
+
+    /**
+     * Sub requests allowed in a single batch
+     */
+    @Min(1)
+    private int maxRequests = 50;
+
+    /**
+     * Sub requests of a batch in flight at any time
+     */
+    @Min(1)
+    private int concurrency = 8;
+
+    /**
+     * Deadline for the whole batch; sub requests still pending at the deadline are answered with a 504
+     */
+    @Min(1)
+    private int timeoutInMillis = 10000;
+}
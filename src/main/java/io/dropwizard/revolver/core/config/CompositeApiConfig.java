@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.Singular;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.Valid;
+import java.util.List;
+
+/**
+ * An api served by revolver itself (GET /apis/composite/{name}) by calling upstream apis as a DAG of steps and merging
+ * their json responses into one document.
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CompositeApiConfig {
+
+    @NotEmpty
+    private String name;
+
+    @NotEmpty
+    @Valid
+    @Singular
+    private List<CompositeStepConfig> steps;
+
+    /**
+     * Deadline for the whole composite (10s when unset); steps still running at the deadline are reported as timed out
+     */
+    private int timeoutInMillis;
+}
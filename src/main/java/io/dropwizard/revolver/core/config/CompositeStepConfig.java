@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.config;
+
+import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.Singular;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.NotNull;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A call made by a composite api. Path, query params, headers and body may reference inputs with placeholders:
+ * {{request.query.name}}, {{request.header.name}} or a field of an earlier step's json response,
+ * e.g. {{user.address.city}} or {{orders.0.id}}. Referencing a step makes this step depend on it; steps without
+ * dependencies between them run in parallel.
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CompositeStepConfig {
+
+    /**
+     * Also the key of the step's response in the composite response
+     */
+    @NotEmpty
+    private String name;
+
+    @NotEmpty
+    private String service;
+
+    @NotNull
+    private RevolverHttpApiConfig.RequestMethod method;
+
+    @NotEmpty
+    private String path;
+
+    @Singular
+    private Map<String, String> queryParams;
+
+    @Singular
+    private Map<String, String> headers;
+
+    /**
+     * Json request body template; placeholders in it are replaced by the json of the referenced value, e.g.
+     * {"userId": {{user.id}}}
+     */
+    private String body;
+
+    /**
+     * Steps to wait for in addition to the ones referenced by placeholders
+     */
+    @Singular("dependsOn")
+    private Set<String> dependsOn;
+
+    /**
+     * Timeout for the step; 0 leaves it to the upstream api's timeout and the composite deadline
+     */
+    private int timeoutInMillis;
+
+    /**
+     * A failed optional step is left out of the merged response (and reported in the trace) instead of failing the
+     * composite
+     */
+    private boolean optional;
+}
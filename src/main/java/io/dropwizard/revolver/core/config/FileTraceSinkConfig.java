@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.config;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Writes traces as json lines to a file that is rolled over when it grows past maxFileSizeInMb
+ * @author phaneesh
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class FileTraceSinkConfig extends TraceSinkConfig {
+
+    @NotEmpty
+    private String path;
+
+    @Min(1)
+    private int maxFileSizeInMb = 100;
+
+    /**
+     * Rolled over files kept (path.1 being the latest)
+     */
+    @Min(0)
+    private int maxFiles = 5;
+
+    public FileTraceSinkConfig() {
+        super("file");
+    }
+
+    @Builder
+    public FileTraceSinkConfig(final String path, final Integer maxFileSizeInMb, final Integer maxFiles) {
+        this();
+        this.path = path;
+        if (maxFileSizeInMb != null) {
+            this.maxFileSizeInMb = maxFileSizeInMb;
+        }
+        if (maxFiles != null) {
+            this.maxFiles = maxFiles;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.config;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Posts every batch of traces as a json array to a collector endpoint
+ * @author phaneesh
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class HttpTraceSinkConfig extends TraceSinkConfig {
+
+    @NotEmpty
+    private String endpoint;
+
+    @Min(1)
+    private int timeoutInMillis = 2000;
+
+    public HttpTraceSinkConfig() {
+        super("http");
+    }
+
+    @Builder
+    public HttpTraceSinkConfig(final String endpoint, final Integer timeoutInMillis) {
+        this();
+        this.endpoint = endpoint;
+        if (timeoutInMillis != null) {
+            this.timeoutInMillis = timeoutInMillis;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.config;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Writes traces as json to an slf4j logger
+ * @author phaneesh
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class LogTraceSinkConfig extends TraceSinkConfig {
+
+    private String logger = "revolver.trace";
+
+    public LogTraceSinkConfig() {
+        super("slf4j");
+    }
+
+    @Builder
+    public LogTraceSinkConfig(final String logger) {
+        this();
+        if (logger != null) {
+            this.logger = logger;
+        }
+    }
+}
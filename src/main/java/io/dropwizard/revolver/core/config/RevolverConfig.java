@@ -79,6 +79,24 @@ public class RevolverConfig {
     @Max(30000)
     private int callbackTimeout = 3000;
 
+    @NotNull
+    @Valid
+    @Getter
+    @Setter
+    private BatchConfig batch = new BatchConfig();
+
+    @NotNull
+    @Valid
+    @Getter
+    @Setter
+    private List<CompositeApiConfig> composites = Lists.newArrayList();
+
+    @NotNull
+    @Valid
+    @Getter
+    @Setter
+    private TracingConfig tracing = new TracingConfig();
+
     @Builder
     public RevolverConfig(ClientConfig clientConfig, RuntimeConfig global, ServiceResolverConfig serviceResolverConfig,
                           String hystrixStreamPath, @Singular List<RevolverServiceConfig> services, MailBoxConfig mailBox) {
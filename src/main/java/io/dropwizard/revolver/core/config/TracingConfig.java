@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.config;
+
+import com.google.common.collect.Lists;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Trace pipeline: traces published by commands are sampled, queued in a bounded buffer and written to the sinks in
+ * batches by a background thread. Traces that find the buffer full are dropped.
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TracingConfig {
+
+    private boolean enabled = true;
+
+    /**
+     * Traces buffered between flushes; rounded up to a power of two
+     */
+    @Min(16)
+    private int bufferSize = 16384;
+
+    /**
+     * Traces handed to the sinks in one write
+     */
+    @Min(1)
+    private int batchSize = 512;
+
+    @Min(1)
+    private int flushIntervalInMillis = 200;
+
+    /**
+     * Fraction of successful transactions traced; decided on the transaction id so every call of a transaction is
+     * either kept or left out
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double sampleRate = 1.0;
+
+    /**
+     * Fraction of failed calls traced, regardless of the transaction's sampling decision
+     */
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double errorSampleRate = 1.0;
+
+    @NotNull
+    @Valid
+    private List<TraceSinkConfig> sinks = Lists.newArrayList();
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.config.hystrix;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Adaptive in flight limit for an api, adjusted between minLimit and maxLimit from observed latency and drops
+ * (timeouts & rejections). The hystrix bulkhead (concurrency) stays in place as the hard upper bound.
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConcurrencyLimitConfig {
+
+    public enum Algorithm {
+        /**
+         * Additive increase while the limit is in use, multiplicative decrease (backoffRatio) on drops
+         */
+        AIMD,
+        /**
+         * Scales the limit by the ratio of long term to current latency, backing off as latency inflates beyond
+         * tolerance
+         */
+        GRADIENT
+    }
+
+    @NotNull
+    private Algorithm algorithm = Algorithm.GRADIENT;
+
+    @Min(1)
+    private int minLimit = 1;
+
+    /**
+     * 0 uses the api's thread pool concurrency
+     */
+    @Min(0)
+    private int maxLimit;
+
+    /**
+     * 0 starts at maxLimit
+     */
+    @Min(0)
+    private int initialLimit;
+
+    @DecimalMin("0.1")
+    @DecimalMax("0.99")
+    private double backoffRatio = 0.9;
+
+    /**
+     * Latency inflation (current / long term) tolerated before the gradient limit backs off
+     */
+    @DecimalMin("1.0")
+    private double tolerance = 1.5;
+
+    @DecimalMin("0.01")
+    @DecimalMax("1.0")
+    private double smoothing = 0.2;
+}
@@ -40,4 +40,9 @@ public class ThreadPoolConfig {
     private int dynamicRequestQueueSize = 10;
 
     private int timeout = 1000;
+
+    /**
+     * When set, concurrency only caps an adaptive limit
+     */
+    private ConcurrencyLimitConfig concurrencyLimit;
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.limiter;
+
+import io.dropwizard.revolver.core.config.hystrix.ConcurrencyLimitConfig;
+
+/**
+ * @author phaneesh
+ */
+public class AimdLimit implements LimitAlgorithm {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    public AimdLimit(final ConcurrencyLimitConfig config, final int maxLimit) {
+        this.minLimit = config.getMinLimit();
+        this.maxLimit = maxLimit;
+        this.backoffRatio = config.getBackoffRatio();
+    }
+
+    @Override
+    public int update(final int limit, final long rttNanos, final int inFlight, final boolean dropped) {
+        if (dropped) {
+            return Math.max(minLimit, (int) (limit * backoffRatio));
+        }
+        //Only grow a limit that is actually being used
+        if (inFlight * 2 >= limit) {
+            return Math.min(maxLimit, limit + 1);
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.limiter;
+
+import io.dropwizard.revolver.core.config.hystrix.ConcurrencyLimitConfig;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits calls of an api while fewer than the current limit are in flight; the limit is recomputed by the configured
+ * {@link LimitAlgorithm} as calls complete. Calls slower than the api timeout count as drops.
+ * @author phaneesh
+ */
+public class ConcurrencyLimiter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LimitAlgorithm algorithm;
+
+    private final long timeoutNanos;
+
+    private volatile int limit;
+
+    public ConcurrencyLimiter(final ConcurrencyLimitConfig config, final int concurrency, final int timeoutInMillis) {
+        final int maxLimit = Math.max(config.getMinLimit(), config.getMaxLimit() > 0 ? config.getMaxLimit() : concurrency);
+        final int initialLimit = config.getInitialLimit() > 0 ? Math.min(config.getInitialLimit(), maxLimit) : maxLimit;
+        this.algorithm = config.getAlgorithm() == ConcurrencyLimitConfig.Algorithm.AIMD
+                ? new AimdLimit(config, maxLimit) : new GradientLimit(config, maxLimit, initialLimit);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutInMillis);
+        this.limit = initialLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Completion of an admitted call that tells something about upstream capacity (a response, a timeout or a
+     * rejection)
+     */
+    public void release(final long rttNanos, final boolean dropped) {
+        final int current = inFlight.getAndDecrement();
+        synchronized (algorithm) {
+            limit = algorithm.update(limit, rttNanos, current, dropped || (timeoutNanos > 0 && rttNanos >= timeoutNanos));
+        }
+    }
+
+    /**
+     * Completion of an admitted call that failed for other reasons; the limit is left as is
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
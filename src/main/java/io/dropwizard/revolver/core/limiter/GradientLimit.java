@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.limiter;
+
+import io.dropwizard.revolver.core.config.hystrix.ConcurrencyLimitConfig;
+
+/**
+ * Tracks a long term (no load) latency as a slow moving average and scales the limit by
+ * tolerance * longTermRtt / rtt, capped to [0.5, 1], then allows a queue of sqrt(limit) on top. Inflating latency shrinks
+ * the limit; while latency stays within tolerance the limit grows by the queue allowance. Drops back off like AIMD.
+ * @author phaneesh
+ */
+public class GradientLimit implements LimitAlgorithm {
+
+    private static final double LONG_TERM_WEIGHT = 2.0 / 601;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final double tolerance;
+
+    private final double smoothing;
+
+    private double longTermRtt;
+
+    private double estimatedLimit;
+
+    public GradientLimit(final ConcurrencyLimitConfig config, final int maxLimit, final int initialLimit) {
+        this.minLimit = config.getMinLimit();
+        this.maxLimit = maxLimit;
+        this.backoffRatio = config.getBackoffRatio();
+        this.tolerance = config.getTolerance();
+        this.smoothing = config.getSmoothing();
+        this.estimatedLimit = initialLimit;
+    }
+
+    @Override
+    public int update(final int limit, final long rttNanos, final int inFlight, final boolean dropped) {
+        if (dropped) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+            return (int) estimatedLimit;
+        }
+        if (longTermRtt == 0) {
+            longTermRtt = rttNanos;
+        }
+        longTermRtt = longTermRtt * (1 - LONG_TERM_WEIGHT) + rttNanos * LONG_TERM_WEIGHT;
+        //Latency dropped well below the long term average (e.g. upstream recovered); let the average catch up faster
+        if (longTermRtt / Math.max(rttNanos, 1) > 2) {
+            longTermRtt *= 0.95;
+        }
+        //An app limited limit says nothing about upstream capacity
+        if (inFlight * 2 < estimatedLimit) {
+            return limit;
+        }
+        final double gradient = Math.max(0.5, Math.min(1.0, tolerance * longTermRtt / Math.max(rttNanos, 1)));
+        final double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - smoothing) + newLimit * smoothing));
+        return (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.limiter;
+
+/**
+ * Computes the next in flight limit from a completed call; calls are serialized by the limiter
+ * @author phaneesh
+ */
+public interface LimitAlgorithm {
+
+    /**
+     * @param limit current limit
+     * @param rttNanos latency of the completed call
+     * @param inFlight calls in flight when the call completed (including it)
+     * @param dropped whether the call timed out or was rejected
+     */
+    int update(final int limit, final long rttNanos, final int inFlight, final boolean dropped);
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.metrics;
+
+import io.dropwizard.revolver.core.model.RevolverConnectionMetrics;
+import io.dropwizard.revolver.core.model.RevolverLatencySnapshot;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per service connection phase timings & reuse counters, fed by the http client's event listener
+ * @author phaneesh
+ */
+public class ConnectionMetrics {
+
+    public enum Phase {
+        DNS,
+        CONNECT,
+        TLS,
+        ACQUIRE,
+        TTFB
+    }
+
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final int WINDOW_SLOTS = 6;
+
+    private static final Map<String, ConnectionMetrics> services = new ConcurrentHashMap<>();
+
+    private final LatencyRecorder[] phases = new LatencyRecorder[Phase.values().length];
+
+    private final LongAdder reused = new LongAdder();
+
+    private final LongAdder opened = new LongAdder();
+
+    private final LongAdder connectFailures = new LongAdder();
+
+    private final LongAdder callFailures = new LongAdder();
+
+    private ConnectionMetrics() {
+        for (Phase phase : Phase.values()) {
+            phases[phase.ordinal()] = new LatencyRecorder(WINDOW_MILLIS, WINDOW_SLOTS);
+        }
+    }
+
+    public static ConnectionMetrics forService(final String service) {
+        return services.computeIfAbsent(service, s -> new ConnectionMetrics());
+    }
+
+    /**
+     * service -> connection metrics; a null service returns all services
+     */
+    public static Map<String, RevolverConnectionMetrics> snapshot(final String service) {
+        final long now = System.currentTimeMillis();
+        final Map<String, RevolverConnectionMetrics> result = new TreeMap<>();
+        services.forEach((name, metrics) -> {
+            if (service == null || service.equals(name)) {
+                result.put(name, metrics.snapshot(now));
+            }
+        });
+        return result;
+    }
+
+    public void record(final Phase phase, final long latencyNanos) {
+        phases[phase.ordinal()].record(latencyNanos);
+    }
+
+    public void acquired(final boolean newConnection) {
+        (newConnection ? opened : reused).increment();
+    }
+
+    public void connectFailed() {
+        connectFailures.increment();
+    }
+
+    public void callFailed() {
+        callFailures.increment();
+    }
+
+    public double reuseRatio() {
+        final long reuses = reused.sum();
+        final long acquisitions = reuses + opened.sum();
+        return acquisitions == 0 ? 0.0 : (double) reuses / acquisitions;
+    }
+
+    public double percentile99(final Phase phase) {
+        return phases[phase.ordinal()].snapshot(System.currentTimeMillis()).getP99();
+    }
+
+    private RevolverConnectionMetrics snapshot(final long now) {
+        final Map<String, RevolverLatencySnapshot> phaseSnapshots = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            phaseSnapshots.put(phase.name().toLowerCase(), phases[phase.ordinal()].snapshot(now));
+        }
+        return RevolverConnectionMetrics.builder()
+                .acquired(reused.sum() + opened.sum())
+                .reused(reused.sum())
+                .opened(opened.sum())
+                .reuseRatio(reuseRatio())
+                .connectFailures(connectFailures.sum())
+                .callFailures(callFailures.sum())
+                .phases(phaseSnapshots)
+                .build();
+    }
+}
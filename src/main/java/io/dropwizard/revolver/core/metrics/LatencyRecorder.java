@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.metrics;
+
+import io.dropwizard.revolver.core.model.RevolverLatencySnapshot;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram over a sliding window. Writers record into an HdrHistogram {@link Recorder}, which is wait-free and
+ * allocation-free. At every slot boundary a timer swaps out the recorder's interval histogram into the slot that just
+ * ended, so calls land in the slot they were made in however rarely snapshots are read; readers add the calls of the
+ * current slot and merge the slots of the window. Only the timer & readers synchronize with each other.
+ * @author phaneesh
+ */
+public class LatencyRecorder {
+
+    private static final ScheduledExecutorService ROTATOR = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("revolver-latency-rotator-%d").setDaemon(true).build());
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+
+    private final LongAdder total = new LongAdder();
+
+    private final long slotMillis;
+
+    private final Histogram[] slots;
+
+    private final long[] slotStarts;
+
+    private final Histogram window = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+
+    private Histogram interval;
+
+    public LatencyRecorder(final long windowMillis, final int slotCount) {
+        this(windowMillis, slotCount, true);
+    }
+
+    /**
+     * @param rotating whether a timer rotates the slots; without it calls go to the slot of the next rotate or snapshot
+     */
+    LatencyRecorder(final long windowMillis, final int slotCount, final boolean rotating) {
+        this.slotMillis = windowMillis / slotCount;
+        this.slots = new Histogram[slotCount];
+        this.slotStarts = new long[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+            slotStarts[i] = -1;
+        }
+        if (rotating) {
+            ROTATOR.scheduleAtFixedRate(() -> rotate(System.currentTimeMillis()),
+                    slotMillis - System.currentTimeMillis() % slotMillis, slotMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void record(final long latencyNanos) {
+        recorder.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(latencyNanos), 0), HIGHEST_TRACKABLE_MICROS));
+        total.increment();
+    }
+
+    /**
+     * Moves the calls recorded since the last rotation into the slot that ended at the boundary last passed
+     */
+    synchronized void rotate(final long now) {
+        flush(now - now % slotMillis - slotMillis);
+    }
+
+    /**
+     * Calls recorded since the last rotation are attributed to the current slot
+     */
+    public synchronized RevolverLatencySnapshot snapshot(final long now) {
+        final long bucketStart = now - now % slotMillis;
+        flush(bucketStart);
+        window.reset();
+        final long windowStart = bucketStart - slotMillis * (slots.length - 1);
+        for (int i = 0; i < slots.length; i++) {
+            if (slotStarts[i] >= windowStart) {
+                window.add(slots[i]);
+            }
+        }
+        final long windowMillis = Math.max(now - windowStart, 1);
+        return RevolverLatencySnapshot.builder()
+                .total(total.sum())
+                .count(window.getTotalCount())
+                .throughput(window.getTotalCount() * 1000.0 / windowMillis)
+                .mean(millis(window.getMean()))
+                .p50(millis(window.getValueAtPercentile(50.0)))
+                .p90(millis(window.getValueAtPercentile(90.0)))
+                .p99(millis(window.getValueAtPercentile(99.0)))
+                .p999(millis(window.getValueAtPercentile(99.9)))
+                .max(millis(window.getMaxValue()))
+                .build();
+    }
+
+    private void flush(final long bucketStart) {
+        final int index = (int) ((bucketStart / slotMillis) % slots.length);
+        if (slotStarts[index] != bucketStart) {
+            slots[index].reset();
+            slotStarts[index] = bucketStart;
+        }
+        interval = recorder.getIntervalHistogram(interval);
+        slots[index].add(interval);
+    }
+
+    private static double millis(final double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+}
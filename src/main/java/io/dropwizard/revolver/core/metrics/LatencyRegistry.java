@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.metrics;
+
+import io.dropwizard.revolver.core.model.RevolverLatencySnapshot;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency recorders per service, api & status class (1xx..5xx, "error" for calls without a response). Commands look up
+ * the {@link ApiLatency} of an api once; recording a call after that neither locks nor allocates.
+ * @author phaneesh
+ */
+public class LatencyRegistry {
+
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final int WINDOW_SLOTS = 6;
+
+    private static final String[] STATUS_CLASSES = {"error", "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private static final Map<String, Map<String, ApiLatency>> services = new ConcurrentHashMap<>();
+
+    private LatencyRegistry() {
+    }
+
+    public static ApiLatency forApi(final String service, final String api) {
+        return services.computeIfAbsent(service, s -> new ConcurrentHashMap<>())
+                .computeIfAbsent(api, a -> new ApiLatency());
+    }
+
+    /**
+     * service -> api -> status class -> latency snapshot; a null service returns all services
+     */
+    public static Map<String, Map<String, Map<String, RevolverLatencySnapshot>>> snapshot(final String service) {
+        final long now = System.currentTimeMillis();
+        final Map<String, Map<String, Map<String, RevolverLatencySnapshot>>> result = new TreeMap<>();
+        services.forEach((name, apis) -> {
+            if (service == null || service.equals(name)) {
+                final Map<String, Map<String, RevolverLatencySnapshot>> apiSnapshots = new TreeMap<>();
+                apis.forEach((api, latency) -> apiSnapshots.put(api, latency.snapshot(now)));
+                result.put(name, apiSnapshots);
+            }
+        });
+        return result;
+    }
+
+    public static Map<String, RevolverLatencySnapshot> snapshot(final String service, final String api) {
+        final Map<String, ApiLatency> apis = services.get(service);
+        if (apis == null || !apis.containsKey(api)) {
+            return Collections.emptyMap();
+        }
+        return apis.get(api).snapshot(System.currentTimeMillis());
+    }
+
+    public static class ApiLatency {
+
+        private final AtomicReferenceArray<LatencyRecorder> recorders = new AtomicReferenceArray<>(STATUS_CLASSES.length);
+
+        /**
+         * @param statusCode http status of the response, 0 or less for calls that failed without one
+         */
+        public void record(final int statusCode, final long latencyNanos) {
+            final int statusClass = statusCode < 100 || statusCode >= 600 ? 0 : statusCode / 100;
+            LatencyRecorder recorder = recorders.get(statusClass);
+            if (recorder == null) {
+                recorders.compareAndSet(statusClass, null, new LatencyRecorder(WINDOW_MILLIS, WINDOW_SLOTS));
+                recorder = recorders.get(statusClass);
+            }
+            recorder.record(latencyNanos);
+        }
+
+        Map<String, RevolverLatencySnapshot> snapshot(final long now) {
+            final Map<String, RevolverLatencySnapshot> result = new TreeMap<>();
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                final LatencyRecorder recorder = recorders.get(i);
+                if (recorder != null) {
+                    result.put(STATUS_CLASSES[i], recorder.snapshot(now));
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -43,4 +44,9 @@ public class RevolverApiMetadata {
     private boolean secured;
 
     private Set<RevolverHttpApiConfig.RequestMethod> methods;
+
+    /**
+     * Upstream latencies by status class
+     */
+    private Map<String, RevolverLatencySnapshot> latency;
 }
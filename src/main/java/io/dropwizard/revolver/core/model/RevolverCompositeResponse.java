@@ -0,0 +1,42 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merged response of a composite api: each successful step's response body under the step's name, and how every
+ * step went.
+ * @author phaneesh
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevolverCompositeResponse {
+
+    private Map<String, JsonNode> data;
+
+    @Singular("trace")
+    private List<RevolverCompositeStepTrace> trace;
+
+    private long durationInMillis;
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Connection lifecycle of a service's upstream calls: time spent per phase and how often pooled connections are reused
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RevolverConnectionMetrics {
+
+    /**
+     * Connections acquired by calls (a call retried on a new route acquires more than one)
+     */
+    private long acquired;
+
+    private long reused;
+
+    private long opened;
+
+    private double reuseRatio;
+
+    private long connectFailures;
+
+    private long callFailures;
+
+    /**
+     * dns, connect (tcp + tls), tls, acquire (call start to connection acquired, including pool waits), ttfb (request
+     * written to first response byte)
+     */
+    private Map<String, RevolverLatencySnapshot> phases;
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Health of a single endpoint of a service as seen from live traffic
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RevolverEndpointStatus {
+
+    private String host;
+
+    private int port;
+
+    private boolean ejected;
+
+    /**
+     * Epoch millis till which the endpoint is out of rotation
+     */
+    private long ejectedUntil;
+
+    private int ejections;
+
+    private int consecutiveErrors;
+
+    private int consecutiveConnectFailures;
+
+    private int outstanding;
+
+    private double latencyInMillis;
+}
@@ -48,4 +48,9 @@ public class RevolverServiceMetadata {
     @Singular("apis")
     private List<RevolverApiMetadata> apis;
 
+    /**
+     * Endpoints tracked by outlier detection along with their ejection state
+     */
+    private List<RevolverEndpointStatus> endpoints;
+
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.tracing;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.revolver.core.config.TracingConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trace collector that never blocks the publishing (request) thread: sampled traces are put in a lock-free ring buffer
+ * and a single background thread drains it in batches to the sinks. Traces that find the buffer full are dropped and
+ * counted.
+ * @author phaneesh
+ */
+@Slf4j
+public class AsyncTraceCollector implements TraceCollector, Managed {
+
+    private static final int SAMPLE_BUCKETS = 10000;
+
+    private final TracingConfig config;
+
+    private final List<TraceSink> sinks;
+
+    private final TraceRingBuffer buffer;
+
+    private final List<Trace> batch;
+
+    private final Meter published;
+
+    private final Meter sampledOut;
+
+    private final Meter dropped;
+
+    private final Meter flushed;
+
+    private final Meter sinkErrors;
+
+    private ScheduledExecutorService drainer;
+
+    public AsyncTraceCollector(final TracingConfig config, final List<TraceSink> sinks, final MetricRegistry metrics) {
+        this.config = config;
+        this.sinks = sinks;
+        this.buffer = new TraceRingBuffer(config.getBufferSize());
+        this.batch = new ArrayList<>(config.getBatchSize());
+        this.published = metrics.meter("revolver.tracing.published");
+        this.sampledOut = metrics.meter("revolver.tracing.sampled_out");
+        this.dropped = metrics.meter("revolver.tracing.dropped");
+        this.flushed = metrics.meter("revolver.tracing.flushed");
+        this.sinkErrors = metrics.meter("revolver.tracing.sink_errors");
+        metrics.remove("revolver.tracing.buffered");
+        metrics.register("revolver.tracing.buffered", (Gauge<Integer>) buffer::size);
+    }
+
+    @Override
+    public void publish(final Trace trace) {
+        if (!isSampled(trace)) {
+            sampledOut.mark();
+            return;
+        }
+        if (buffer.offer(trace)) {
+            published.mark();
+        } else {
+            dropped.mark();
+        }
+    }
+
+    @Override
+    public void start() {
+        drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "revolver-trace-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainer.scheduleWithFixedDelay(this::drain, config.getFlushIntervalInMillis(), config.getFlushIntervalInMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (drainer != null) {
+            drainer.shutdown();
+            drainer.awaitTermination(config.getFlushIntervalInMillis() * 5L, TimeUnit.MILLISECONDS);
+        }
+        //Whatever came in after the last scheduled drain
+        drain();
+        for (TraceSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                log.warn("Error closing trace sink {}: {}", sink.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Empties the buffer batch by batch; runs on the drainer thread (or on the stopping thread once the drainer is done)
+     */
+    synchronized void drain() {
+        while (buffer.drain(batch, config.getBatchSize()) > 0) {
+            for (TraceSink sink : sinks) {
+                try {
+                    sink.write(batch);
+                } catch (Exception e) {
+                    sinkErrors.mark();
+                    log.warn("Error writing {} traces to {}: {}", batch.size(), sink.getClass().getSimpleName(), e.getMessage());
+                }
+            }
+            flushed.mark(batch.size());
+            batch.clear();
+        }
+    }
+
+    /**
+     * Failed calls are kept at the error sample rate. Other calls are kept when their transaction is: the decision is a
+     * function of the transaction id so that all calls of a transaction share it.
+     */
+    private boolean isSampled(final Trace trace) {
+        if (trace.isError()) {
+            return config.getErrorSampleRate() >= 1.0 || ThreadLocalRandom.current().nextDouble() < config.getErrorSampleRate();
+        }
+        if (config.getSampleRate() >= 1.0) {
+            return true;
+        }
+        final int bucket = trace.getTransactionId() == null ? ThreadLocalRandom.current().nextInt(SAMPLE_BUCKETS)
+                : (trace.getTransactionId().hashCode() & Integer.MAX_VALUE) % SAMPLE_BUCKETS;
+        return bucket < config.getSampleRate() * SAMPLE_BUCKETS;
+    }
+}
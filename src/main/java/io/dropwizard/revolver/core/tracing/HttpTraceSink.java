@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.revolver.core.config.HttpTraceSinkConfig;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author phaneesh
+ */
+public class HttpTraceSink implements TraceSink {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private final String endpoint;
+
+    private final ObjectMapper objectMapper;
+
+    private final OkHttpClient client;
+
+    public HttpTraceSink(final HttpTraceSinkConfig config, final ObjectMapper objectMapper) {
+        this.endpoint = config.getEndpoint();
+        this.objectMapper = objectMapper;
+        this.client = new OkHttpClient.Builder()
+                .connectTimeout(config.getTimeoutInMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getTimeoutInMillis(), TimeUnit.MILLISECONDS)
+                .writeTimeout(config.getTimeoutInMillis(), TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(false)
+                .build();
+    }
+
+    @Override
+    public void write(final List<Trace> traces) throws IOException {
+        final Request request = new Request.Builder()
+                .url(endpoint)
+                .post(RequestBody.create(JSON, objectMapper.writeValueAsBytes(traces)))
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Trace collector " + endpoint + " responded with " + response.code());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+}
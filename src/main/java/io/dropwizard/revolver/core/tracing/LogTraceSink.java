@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.revolver.core.config.LogTraceSinkConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * @author phaneesh
+ */
+public class LogTraceSink implements TraceSink {
+
+    private final Logger logger;
+
+    private final ObjectMapper objectMapper;
+
+    public LogTraceSink(final LogTraceSinkConfig config, final ObjectMapper objectMapper) {
+        this.logger = LoggerFactory.getLogger(config.getLogger());
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void write(final List<Trace> traces) throws IOException {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        for (Trace trace : traces) {
+            logger.info(objectMapper.writeValueAsString(trace));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.revolver.core.config.FileTraceSinkConfig;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Json lines file; when the file grows past the configured size it is renamed to path.1 (older files shifting up to
+ * path.maxFiles) and a new file is started.
+ * @author phaneesh
+ */
+public class RollingFileTraceSink implements TraceSink {
+
+    private static final byte NEW_LINE = '\n';
+
+    private final Path path;
+
+    private final long maxFileSize;
+
+    private final int maxFiles;
+
+    private final ObjectMapper objectMapper;
+
+    private OutputStream output;
+
+    private long size;
+
+    public RollingFileTraceSink(final FileTraceSinkConfig config, final ObjectMapper objectMapper) throws IOException {
+        this.path = Paths.get(config.getPath());
+        this.maxFileSize = config.getMaxFileSizeInMb() * 1024L * 1024L;
+        this.maxFiles = config.getMaxFiles();
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        open();
+    }
+
+    @Override
+    public void write(final List<Trace> traces) throws IOException {
+        for (Trace trace : traces) {
+            final byte[] line = objectMapper.writeValueAsBytes(trace);
+            output.write(line);
+            output.write(NEW_LINE);
+            size += line.length + 1;
+        }
+        output.flush();
+        if (size >= maxFileSize) {
+            roll();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private void open() throws IOException {
+        output = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        size = Files.size(path);
+    }
+
+    private void roll() throws IOException {
+        output.close();
+        if (maxFiles == 0) {
+            Files.delete(path);
+        } else {
+            Files.deleteIfExists(rolled(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                if (Files.exists(rolled(i))) {
+                    Files.move(rolled(i), rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open();
+    }
+
+    private Path rolled(final int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+}
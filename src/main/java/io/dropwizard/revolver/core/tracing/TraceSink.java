@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.revolver.core.config.FileTraceSinkConfig;
+import io.dropwizard.revolver.core.config.HttpTraceSinkConfig;
+import io.dropwizard.revolver.core.config.LogTraceSinkConfig;
+import io.dropwizard.revolver.core.config.TraceSinkConfig;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of traces; always called from the trace collector's drainer thread, never from request threads
+ * @author phaneesh
+ */
+public interface TraceSink {
+
+    void write(final List<Trace> traces) throws IOException;
+
+    default void close() throws IOException {
+    }
+
+    static TraceSink create(final TraceSinkConfig config, final ObjectMapper objectMapper) throws IOException {
+        switch (config.getType()) {
+            case "slf4j":
+                return new LogTraceSink((LogTraceSinkConfig) config, objectMapper);
+            case "file":
+                return new RollingFileTraceSink((FileTraceSinkConfig) config, objectMapper);
+            case "http":
+                return new HttpTraceSink((HttpTraceSinkConfig) config, objectMapper);
+            default:
+                throw new IllegalArgumentException("Unsupported trace sink: " + config.getType());
+        }
+    }
+}
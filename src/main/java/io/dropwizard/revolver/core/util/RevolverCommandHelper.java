@@ -36,6 +36,8 @@ import io.dropwizard.revolver.core.tracing.TraceInfo;
  */
 public class RevolverCommandHelper {
 
+    private static final String NON_BLOCKING_KEY_SUFFIX = "nonblocking";
+
     public static String getName(final RevolverRequest request) {
         return Joiner.on(".").join(request.getService(), request.getApi());
     }
@@ -62,55 +64,93 @@ public class RevolverCommandHelper {
     }
 
     public static HystrixCommand.Setter setter(final RevolverCommand commandHandler, final String api) {
+        final ThreadPoolConfig threadPoolConfig = threadPoolConfig(commandHandler, api);
+        final MetricsConfig metricsConfig = metricsConfig(commandHandler);
+        final String keyName = commandKeyName(commandHandler, api, false);
+        return HystrixCommand.Setter.withGroupKey(HystrixCommandGroupKey.Factory
+                .asKey(commandHandler.getServiceConfiguration().getService()))
+                .andCommandPropertiesDefaults(commandProperties(commandHandler, api, threadPoolConfig.isSemaphoreIsolated()))
+                .andCommandKey(HystrixCommandKey.Factory.asKey(keyName)).andThreadPoolKey(HystrixThreadPoolKey.Factory.asKey(keyName))
+                .andThreadPoolPropertiesDefaults(HystrixThreadPoolProperties.Setter()
+                        .withCoreSize(threadPoolConfig.getConcurrency()).withMaxQueueSize(threadPoolConfig.getMaxRequestQueueSize())
+                        .withQueueSizeRejectionThreshold(threadPoolConfig.getDynamicRequestQueueSize())
+                        .withMetricsRollingStatisticalWindowBuckets(metricsConfig.getStatsBucketSize())
+                        .withMetricsRollingStatisticalWindowInMilliseconds(metricsConfig.getStatsTimeInMillis()));
+    }
+
+    /**
+     * Setter for commands that complete asynchronously without holding a hystrix pool thread. Such commands are always
+     * semaphore isolated; the configured concurrency becomes the semaphore size. Hystrix caches properties per command
+     * key, so these commands get their own key (service.api.nonblocking) instead of sharing the thread isolated one.
+     */
+    public static HystrixObservableCommand.Setter observableSetter(final RevolverCommand commandHandler, final String api) {
+        final String keyName = commandKeyName(commandHandler, api, true);
+        return HystrixObservableCommand.Setter.withGroupKey(HystrixCommandGroupKey.Factory
+                .asKey(commandHandler.getServiceConfiguration().getService()))
+                .andCommandPropertiesDefaults(commandProperties(commandHandler, api, true))
+                .andCommandKey(HystrixCommandKey.Factory.asKey(keyName));
+    }
+
+    /**
+     * Hystrix command key of an api's calls; non blocking calls run under their own key
+     */
+    public static String commandKeyName(final RevolverCommand commandHandler, final String api, final boolean nonBlocking) {
+        final String service = commandHandler.getServiceConfiguration().getService();
+        return nonBlocking ? Joiner.on(".").join(service, api, NON_BLOCKING_KEY_SUFFIX) : Joiner.on(".").join(service, api);
+    }
+
+    private static HystrixCommandProperties.Setter commandProperties(final RevolverCommand commandHandler, final String api,
+                                                                     final boolean semaphoreIsolated) {
+        final CircuitBreakerConfig circuitBreakerConfig = circuitBreakerConfig(commandHandler, api);
+        final ThreadPoolConfig threadPoolConfig = threadPoolConfig(commandHandler, api);
+        final MetricsConfig metricsConfig = metricsConfig(commandHandler);
+        return HystrixCommandProperties.Setter()
+                .withExecutionIsolationStrategy(semaphoreIsolated ? HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE : HystrixCommandProperties.ExecutionIsolationStrategy.THREAD)
+                .withExecutionIsolationSemaphoreMaxConcurrentRequests(threadPoolConfig.getConcurrency())
+                .withFallbackIsolationSemaphoreMaxConcurrentRequests(threadPoolConfig.getConcurrency())
+                .withFallbackEnabled(commandHandler.isFallbackEnabled(api))
+                .withCircuitBreakerErrorThresholdPercentage(circuitBreakerConfig.getErrorThresholdPercentage())
+                .withCircuitBreakerRequestVolumeThreshold(circuitBreakerConfig.getNumAcceptableFailuresInTimeWindow())
+                .withCircuitBreakerSleepWindowInMilliseconds(circuitBreakerConfig.getWaitTimeBeforeRetry())
+                .withExecutionTimeoutInMilliseconds(threadPoolConfig.getTimeout())
+                .withMetricsHealthSnapshotIntervalInMilliseconds(metricsConfig.getHealthCheckInterval())
+                .withMetricsRollingPercentileBucketSize(metricsConfig.getPercentileBucketSize())
+                .withMetricsRollingPercentileWindowInMilliseconds(metricsConfig.getPercentileTimeInMillis());
+    }
+
+    private static CircuitBreakerConfig circuitBreakerConfig(final RevolverCommand commandHandler, final String api) {
         final RuntimeConfig runtimeConfig = commandHandler.getRuntimeConfig();
         final RevolverServiceConfig serviceConfiguration = commandHandler.getServiceConfiguration();
         final CommandHandlerConfig config = (CommandHandlerConfig) commandHandler.getApiConfigurations().get(api);
-        CircuitBreakerConfig circuitBreakerConfig;
         if(null != runtimeConfig) {
-            circuitBreakerConfig = runtimeConfig.getCircuitBreaker();
+            return runtimeConfig.getCircuitBreaker();
         } else if (null != config.getRuntime() && null != config.getRuntime().getCircuitBreaker()) {
-            circuitBreakerConfig = config.getRuntime().getCircuitBreaker();
+            return config.getRuntime().getCircuitBreaker();
         } else if (null != serviceConfiguration.getRuntime() && null != serviceConfiguration.getRuntime().getCircuitBreaker()) {
-            circuitBreakerConfig = serviceConfiguration.getRuntime().getCircuitBreaker();
-        } else {
-            circuitBreakerConfig = new CircuitBreakerConfig();
+            return serviceConfiguration.getRuntime().getCircuitBreaker();
         }
-        ThreadPoolConfig threadPoolConfig;
+        return new CircuitBreakerConfig();
+    }
+
+    public static ThreadPoolConfig threadPoolConfig(final RevolverCommand commandHandler, final String api) {
+        final RuntimeConfig runtimeConfig = commandHandler.getRuntimeConfig();
+        final RevolverServiceConfig serviceConfiguration = commandHandler.getServiceConfiguration();
+        final CommandHandlerConfig config = (CommandHandlerConfig) commandHandler.getApiConfigurations().get(api);
         if(null != config.getRuntime() && null != config.getRuntime().getThreadPool()) {
-            threadPoolConfig = config.getRuntime().getThreadPool();
+            return config.getRuntime().getThreadPool();
         } else if (null != serviceConfiguration.getRuntime() && null != serviceConfiguration.getRuntime().getThreadPool()) {
-            threadPoolConfig = serviceConfiguration.getRuntime().getThreadPool();
+            return serviceConfiguration.getRuntime().getThreadPool();
         } else if(null != runtimeConfig) {
-            threadPoolConfig = runtimeConfig.getThreadPool();
-        } else {
-            threadPoolConfig = new ThreadPoolConfig();
+            return runtimeConfig.getThreadPool();
         }
-        MetricsConfig metricsConfig;
+        return new ThreadPoolConfig();
+    }
+
+    private static MetricsConfig metricsConfig(final RevolverCommand commandHandler) {
+        final RuntimeConfig runtimeConfig = commandHandler.getRuntimeConfig();
         if(null != runtimeConfig) {
-            metricsConfig = runtimeConfig.getMetrics();
-        } else {
-            metricsConfig = new MetricsConfig();
+            return runtimeConfig.getMetrics();
         }
-        final String keyName = Joiner.on(".").join(commandHandler.getServiceConfiguration().getService(), api);
-        return HystrixCommand.Setter.withGroupKey(HystrixCommandGroupKey.Factory
-                .asKey(serviceConfiguration.getService()))
-                .andCommandPropertiesDefaults(HystrixCommandProperties.Setter()
-                        .withExecutionIsolationStrategy(threadPoolConfig.isSemaphoreIsolated() ? HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE : HystrixCommandProperties.ExecutionIsolationStrategy.THREAD)
-                        .withExecutionIsolationSemaphoreMaxConcurrentRequests(threadPoolConfig.getConcurrency())
-                        .withFallbackIsolationSemaphoreMaxConcurrentRequests(threadPoolConfig.getConcurrency())
-                        .withFallbackEnabled(commandHandler.isFallbackEnabled())
-                        .withCircuitBreakerErrorThresholdPercentage(circuitBreakerConfig.getErrorThresholdPercentage())
-                        .withCircuitBreakerRequestVolumeThreshold(circuitBreakerConfig.getNumAcceptableFailuresInTimeWindow())
-                        .withCircuitBreakerSleepWindowInMilliseconds(circuitBreakerConfig.getWaitTimeBeforeRetry())
-                        .withExecutionTimeoutInMilliseconds(threadPoolConfig.getTimeout())
-                        .withMetricsHealthSnapshotIntervalInMilliseconds(metricsConfig.getHealthCheckInterval())
-                        .withMetricsRollingPercentileBucketSize(metricsConfig.getPercentileBucketSize())
-                        .withMetricsRollingPercentileWindowInMilliseconds(metricsConfig.getPercentileTimeInMillis()))
-                .andCommandKey(HystrixCommandKey.Factory.asKey(keyName)).andThreadPoolKey(HystrixThreadPoolKey.Factory.asKey(keyName))
-                .andThreadPoolPropertiesDefaults(HystrixThreadPoolProperties.Setter()
-                        .withCoreSize(threadPoolConfig.getConcurrency()).withMaxQueueSize(threadPoolConfig.getMaxRequestQueueSize())
-                        .withQueueSizeRejectionThreshold(threadPoolConfig.getDynamicRequestQueueSize())
-                        .withMetricsRollingStatisticalWindowBuckets(metricsConfig.getStatsBucketSize())
-                        .withMetricsRollingStatisticalWindowInMilliseconds(metricsConfig.getStatsTimeInMillis()));
+        return new MetricsConfig();
     }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery;
+
+import io.dropwizard.revolver.discovery.config.HealthCheckConfig;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Active health checks of the hosts of a static endpoint. Checks are sent asynchronously; a host changes state only
+ * after the configured number of consecutive failed / passed checks. Hosts start out healthy.
+ * @author phaneesh
+ */
+@Slf4j
+class EndpointHealthChecker {
+
+    private static final OkHttpClient BASE_CLIENT = new OkHttpClient.Builder()
+            .followRedirects(false)
+            .retryOnConnectionFailure(false)
+            .build();
+
+    private final HealthCheckConfig config;
+    private final OkHttpClient client;
+    private final Map<Endpoint, State> states = new ConcurrentHashMap<>();
+
+    EndpointHealthChecker(final HealthCheckConfig config, final List<Endpoint> endpoints) {
+        this.config = config;
+        this.client = BASE_CLIENT.newBuilder()
+                .connectTimeout(config.getTimeoutInMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getTimeoutInMillis(), TimeUnit.MILLISECONDS)
+                .writeTimeout(config.getTimeoutInMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        endpoints.forEach(endpoint -> states.put(endpoint, new State()));
+    }
+
+    boolean isHealthy(final Endpoint endpoint) {
+        final State state = states.get(endpoint);
+        return state == null || state.healthy;
+    }
+
+    void check() {
+        states.forEach((endpoint, state) -> {
+            final HttpUrl url = new HttpUrl.Builder()
+                    .scheme(config.isSecured() ? "https" : "http")
+                    .host(endpoint.getHost())
+                    .port(endpoint.getPort())
+                    .encodedPath(config.getPath().startsWith("/") ? config.getPath() : "/" + config.getPath())
+                    .build();
+            client.newCall(new Request.Builder().url(url).get().build()).enqueue(new Callback() {
+                @Override
+                public void onFailure(final Call call, final IOException e) {
+                    state.failed(endpoint, e.toString());
+                }
+
+                @Override
+                public void onResponse(final Call call, final Response response) {
+                    try {
+                        if (response.code() < 400) {
+                            state.passed(endpoint);
+                        } else {
+                            state.failed(endpoint, "HTTP " + response.code());
+                        }
+                    } finally {
+                        response.close();
+                    }
+                }
+            });
+        });
+    }
+
+    private final class State {
+        private volatile boolean healthy = true;
+        private int consecutiveFailures;
+        private int consecutivePasses;
+
+        synchronized void failed(final Endpoint endpoint, final String reason) {
+            consecutivePasses = 0;
+            if (++consecutiveFailures >= config.getUnhealthyThreshold() && healthy) {
+                healthy = false;
+                log.warn("Health check of {}:{} failed {} times; taken out of rotation: {}", endpoint.getHost(),
+                        endpoint.getPort(), consecutiveFailures, reason);
+            }
+        }
+
+        synchronized void passed(final Endpoint endpoint) {
+            consecutiveFailures = 0;
+            if (++consecutivePasses >= config.getHealthyThreshold() && !healthy) {
+                healthy = true;
+                log.info("Health check of {}:{} passed; back in rotation", endpoint.getHost(), endpoint.getPort());
+            }
+        }
+    }
+}
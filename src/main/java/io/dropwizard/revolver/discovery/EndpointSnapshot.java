@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.dropwizard.revolver.core.model.RevolverZoneTraffic;
+import io.dropwizard.revolver.discovery.balancer.LoadBalancer;
+import io.dropwizard.revolver.discovery.balancer.OutlierDetector;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import lombok.Getter;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Healthy endpoints of a spec along with its balancer & outlier detector. The endpoint list is immutable and replaced
+ * as a whole, so a call only does a volatile read. A change in discovery data is published once it has been stable for
+ * the debounce time (or has been pending for the max delay), so a burst of updates yields a single rebuild.
+ * @author phaneesh
+ */
+class EndpointSnapshot {
+
+    private static final Comparator<Endpoint> ORDER = Comparator.comparing(Endpoint::getHost).thenComparingInt(Endpoint::getPort);
+
+    @Getter
+    private final LoadBalancer balancer;
+    @Getter
+    private final OutlierDetector outlierDetector;
+    @Getter
+    private volatile List<Endpoint> endpoints = ImmutableList.of();
+    @Getter
+    private volatile long rebuilds;
+
+    private volatile Map<Endpoint, String> zones = ImmutableMap.of();
+    @Getter
+    private volatile boolean failover;
+    private final Map<String, LongAdder> traffic = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile long lastRefresh;
+
+    private List<Endpoint> pending;
+    private long pendingSince;
+    private long lastChange;
+
+    EndpointSnapshot(final EndpointSpec spec) {
+        this.balancer = LoadBalancer.create(spec.getBalancer());
+        this.outlierDetector = new OutlierDetector(spec.getOutlierDetection(), balancer);
+    }
+
+    /**
+     * Zones of the discovered nodes & whether calls currently go to every zone
+     */
+    void zones(final Map<Endpoint, String> discovered, final boolean failover) {
+        if (!zones.equals(discovered)) {
+            zones = ImmutableMap.copyOf(discovered);
+        }
+        this.failover = failover;
+    }
+
+    /**
+     * Counts a call to the zone of the picked endpoint
+     */
+    Endpoint picked(final Endpoint endpoint) {
+        if (endpoint == null || zones.isEmpty()) {
+            return endpoint;
+        }
+        final String zone = zones.get(endpoint);
+        if (zone != null) {
+            final LongAdder requests = traffic.get(zone);
+            (requests != null ? requests : traffic.computeIfAbsent(zone, z -> new LongAdder())).increment();
+        }
+        return endpoint;
+    }
+
+    RevolverZoneTraffic zoneTraffic(final String localZone) {
+        final Map<String, Long> requests = new TreeMap<>();
+        traffic.forEach((zone, count) -> requests.put(zone, count.sum()));
+        final long total = requests.values().stream().mapToLong(Long::longValue).sum();
+        final long local = localZone == null ? 0 : requests.getOrDefault(localZone, 0L);
+        return RevolverZoneTraffic.builder()
+                .localZone(localZone)
+                .failover(failover)
+                .requests(requests)
+                .localShare(total == 0 ? 0.0 : (double) local / total)
+                .build();
+    }
+
+    /**
+     * Claims the lookup of an empty snapshot: one at a time, at most once per interval. Release it with
+     * {@link #refreshed()}.
+     */
+    boolean claimRefresh(final long now, final long minInterval) {
+        if (now - lastRefresh < minInterval || !refreshing.compareAndSet(false, true)) {
+            return false;
+        }
+        lastRefresh = now;
+        return true;
+    }
+
+    void refreshed() {
+        refreshing.set(false);
+    }
+
+    /**
+     * Publishes the given endpoints right away
+     */
+    synchronized void publish(final List<Endpoint> discovered) {
+        endpoints = ImmutableList.sortedCopyOf(ORDER, discovered);
+        outlierDetector.retain(endpoints);
+        balancer.retain(endpoints);
+        pending = null;
+        rebuilds++;
+    }
+
+    /**
+     * Offers the endpoints currently in discovery; publishes them when they have settled
+     * @return true if a new snapshot was published
+     */
+    synchronized boolean offer(final List<Endpoint> discovered, final long now, final long debounce, final long maxDelay) {
+        final List<Endpoint> current = ImmutableList.sortedCopyOf(ORDER, discovered);
+        if (current.equals(endpoints)) {
+            pending = null;
+            return false;
+        }
+        //Nothing to serve from; no point waiting
+        if (endpoints.isEmpty()) {
+            publish(current);
+            return true;
+        }
+        if (!current.equals(pending)) {
+            if (pending == null) {
+                pendingSince = now;
+            }
+            pending = current;
+            lastChange = now;
+        }
+        if (now - lastChange >= debounce || now - pendingSince >= maxDelay) {
+            publish(current);
+            return true;
+        }
+        return false;
+    }
+}
@@ -18,6 +18,8 @@
 package io.dropwizard.revolver.discovery;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import io.dropwizard.revolver.discovery.balancer.BalancerType;
+import io.dropwizard.revolver.discovery.config.OutlierDetectionConfig;
 import io.dropwizard.revolver.discovery.model.EndpointSpecType;
 
 import javax.validation.constraints.NotNull;
@@ -31,6 +33,16 @@ public abstract class EndpointSpec {
     @NotNull
     private final EndpointSpecType type;
 
+    /**
+     * How a call picks one of the healthy endpoints
+     */
+    private BalancerType balancer = BalancerType.RANDOM;
+
+    /**
+     * Ejection of misbehaving endpoints; off by default
+     */
+    private OutlierDetectionConfig outlierDetection = new OutlierDetectionConfig();
+
     protected EndpointSpec(final EndpointSpecType type) {
         this.type = type;
     }
@@ -40,4 +52,20 @@ public abstract class EndpointSpec {
     public EndpointSpecType getType() {
         return this.type;
     }
+
+    public BalancerType getBalancer() {
+        return this.balancer;
+    }
+
+    public void setBalancer(final BalancerType balancer) {
+        this.balancer = balancer;
+    }
+
+    public OutlierDetectionConfig getOutlierDetection() {
+        return this.outlierDetection;
+    }
+
+    public void setOutlierDetection(final OutlierDetectionConfig outlierDetection) {
+        this.outlierDetection = outlierDetection;
+    }
 }
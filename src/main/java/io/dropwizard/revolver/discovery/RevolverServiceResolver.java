@@ -26,9 +26,17 @@ import com.flipkart.ranger.healthcheck.HealthcheckStatus;
 import com.flipkart.ranger.model.ServiceNode;
 import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
+import com.google.common.math.IntMath;
+import io.dropwizard.revolver.discovery.balancer.LoadBalancer;
+import io.dropwizard.revolver.discovery.balancer.OutlierDetector;
+import io.dropwizard.revolver.core.model.RevolverZoneTraffic;
+import io.dropwizard.revolver.discovery.config.HealthCheckConfig;
+import io.dropwizard.revolver.discovery.config.ZoneAffinityConfig;
 import io.dropwizard.revolver.discovery.model.Endpoint;
+import io.dropwizard.revolver.discovery.model.MultiHostEndpointSpec;
 import io.dropwizard.revolver.discovery.model.RangerEndpointSpec;
 import io.dropwizard.revolver.discovery.model.SimpleEndpointSpec;
+import io.dropwizard.revolver.discovery.model.WeightedEndpoint;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.curator.framework.CuratorFramework;
@@ -36,9 +44,15 @@ import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.retry.RetryNTimes;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * @author phaneesh
@@ -53,6 +67,10 @@ public class RevolverServiceResolver {
     @Getter
     private Map<String, ShardedServiceDiscoveryInfo> serviceFinders = Maps.newConcurrentMap();
     private final ExecutorService executorService = Executors.newCachedThreadPool();
+    private final Map<EndpointSpec, EndpointSnapshot> snapshots = Maps.newConcurrentMap();
+    private final ServiceResolverConfig refreshConfig;
+    private final Map<EndpointSpec, EndpointHealthChecker> healthCheckers = Maps.newConcurrentMap();
+    private ScheduledExecutorService refresher;
 
     @Builder
     public RevolverServiceResolver(final ServiceResolverConfig resolverConfig, final ObjectMapper objectMapper) {
@@ -72,6 +90,7 @@ public class RevolverServiceResolver {
             discoverEnabled = false;
             curatorFramework = null;
         }
+        this.refreshConfig = resolverConfig == null ? new ServiceResolverConfig() : resolverConfig;
     }
 
     @Builder(builderMethodName = "usingCurator")
@@ -80,12 +99,136 @@ public class RevolverServiceResolver {
         this.objectMapper = objectMapper;
         this.curatorFramework = curatorFramework;
         this.discoverEnabled = true;
+        this.refreshConfig = resolverConfig == null ? new ServiceResolverConfig() : resolverConfig;
     }
 
+    /**
+     * Starts refreshing snapshots of discovered & health checked endpoints; the refresher is created on first use
+     */
+    private synchronized ScheduledExecutorService refresher() {
+        if (refresher == null) {
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "revolver-endpoint-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(this::refreshSnapshots, refreshConfig.getSnapshotRefreshIntervalInMillis(),
+                    refreshConfig.getSnapshotRefreshIntervalInMillis(), TimeUnit.MILLISECONDS);
+        }
+        return refresher;
+    }
+
+    /**
+     * A healthy endpoint picked by the balancer of the spec; null when there is none.
+     */
     public Endpoint resolve(final EndpointSpec endpointSpecification) {
-        return new SpecResolver(this.discoverEnabled, this.serviceFinders).resolve(endpointSpecification);
+        final EndpointSnapshot snapshot = snapshot(endpointSpecification);
+        return snapshot.picked(snapshot.getBalancer().choose(snapshot.getOutlierDetector().filter(snapshot.getEndpoints())));
+    }
+
+    /**
+     * A healthy endpoint other than the given one; null when there is no other endpoint to send to.
+     */
+    public Endpoint resolveOther(final EndpointSpec endpointSpecification, final Endpoint exclude) {
+        final EndpointSnapshot snapshot = snapshot(endpointSpecification);
+        final List<Endpoint> endpoints = new ArrayList<>(snapshot.getEndpoints());
+        endpoints.removeIf(endpoint -> endpoint.equals(exclude));
+        return snapshot.picked(snapshot.getBalancer().choose(snapshot.getOutlierDetector().filter(endpoints)));
+    }
+
+    /**
+     * Calls sent to each zone; null when the spec has no zone affinity
+     */
+    public RevolverZoneTraffic zoneTraffic(final EndpointSpec endpointSpecification) {
+        if (!(endpointSpecification instanceof RangerEndpointSpec)
+                || ((RangerEndpointSpec) endpointSpecification).getZoneAffinity() == null
+                || !((RangerEndpointSpec) endpointSpecification).getZoneAffinity().isEnabled()) {
+            return null;
+        }
+        return snapshot(endpointSpecification).zoneTraffic(refreshConfig.getZone());
+    }
+
+    /**
+     * Balancer of the spec; it is fed the outcome of every call sent to the endpoints it picks.
+     */
+    public LoadBalancer balancer(final EndpointSpec endpointSpecification) {
+        return snapshot(endpointSpecification).getBalancer();
     }
 
+    /**
+     * Ejects misbehaving endpoints of the spec from its candidates; a pass through when outlier detection is off.
+     */
+    public OutlierDetector outlierDetector(final EndpointSpec endpointSpecification) {
+        return snapshot(endpointSpecification).getOutlierDetector();
+    }
+
+    private EndpointSnapshot snapshot(final EndpointSpec endpointSpecification) {
+        //Plain get first; computeIfAbsent locks the bin even when the key is present
+        final EndpointSnapshot snapshot = snapshots.get(endpointSpecification);
+        if (snapshot != null) {
+            if (snapshot.getEndpoints().isEmpty()) {
+                refreshEmpty(endpointSpecification, snapshot, refreshConfig.getEmptySnapshotRefreshIntervalInMillis());
+            }
+            return snapshot;
+        }
+        return snapshots.computeIfAbsent(endpointSpecification, spec -> {
+            final EndpointSnapshot created = new EndpointSnapshot(spec);
+            final SpecResolver resolver = specResolver();
+            created.publish(resolver.resolveAll(spec));
+            created.zones(resolver.zones, resolver.failover);
+            return created;
+        });
+    }
+
+    /**
+     * A snapshot with nothing to serve from (e.g. taken before the service finder loaded the nodes at startup) is
+     * looked up again instead of waiting for the refresher. Calls find it empty too, so a single lookup runs at a time
+     * and at most once per interval; the others go on with the empty snapshot.
+     */
+    private void refreshEmpty(final EndpointSpec spec, final EndpointSnapshot snapshot, final long minInterval) {
+        if (!snapshot.claimRefresh(System.currentTimeMillis(), minInterval)) {
+            return;
+        }
+        try {
+            final SpecResolver resolver = specResolver();
+            final List<Endpoint> discovered = resolver.resolveAll(spec);
+            if (!discovered.isEmpty()) {
+                snapshot.zones(resolver.zones, resolver.failover);
+                if (snapshot.offer(discovered, System.currentTimeMillis(), 0, 0)) {
+                    log.info("Rebuilt endpoints of {}: {}", describe(spec), snapshot.getEndpoints());
+                }
+            }
+        } finally {
+            snapshot.refreshed();
+        }
+    }
+
+    private SpecResolver specResolver() {
+        return new SpecResolver(this.discoverEnabled, this.serviceFinders, this.healthCheckers, this.refreshConfig.getZone());
+    }
+
+    /**
+     * Checks discovered & health checked endpoints for changes
+     */
+    void refreshSnapshots() {
+        final long now = System.currentTimeMillis();
+        snapshots.forEach((spec, snapshot) -> {
+            if (!(spec instanceof RangerEndpointSpec) && !healthCheckers.containsKey(spec)) {
+                return;
+            }
+            try {
+                final SpecResolver resolver = specResolver();
+                final boolean rebuilt = snapshot.offer(resolver.resolveAll(spec), now, refreshConfig.getSnapshotDebounceInMillis(),
+                        refreshConfig.getSnapshotMaxDelayInMillis());
+                snapshot.zones(resolver.zones, resolver.failover);
+                if (rebuilt) {
+                    log.info("Rebuilt endpoints of {}: {}", describe(spec), snapshot.getEndpoints());
+                }
+            } catch (Exception e) {
+                log.error("Error refreshing endpoints of " + describe(spec), e);
+            }
+        });
+    }
 
     public void register(final EndpointSpec endpointSpecification) {
         endpointSpecification.accept(new SpecVisitor() {
@@ -95,6 +238,17 @@ public class RevolverServiceResolver {
                 log.info("Initialized simple service: " + simpleEndpointSpecification.getHost());
             }
 
+            @Override
+            public void visit(final MultiHostEndpointSpec multiHostEndpointSpecification) {
+                final HealthCheckConfig healthCheck = multiHostEndpointSpecification.getHealthCheck();
+                if (healthCheck != null && !healthCheckers.containsKey(multiHostEndpointSpecification)) {
+                    final EndpointHealthChecker checker = new EndpointHealthChecker(healthCheck, endpoints(multiHostEndpointSpecification));
+                    healthCheckers.put(multiHostEndpointSpecification, checker);
+                    refresher().scheduleWithFixedDelay(checker::check, 0, healthCheck.getIntervalInMillis(), TimeUnit.MILLISECONDS);
+                }
+                log.info("Initialized multi host service: " + endpoints(multiHostEndpointSpecification));
+            }
+
             @Override
             @SuppressWarnings("unchecked")
             public void visit(final RangerEndpointSpec rangerEndpointSpecification) {
@@ -119,10 +273,15 @@ public class RevolverServiceResolver {
                                     }
                             ).build();
                     serviceFinders.put(rangerEndpointSpecification.getService(), ShardedServiceDiscoveryInfo.builder().environment(rangerEndpointSpecification.getEnvironment()).shardFinder(serviceFinder).build());
+                    refresher();
                     executorService.submit(() -> {
                                 try {
                                     log.info("Service finder starting for: " + rangerEndpointSpecification.getService());
                                     serviceFinder.start();
+                                    final EndpointSnapshot snapshot = snapshots.get(rangerEndpointSpecification);
+                                    if (snapshot != null && snapshot.getEndpoints().isEmpty()) {
+                                        refreshEmpty(rangerEndpointSpecification, snapshot, 0);
+                                    }
                                 } catch (Exception e) {
                                     log.error("Error registering service finder started for: " + rangerEndpointSpecification.getService(), e);
                                 }
@@ -137,6 +296,17 @@ public class RevolverServiceResolver {
         });
     }
 
+    private static String describe(final EndpointSpec spec) {
+        return spec instanceof RangerEndpointSpec ? "service " + ((RangerEndpointSpec) spec).getService() : spec.getType().name();
+    }
+
+    private static List<Endpoint> endpoints(final MultiHostEndpointSpec multiHostEndpointSpecification) {
+        return multiHostEndpointSpecification.getHosts().stream()
+                .map(host -> Endpoint.builder().host(host.getHost()).port(host.getPort()).build())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -155,23 +325,68 @@ public class RevolverServiceResolver {
     @AllArgsConstructor
     @NoArgsConstructor
     @Builder
+    @EqualsAndHashCode(exclude = "zone")
     public static final class ShardInfo {
         private String environment;
+
+        /**
+         * Zone of the node; not part of shard matching
+         */
+        private String zone;
+
+        public ShardInfo(final String environment) {
+            this.environment = environment;
+        }
     }
 
     private static class SpecResolver implements SpecVisitor {
-        private Endpoint endpoint;
+        private List<Endpoint> endpoints;
         private final boolean discoverEnabled;
         private final Map<String, ShardedServiceDiscoveryInfo> serviceFinders;
+        private final Map<EndpointSpec, EndpointHealthChecker> healthCheckers;
+        private final String localZone;
+        private Map<Endpoint, String> zones = Collections.emptyMap();
+        private boolean failover;
 
-        private SpecResolver(final boolean discoverEnabled, final Map<String, ShardedServiceDiscoveryInfo> serviceFinders) {
+        private SpecResolver(final boolean discoverEnabled, final Map<String, ShardedServiceDiscoveryInfo> serviceFinders,
+                             final Map<EndpointSpec, EndpointHealthChecker> healthCheckers, final String localZone) {
             this.discoverEnabled = discoverEnabled;
             this.serviceFinders = serviceFinders;
+            this.healthCheckers = healthCheckers;
+            this.localZone = localZone;
+        }
+
+        /**
+         * Healthy hosts, each repeated in proportion to its weight; every host when none passes its health check
+         */
+        @Override
+        public void visit(final MultiHostEndpointSpec multiHostEndpointSpecification) {
+            final EndpointHealthChecker checker = this.healthCheckers.get(multiHostEndpointSpecification);
+            this.endpoints = weighted(multiHostEndpointSpecification, checker);
+            if (this.endpoints.isEmpty()) {
+                this.endpoints = weighted(multiHostEndpointSpecification, null);
+            }
+        }
+
+        private static List<Endpoint> weighted(final MultiHostEndpointSpec multiHostEndpointSpecification, final EndpointHealthChecker checker) {
+            final int divisor = multiHostEndpointSpecification.getHosts().stream()
+                    .mapToInt(WeightedEndpoint::getWeight)
+                    .reduce(0, IntMath::gcd);
+            final List<Endpoint> weighted = new ArrayList<>();
+            for (WeightedEndpoint host : multiHostEndpointSpecification.getHosts()) {
+                final Endpoint endpoint = Endpoint.builder().host(host.getHost()).port(host.getPort()).build();
+                if (checker == null || checker.isHealthy(endpoint)) {
+                    for (int i = 0; i < host.getWeight() / divisor; i++) {
+                        weighted.add(endpoint);
+                    }
+                }
+            }
+            return weighted;
         }
 
         @Override
         public void visit(final SimpleEndpointSpec simpleEndpointSpecification) {
-            this.endpoint = Endpoint.builder().host(simpleEndpointSpecification.getHost()).port(simpleEndpointSpecification.getPort()).build();
+            this.endpoints = new ArrayList<>(Collections.singletonList(Endpoint.builder().host(simpleEndpointSpecification.getHost()).port(simpleEndpointSpecification.getPort()).build()));
         }
 
         @Override
@@ -180,16 +395,40 @@ public class RevolverServiceResolver {
                 throw new IllegalAccessError("Zookeeper is not initialized in config. Discovery based lookups will not be possible.");
             }
             final SimpleShardedServiceFinder<ShardInfo> finder = this.serviceFinders.get(rangerEndpointSpecification.getService()).getShardFinder();
-            final ServiceNode<ShardInfo> node = finder.get(ShardInfo.builder().environment(rangerEndpointSpecification.getEnvironment()).build());
+            final ShardInfo criteria = ShardInfo.builder().environment(rangerEndpointSpecification.getEnvironment()).build();
+            final List<ServiceNode<ShardInfo>> nodes = finder.getAll(criteria);
             //Get only the nodes that are healthy
-            if (node != null && node.getHealthcheckStatus() == HealthcheckStatus.healthy) {
-                this.endpoint = Endpoint.builder().host(node.getHost()).port(node.getPort()).build();
+            List<ServiceNode<ShardInfo>> healthy = nodes.stream()
+                    .filter(node -> node.getHealthcheckStatus() == HealthcheckStatus.healthy)
+                    .collect(Collectors.toList());
+            final ZoneAffinityConfig zoneAffinity = rangerEndpointSpecification.getZoneAffinity();
+            if (zoneAffinity != null && zoneAffinity.isEnabled() && !Strings.isNullOrEmpty(this.localZone)) {
+                final long local = nodes.stream().filter(this::isLocal).count();
+                final List<ServiceNode<ShardInfo>> localHealthy = healthy.stream().filter(this::isLocal).collect(Collectors.toList());
+                //Stay in the zone while it has enough healthy capacity; otherwise spread over every zone
+                this.failover = localHealthy.size() < zoneAffinity.getMinLocalHealthyNodes()
+                        || localHealthy.size() * 100L < zoneAffinity.getMinLocalHealthyPercent() * local;
+                if (!this.failover) {
+                    healthy = localHealthy;
+                }
+                this.zones = nodes.stream()
+                        .filter(node -> node.getNodeData() != null && node.getNodeData().getZone() != null)
+                        .collect(Collectors.toMap(node -> Endpoint.builder().host(node.getHost()).port(node.getPort()).build(),
+                                node -> node.getNodeData().getZone(), (first, second) -> first));
             }
+            this.endpoints = healthy.stream()
+                    .map(node -> Endpoint.builder().host(node.getHost()).port(node.getPort()).build())
+                    .collect(Collectors.toList());
+        }
+
+        private boolean isLocal(final ServiceNode<ShardInfo> node) {
+            return node.getNodeData() != null && this.localZone.equals(node.getNodeData().getZone());
         }
 
-        Endpoint resolve(final EndpointSpec specification) {
+        List<Endpoint> resolveAll(final EndpointSpec specification) {
+            this.endpoints = new ArrayList<>();
             specification.accept(this);
-            return this.endpoint;
+            return this.endpoints;
         }
     }
 }
@@ -17,6 +17,7 @@
 
 package io.dropwizard.revolver.discovery;
 
+import com.google.common.base.Strings;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -31,6 +32,8 @@ import lombok.NoArgsConstructor;
 @Builder
 public class ServiceResolverConfig {
 
+    public static final String ZONE_ENVIRONMENT_VARIABLE = "REVOLVER_ZONE";
+
     @Builder.Default
     private boolean useCurator = false;
 
@@ -38,5 +41,48 @@ public class ServiceResolverConfig {
 
     private String namespace;
 
+    /**
+     * Zone of this gateway for zone affinity; read from the REVOLVER_ZONE environment variable when not set
+     */
+    private String zone;
+
+    /**
+     * How often the healthy endpoints of discovered services are checked for changes; 500 ms when not set
+     */
+    private int snapshotRefreshIntervalInMillis;
+
+    /**
+     * A change in the healthy endpoints is published once it has been stable for this long; 1000 ms when not set
+     */
+    private int snapshotDebounceInMillis;
+
+    /**
+     * Upper bound on the publishing delay while discovery data keeps changing; 5000 ms when not set
+     */
+    private int snapshotMaxDelayInMillis;
+
+    /**
+     * Least time between two lookups of a spec with no endpoints made for calls to it; 100 ms when not set
+     */
+    private int emptySnapshotRefreshIntervalInMillis;
+
+    public String getZone() {
+        return Strings.isNullOrEmpty(zone) ? System.getenv(ZONE_ENVIRONMENT_VARIABLE) : zone;
+    }
+
+    public int getSnapshotRefreshIntervalInMillis() {
+        return snapshotRefreshIntervalInMillis > 0 ? snapshotRefreshIntervalInMillis : 500;
+    }
+
+    public int getSnapshotDebounceInMillis() {
+        return snapshotDebounceInMillis > 0 ? snapshotDebounceInMillis : 1000;
+    }
+
+    public int getSnapshotMaxDelayInMillis() {
+        return snapshotMaxDelayInMillis > 0 ? snapshotMaxDelayInMillis : 5000;
+    }
 
+    public int getEmptySnapshotRefreshIntervalInMillis() {
+        return emptySnapshotRefreshIntervalInMillis > 0 ? emptySnapshotRefreshIntervalInMillis : 100;
+    }
 }
@@ -17,6 +17,7 @@
 
 package io.dropwizard.revolver.discovery;
 
+import io.dropwizard.revolver.discovery.model.MultiHostEndpointSpec;
 import io.dropwizard.revolver.discovery.model.RangerEndpointSpec;
 import io.dropwizard.revolver.discovery.model.SimpleEndpointSpec;
 
@@ -28,4 +29,6 @@ public interface SpecVisitor {
     void visit(final SimpleEndpointSpec simpleEndpointSpec);
 
     void visit(final RangerEndpointSpec rangerEndpointSpec);
+
+    void visit(final MultiHostEndpointSpec multiHostEndpointSpec);
 }
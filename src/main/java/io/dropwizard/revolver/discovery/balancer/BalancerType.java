@@ -0,0 +1,33 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery.balancer;
+
+/**
+ * @author phaneesh
+ */
+public enum BalancerType {
+    RANDOM,
+    ROUND_ROBIN,
+    /**
+     * Endpoint with the fewest calls in flight
+     */
+    LEAST_OUTSTANDING,
+    /**
+     * Power of two choices: the better of two random endpoints by peak EWMA latency weighted by calls in flight
+     */
+    P2C_EWMA
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery.balancer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calls in flight & peak EWMA latency of an endpoint. A latency above the average replaces it right away; lower ones
+ * pull it down with a weight that grows with the time since the last observation, so a slow endpoint is avoided at once
+ * and recovers gradually.
+ * @author phaneesh
+ */
+public class EndpointStats {
+
+    private static final double DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private double ewmaNanos;
+
+    private long lastObserved;
+
+    void started() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * A call given up on by the caller (e.g. the losing leg of a hedge) says nothing about the endpoint
+     */
+    void cancelled() {
+        outstanding.decrementAndGet();
+    }
+
+    synchronized void completed(final long latencyNanos, final long now) {
+        outstanding.decrementAndGet();
+        if (lastObserved == 0 || latencyNanos > ewmaNanos) {
+            ewmaNanos = latencyNanos;
+        } else {
+            final double weight = Math.exp(-(now - lastObserved) / DECAY_NANOS);
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastObserved = now;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public synchronized double getEwmaNanos() {
+        return ewmaNanos;
+    }
+
+    /**
+     * Expected wait for one more call; endpoints without observations cost nothing so that they get probed
+     */
+    double cost() {
+        return getEwmaNanos() * (getOutstanding() + 1);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery.balancer;
+
+import io.dropwizard.revolver.discovery.model.Endpoint;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks an endpoint among the healthy endpoints of a service and learns from the outcome of the calls sent to them.
+ * @author phaneesh
+ */
+public abstract class LoadBalancer {
+
+    /**
+     * Latency charged for a failed call, so that failing endpoints look slow to latency aware balancers
+     */
+    private static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentHashMap<Endpoint, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    public static LoadBalancer create(final BalancerType type) {
+        switch (type == null ? BalancerType.RANDOM : type) {
+            case ROUND_ROBIN:
+                return new RoundRobinBalancer();
+            case LEAST_OUTSTANDING:
+                return new LeastOutstandingBalancer();
+            case P2C_EWMA:
+                return new PeakEwmaBalancer();
+            default:
+                return new RandomBalancer();
+        }
+    }
+
+    /**
+     * @return null when there are no endpoints
+     */
+    public Endpoint choose(final List<Endpoint> endpoints) {
+        if (endpoints == null || endpoints.isEmpty()) {
+            return null;
+        }
+        if (endpoints.size() == 1) {
+            return endpoints.get(0);
+        }
+        return select(endpoints);
+    }
+
+    /**
+     * Forgets endpoints no longer discovered once they have no calls in flight; a call still running keeps its stats,
+     * so completing it does not drive the outstanding count below zero. Called when the endpoints are republished.
+     */
+    public void retain(final Collection<Endpoint> endpoints) {
+        final Set<Endpoint> current = new HashSet<>(endpoints);
+        stats.entrySet().removeIf(entry -> !current.contains(entry.getKey()) && entry.getValue().getOutstanding() <= 0);
+    }
+
+    protected abstract Endpoint select(final List<Endpoint> endpoints);
+
+    public void onStart(final Endpoint endpoint) {
+        stats(endpoint).started();
+    }
+
+    public void onComplete(final Endpoint endpoint, final long latencyNanos, final boolean failed) {
+        stats(endpoint).completed(failed ? Math.max(latencyNanos, FAILURE_PENALTY_NANOS) : latencyNanos, System.nanoTime());
+    }
+
+    public void onCancel(final Endpoint endpoint) {
+        stats(endpoint).cancelled();
+    }
+
+    public EndpointStats stats(final Endpoint endpoint) {
+        final EndpointStats existing = stats.get(endpoint);
+        return existing != null ? existing : stats.computeIfAbsent(endpoint, e -> new EndpointStats());
+    }
+
+    protected static int random(final int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+}
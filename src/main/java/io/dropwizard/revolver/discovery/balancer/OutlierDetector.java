@@ -0,0 +1,231 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery.balancer;
+
+import io.dropwizard.revolver.core.model.RevolverEndpointStatus;
+import io.dropwizard.revolver.discovery.config.OutlierDetectionConfig;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Passive health checking: ejects endpoints that fail consecutive calls or are much slower than their peers from the
+ * candidates of a service for an exponentially growing time, never ejecting more than the configured share.
+ * @author phaneesh
+ */
+@Slf4j
+public class OutlierDetector {
+
+    public enum Outcome {
+        SUCCESS,
+        /**
+         * 5xx or io error after the connection was made
+         */
+        ERROR,
+        CONNECT_FAILURE
+    }
+
+    private final OutlierDetectionConfig config;
+    private final LoadBalancer balancer;
+    private final LongSupplier clock;
+    private final Map<Endpoint, State> states = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep;
+    private volatile int candidates;
+
+    public OutlierDetector(final OutlierDetectionConfig config, final LoadBalancer balancer) {
+        this(config, balancer, System::currentTimeMillis);
+    }
+
+    OutlierDetector(final OutlierDetectionConfig config, final LoadBalancer balancer, final LongSupplier clock) {
+        this.config = config == null ? new OutlierDetectionConfig() : config;
+        this.balancer = balancer;
+        this.clock = clock;
+        this.lastSweep = new AtomicLong(clock.getAsLong());
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * The given healthy endpoints without the ejected ones; all of them if every endpoint is ejected.
+     */
+    public List<Endpoint> filter(final List<Endpoint> endpoints) {
+        if (!config.isEnabled() || endpoints == null || endpoints.isEmpty()) {
+            return endpoints;
+        }
+        final long now = clock.getAsLong();
+        if (config.getLatencyOutlierFactor() > 0 && now - lastSweep.get() >= config.getIntervalInMillis()) {
+            final long last = lastSweep.get();
+            if (now - last >= config.getIntervalInMillis() && lastSweep.compareAndSet(last, now)) {
+                sweepLatencyOutliers(endpoints, now);
+            }
+        }
+        if (states.isEmpty() || noneEjected(endpoints, now)) {
+            return endpoints;
+        }
+        final List<Endpoint> available = endpoints.stream()
+                .filter(endpoint -> !isEjected(endpoint, now))
+                .collect(Collectors.toCollection(ArrayList::new));
+        return available.isEmpty() ? endpoints : available;
+    }
+
+    /**
+     * Forgets endpoints that are no longer discovered; the remaining distinct endpoints are what the max ejection
+     * percent applies to.
+     */
+    public void retain(final Collection<Endpoint> endpoints) {
+        final Set<Endpoint> current = new HashSet<>(endpoints);
+        states.keySet().retainAll(current);
+        candidates = current.size();
+    }
+
+    public void record(final Endpoint endpoint, final Outcome outcome) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        final State state = state(endpoint);
+        state.requests.incrementAndGet();
+        switch (outcome) {
+            case SUCCESS:
+                state.consecutiveErrors.set(0);
+                state.consecutiveConnectFailures.set(0);
+                break;
+            case CONNECT_FAILURE:
+                if (state.consecutiveConnectFailures.incrementAndGet() >= config.getConsecutiveConnectFailures()) {
+                    eject(endpoint, state, "consecutive connect failures");
+                }
+                break;
+            default:
+                state.consecutiveConnectFailures.set(0);
+                if (state.consecutiveErrors.incrementAndGet() >= config.getConsecutiveErrors()) {
+                    eject(endpoint, state, "consecutive errors");
+                }
+        }
+    }
+
+    private boolean noneEjected(final List<Endpoint> endpoints, final long now) {
+        for (int i = 0; i < endpoints.size(); i++) {
+            if (isEjected(endpoints.get(i), now)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isEjected(final Endpoint endpoint, final long now) {
+        final State state = states.get(endpoint);
+        return state != null && state.ejectedUntil > now;
+    }
+
+    public List<RevolverEndpointStatus> status() {
+        final long now = clock.getAsLong();
+        return states.entrySet().stream()
+                .map(entry -> {
+                    final EndpointStats stats = balancer.stats(entry.getKey());
+                    final State state = entry.getValue();
+                    return RevolverEndpointStatus.builder()
+                            .host(entry.getKey().getHost())
+                            .port(entry.getKey().getPort())
+                            .ejected(state.ejectedUntil > now)
+                            .ejectedUntil(state.ejectedUntil)
+                            .ejections(state.ejections)
+                            .consecutiveErrors(state.consecutiveErrors.get())
+                            .consecutiveConnectFailures(state.consecutiveConnectFailures.get())
+                            .outstanding(stats.getOutstanding())
+                            .latencyInMillis(stats.getEwmaNanos() / TimeUnit.MILLISECONDS.toNanos(1))
+                            .build();
+                })
+                .sorted(Comparator.comparing(RevolverEndpointStatus::getHost).thenComparing(RevolverEndpointStatus::getPort))
+                .collect(Collectors.toList());
+    }
+
+    private void sweepLatencyOutliers(final List<Endpoint> endpoints, final long now) {
+        final List<Endpoint> sampled = new ArrayList<>();
+        final List<Double> latencies = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            final State state = states.get(endpoint);
+            if (state == null) {
+                continue;
+            }
+            if (state.requests.getAndSet(0) >= config.getMinimumRequests() && !isEjected(endpoint, now)) {
+                sampled.add(endpoint);
+                latencies.add(balancer.stats(endpoint).getEwmaNanos());
+            }
+        }
+        if (sampled.size() < config.getMinimumHosts()) {
+            return;
+        }
+        final List<Double> sorted = new ArrayList<>(latencies);
+        sorted.sort(Double::compare);
+        final double threshold = Math.max(sorted.get(sorted.size() / 2) * config.getLatencyOutlierFactor(),
+                TimeUnit.MILLISECONDS.toNanos(config.getMinimumOutlierLatencyInMillis()));
+        for (int i = 0; i < sampled.size(); i++) {
+            if (latencies.get(i) > threshold) {
+                eject(sampled.get(i), state(sampled.get(i)), "latency outlier");
+            }
+        }
+    }
+
+    private synchronized void eject(final Endpoint endpoint, final State state, final String reason) {
+        final long now = clock.getAsLong();
+        if (state.ejectedUntil > now) {
+            return;
+        }
+        final long ejected = states.values().stream().filter(s -> s.ejectedUntil > now).count();
+        final int total = candidates > 0 ? candidates : states.size();
+        if ((ejected + 1) * 100 > (long)config.getMaxEjectionPercent() * total) {
+            return;
+        }
+        //Back to the base ejection time once an endpoint has behaved for a full max ejection time
+        if (now - state.ejectedUntil > config.getMaxEjectionTimeInMillis()) {
+            state.ejections = 0;
+        }
+        final long duration = Math.min((long)config.getBaseEjectionTimeInMillis() << Math.min(state.ejections, 20),
+                config.getMaxEjectionTimeInMillis());
+        state.ejections++;
+        state.ejectedUntil = now + duration;
+        state.consecutiveErrors.set(0);
+        state.consecutiveConnectFailures.set(0);
+        log.warn("Ejected endpoint {}:{} for {} ms: {}", endpoint.getHost(), endpoint.getPort(), duration, reason);
+    }
+
+    private State state(final Endpoint endpoint) {
+        return states.computeIfAbsent(endpoint, e -> new State());
+    }
+
+    private static final class State {
+        private final AtomicInteger consecutiveErrors = new AtomicInteger();
+        private final AtomicInteger consecutiveConnectFailures = new AtomicInteger();
+        private final AtomicInteger requests = new AtomicInteger();
+        private volatile long ejectedUntil;
+        private int ejections;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery.balancer;
+
+import io.dropwizard.revolver.discovery.model.Endpoint;
+
+import java.util.List;
+
+/**
+ * @author phaneesh
+ */
+class RandomBalancer extends LoadBalancer {
+
+    @Override
+    protected Endpoint select(final List<Endpoint> endpoints) {
+        return endpoints.get(random(endpoints.size()));
+    }
+}
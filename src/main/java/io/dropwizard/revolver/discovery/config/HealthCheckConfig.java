@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.validator.constraints.NotBlank;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Periodic http check of the hosts of a static endpoint; a host answering with a 2xx / 3xx is healthy
+ * @author phaneesh
+ */
+@Data
+@NoArgsConstructor
+public class HealthCheckConfig {
+
+    @NotBlank
+    private String path = "/";
+
+    private boolean secured = false;
+
+    @Min(100)
+    private int intervalInMillis = 5000;
+
+    @Min(1)
+    private int timeoutInMillis = 1000;
+
+    /**
+     * Consecutive failed checks that take a host out of rotation
+     */
+    @Min(1)
+    private int unhealthyThreshold = 3;
+
+    /**
+     * Consecutive passed checks that bring a host back
+     */
+    @Min(1)
+    private int healthyThreshold = 2;
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * Ejection of misbehaving endpoints of a service based on the outcome of live calls
+ * @author phaneesh
+ */
+@Data
+@NoArgsConstructor
+public class OutlierDetectionConfig {
+
+    private boolean enabled = false;
+
+    /**
+     * Consecutive 5xx / io errors that eject an endpoint
+     */
+    @Min(1)
+    private int consecutiveErrors = 5;
+
+    /**
+     * Consecutive failures to connect that eject an endpoint
+     */
+    @Min(1)
+    private int consecutiveConnectFailures = 3;
+
+    /**
+     * An endpoint whose latency exceeds this multiple of the median latency of its peers is ejected; 0 disables it
+     */
+    @Min(0)
+    private double latencyOutlierFactor = 3.0;
+
+    /**
+     * Latency below which an endpoint is never a latency outlier
+     */
+    @Min(0)
+    private int minimumOutlierLatencyInMillis = 50;
+
+    /**
+     * Calls an endpoint must have completed in an interval to be considered for latency ejection
+     */
+    @Min(1)
+    private int minimumRequests = 10;
+
+    /**
+     * Endpoints with latency data needed in an interval for latency ejection
+     */
+    @Min(2)
+    private int minimumHosts = 3;
+
+    @Min(100)
+    private int intervalInMillis = 10000;
+
+    /**
+     * First ejection time; it doubles with every ejection that follows closely on the previous one
+     */
+    @Min(1)
+    private int baseEjectionTimeInMillis = 30000;
+
+    @Min(1)
+    private int maxEjectionTimeInMillis = 300000;
+
+    /**
+     * Share of the endpoints of a service that can be ejected at any time
+     */
+    @Min(0)
+    @Max(100)
+    private int maxEjectionPercent = 50;
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * Preference for discovered nodes in the zone of the gateway
+ * @author phaneesh
+ */
+@Data
+@NoArgsConstructor
+public class ZoneAffinityConfig {
+
+    private boolean enabled = false;
+
+    /**
+     * Traffic fails over to every zone when fewer than this share of the nodes in the local zone are healthy
+     */
+    @Min(0)
+    @Max(100)
+    private int minLocalHealthyPercent = 70;
+
+    /**
+     * Traffic fails over to every zone when fewer than this many nodes in the local zone are healthy
+     */
+    @Min(1)
+    private int minLocalHealthyNodes = 1;
+}
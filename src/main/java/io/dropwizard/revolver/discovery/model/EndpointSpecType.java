@@ -24,5 +24,6 @@ public enum EndpointSpecType {
 
     simple,
     ranger_simple,
-    ranger_sharded
+    ranger_sharded,
+    multi_host
 }
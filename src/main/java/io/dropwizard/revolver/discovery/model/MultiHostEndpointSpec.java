@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery.model;
+
+import io.dropwizard.revolver.discovery.EndpointSpec;
+import io.dropwizard.revolver.discovery.SpecVisitor;
+import io.dropwizard.revolver.discovery.config.HealthCheckConfig;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.Singular;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.Valid;
+import java.util.List;
+
+/**
+ * Static set of hosts balanced on the client side, for upstreams that are not registered in discovery
+ * @author phaneesh
+ */
+public class MultiHostEndpointSpec extends EndpointSpec {
+
+    @Getter
+    @Setter
+    @NotEmpty
+    @Valid
+    private List<WeightedEndpoint> hosts;
+
+    /**
+     * Active health check of every host; hosts are only checked passively (outlier detection) when not set
+     */
+    @Getter
+    @Setter
+    @Valid
+    private HealthCheckConfig healthCheck;
+
+    public MultiHostEndpointSpec() {
+        super(EndpointSpecType.multi_host);
+    }
+
+    @Builder
+    public MultiHostEndpointSpec(@Singular final List<WeightedEndpoint> hosts, final HealthCheckConfig healthCheck) {
+        super(EndpointSpecType.multi_host);
+        this.hosts = hosts;
+        this.healthCheck = healthCheck;
+    }
+
+    @Override
+    public void accept(final SpecVisitor visitor) {
+        visitor.visit(this);
+    }
+}
@@ -19,9 +19,12 @@ package io.dropwizard.revolver.discovery.model;
 
 import io.dropwizard.revolver.discovery.EndpointSpec;
 import io.dropwizard.revolver.discovery.SpecVisitor;
+import io.dropwizard.revolver.discovery.config.ZoneAffinityConfig;
 import lombok.Getter;
 import lombok.Setter;
 
+import javax.validation.Valid;
+
 /**
  * @author phaneesh
  */
@@ -35,6 +38,14 @@ public class RangerEndpointSpec extends EndpointSpec {
     @Setter
     private String environment;
 
+    /**
+     * Preference for nodes in the zone of the gateway; off when not set
+     */
+    @Getter
+    @Setter
+    @Valid
+    private ZoneAffinityConfig zoneAffinity;
+
     public RangerEndpointSpec() {
         super(EndpointSpecType.ranger_sharded);
     }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http;
+
+import io.dropwizard.revolver.discovery.balancer.LoadBalancer;
+import io.dropwizard.revolver.discovery.balancer.OutlierDetector;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+
+/**
+ * Reports calls in flight & the latency / outcome of every call to the balancer that picked its endpoint and to the
+ * outlier detector of the service. Calls cancelled by the caller (hedge losers, timeouts) only release their slot.
+ * @author phaneesh
+ */
+class BalancerFeedbackInterceptor implements Interceptor {
+
+    private final LoadBalancer balancer;
+    private final OutlierDetector outlierDetector;
+
+    BalancerFeedbackInterceptor(final LoadBalancer balancer, final OutlierDetector outlierDetector) {
+        this.balancer = balancer;
+        this.outlierDetector = outlierDetector;
+    }
+
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+        final HttpUrl url = chain.request().url();
+        final Endpoint endpoint = Endpoint.builder().host(url.host()).port(url.port()).build();
+        balancer.onStart(endpoint);
+        final long start = System.nanoTime();
+        OutlierDetector.Outcome outcome = OutlierDetector.Outcome.ERROR;
+        try {
+            final Response response = chain.proceed(chain.request());
+            outcome = response.code() >= 500 ? OutlierDetector.Outcome.ERROR : OutlierDetector.Outcome.SUCCESS;
+            return response;
+        } catch (ConnectException | NoRouteToHostException | UnknownHostException e) {
+            outcome = OutlierDetector.Outcome.CONNECT_FAILURE;
+            throw e;
+        } finally {
+            if (chain.call().isCanceled()) {
+                balancer.onCancel(endpoint);
+            } else {
+                balancer.onComplete(endpoint, System.nanoTime() - start, outcome != OutlierDetector.Outcome.SUCCESS);
+                outlierDetector.record(endpoint, outcome);
+            }
+        }
+    }
+}
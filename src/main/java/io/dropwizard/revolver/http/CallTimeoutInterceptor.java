@@ -0,0 +1,146 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Applies the time a call has left before its deadline to that call, so every call goes through the one service client
+ * instead of a client derived per timeout. The connect, read & write timeouts bound each phase; a watchdog cancels the
+ * call once the whole of it (reading the response body included) runs past the deadline. Calls without a deadline keep
+ * the client's timeouts.
+ * @author phaneesh
+ */
+class CallTimeoutInterceptor implements Interceptor {
+
+    private final ScheduledExecutorService scheduler;
+
+    CallTimeoutInterceptor(final ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    static void timeout(final Request.Builder request, final long timeoutInMillis) {
+        request.tag(CallTimeout.class, new CallTimeout((int)Math.min(timeoutInMillis, Integer.MAX_VALUE)));
+    }
+
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+        final CallTimeout timeout = chain.request().tag(CallTimeout.class);
+        if (timeout == null) {
+            return chain.proceed(chain.request());
+        }
+        final Call call = chain.call();
+        final AtomicBoolean expired = new AtomicBoolean();
+        final ScheduledFuture<?> watchdog = scheduler.schedule(() -> {
+            expired.set(true);
+            call.cancel();
+        }, timeout.millis, TimeUnit.MILLISECONDS);
+        boolean proceeded = false;
+        try {
+            final Response response = chain.withConnectTimeout(timeout.millis, TimeUnit.MILLISECONDS)
+                    .withReadTimeout(timeout.millis, TimeUnit.MILLISECONDS)
+                    .withWriteTimeout(timeout.millis, TimeUnit.MILLISECONDS)
+                    .proceed(chain.request());
+            proceeded = response.body() != null;
+            return proceeded ? response.newBuilder().body(new DeadlineBody(response.body(), watchdog, expired, timeout)).build() : response;
+        } catch (IOException e) {
+            throw expired.get() ? timedOut(timeout, e) : e;
+        } finally {
+            if (!proceeded) {
+                watchdog.cancel(false);
+            }
+        }
+    }
+
+    private static SocketTimeoutException timedOut(final CallTimeout timeout, final IOException cause) {
+        final SocketTimeoutException timedOut = new SocketTimeoutException("Call ran past its deadline of " + timeout.millis + "ms");
+        timedOut.initCause(cause);
+        return timedOut;
+    }
+
+    /**
+     * Response body read under the call's deadline; closing it stops the watchdog
+     */
+    private static final class DeadlineBody extends ResponseBody {
+
+        private final ResponseBody body;
+
+        private final BufferedSource source;
+
+        private DeadlineBody(final ResponseBody body, final ScheduledFuture<?> watchdog, final AtomicBoolean expired,
+                             final CallTimeout timeout) {
+            this.body = body;
+            this.source = Okio.buffer(new ForwardingSource(body.source()) {
+                @Override
+                public long read(final Buffer sink, final long byteCount) throws IOException {
+                    try {
+                        return super.read(sink, byteCount);
+                    } catch (IOException e) {
+                        throw expired.get() ? timedOut(timeout, e) : e;
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    watchdog.cancel(false);
+                    super.close();
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return body.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return body.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+
+    private static final class CallTimeout {
+
+        private final int millis;
+
+        private CallTimeout(final int millis) {
+            this.millis = millis;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http;
+
+import io.dropwizard.revolver.core.metrics.ConnectionMetrics;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * Times the phases of a call's connection lifecycle. One listener is created per call (okhttp calls back on the thread
+ * driving the call, so no synchronization is needed); recording is a handful of nanoTime reads and lock free adds.
+ * @author phaneesh
+ */
+class ConnectionEventListener extends EventListener {
+
+    private final ConnectionMetrics metrics;
+
+    private long callStart;
+
+    private long dnsStart;
+
+    private long connectStart;
+
+    private long secureConnectStart;
+
+    private long requestSent;
+
+    private boolean connecting;
+
+    private ConnectionEventListener(final ConnectionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    static EventListener.Factory factory(final String service) {
+        final ConnectionMetrics metrics = ConnectionMetrics.forService(service);
+        return call -> new ConnectionEventListener(metrics);
+    }
+
+    @Override
+    public void callStart(final Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(final Call call, final String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(final Call call, final String domainName, final List<InetAddress> inetAddressList) {
+        metrics.record(ConnectionMetrics.Phase.DNS, System.nanoTime() - dnsStart);
+    }
+
+    @Override
+    public void connectStart(final Call call, final InetSocketAddress inetSocketAddress, final Proxy proxy) {
+        connectStart = System.nanoTime();
+        connecting = true;
+    }
+
+    @Override
+    public void secureConnectStart(final Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(final Call call, final Handshake handshake) {
+        metrics.record(ConnectionMetrics.Phase.TLS, System.nanoTime() - secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(final Call call, final InetSocketAddress inetSocketAddress, final Proxy proxy, final Protocol protocol) {
+        metrics.record(ConnectionMetrics.Phase.CONNECT, System.nanoTime() - connectStart);
+    }
+
+    @Override
+    public void connectFailed(final Call call, final InetSocketAddress inetSocketAddress, final Proxy proxy,
+                              final Protocol protocol, final IOException ioe) {
+        metrics.connectFailed();
+    }
+
+    @Override
+    public void connectionAcquired(final Call call, final Connection connection) {
+        metrics.record(ConnectionMetrics.Phase.ACQUIRE, System.nanoTime() - callStart);
+        metrics.acquired(connecting);
+        connecting = false;
+    }
+
+    @Override
+    public void requestHeadersEnd(final Call call, final Request request) {
+        requestSent = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(final Call call, final long byteCount) {
+        requestSent = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(final Call call) {
+        metrics.record(ConnectionMetrics.Phase.TTFB, System.nanoTime() - requestSent);
+    }
+
+    @Override
+    public void callFailed(final Call call, final IOException ioe) {
+        metrics.callFailed();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Sends a request and, if it has not completed within the hedge delay, a second copy produced by the hedge supplier.
+ * The first response wins and the other call is cancelled; the hedged call fails only when every call sent failed.
+ * Cancelling the response future cancels all the calls.
+ * @author phaneesh
+ */
+class HedgedCall {
+
+    private final OkHttpClient client;
+
+    private final CompletableFuture<Response> result = new CompletableFuture<>();
+
+    private final List<Call> calls = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicReference<Call> winner = new AtomicReference<>();
+
+    private final AtomicBoolean hedgeClaimed = new AtomicBoolean();
+
+    private volatile boolean hedgeWon;
+
+    private HedgedCall(final OkHttpClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @param scheduler runs the hedge delay
+     * @param hedge supplies the hedge request once the delay has elapsed; returns null when no hedge should be sent
+     */
+    static HedgedCall execute(final OkHttpClient client, final ScheduledExecutorService scheduler, final Request request,
+                              final long delayInMillis, final Supplier<Request> hedge) {
+        final HedgedCall hedgedCall = execute(client, request);
+        final ScheduledFuture<?> timer = scheduler.schedule(() -> {
+            //Completion claims the slot too; whoever gets it first decides whether a hedge goes out
+            if (!hedgedCall.hedgeClaimed.compareAndSet(false, true) || hedgedCall.result.isDone()) {
+                return;
+            }
+            final Request hedgeRequest = hedge.get();
+            if (hedgeRequest != null) {
+                hedgedCall.send(hedgeRequest, true);
+            }
+        }, delayInMillis, TimeUnit.MILLISECONDS);
+        hedgedCall.result.whenComplete((response, t) -> {
+            hedgedCall.hedgeClaimed.set(true);
+            timer.cancel(false);
+        });
+        return hedgedCall;
+    }
+
+    /**
+     * A plain (unhedged) asynchronous call
+     */
+    static HedgedCall execute(final OkHttpClient client, final Request request) {
+        final HedgedCall hedgedCall = new HedgedCall(client);
+        hedgedCall.send(request, false);
+        hedgedCall.result.whenComplete((response, t) -> {
+            if (hedgedCall.result.isCancelled()) {
+                hedgedCall.calls.forEach(Call::cancel);
+            }
+        });
+        return hedgedCall;
+    }
+
+    CompletableFuture<Response> response() {
+        return result;
+    }
+
+    boolean isHedgeWon() {
+        return hedgeWon;
+    }
+
+    private void send(final Request request, final boolean isHedge) {
+        pending.incrementAndGet();
+        final Call call = client.newCall(request);
+        calls.add(call);
+        //Completed (or cancelled) while this call was being created; the completion may not have seen it to cancel it
+        if (result.isDone()) {
+            call.cancel();
+            return;
+        }
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(final Call call, final IOException e) {
+                if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void onResponse(final Call call, final Response response) {
+                if (!winner.compareAndSet(null, call)) {
+                    response.close();
+                    return;
+                }
+                hedgeWon = isHedge;
+                if (!result.complete(response)) {
+                    response.close();
+                    return;
+                }
+                calls.stream().filter(other -> other != call).forEach(Call::cancel);
+            }
+        });
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that caps extra (hedged or retried) requests to a percentage of the regular ones: every regular request
+ * deposits percentage/100 of a token, every extra request withdraws a whole one. The balance starts full, so that low
+ * traffic services can still retry, and is capped so that a long quiet period cannot fund a burst.
+ * @author phaneesh
+ */
+public class RequestBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long deposit;
+
+    private final long maxBalance;
+
+    private final AtomicLong balance = new AtomicLong();
+
+    public RequestBudget(final double percentage, final int maxTokens) {
+        this.deposit = Math.round(TOKEN * Math.max(0.0, percentage) / 100.0);
+        this.maxBalance = TOKEN * maxTokens;
+        this.balance.set(maxBalance);
+    }
+
+    public void deposit() {
+        if (deposit == 0) {
+            return;
+        }
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + deposit)));
+    }
+
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+}
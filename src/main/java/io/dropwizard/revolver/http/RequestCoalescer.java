@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http;
+
+import com.codahale.metrics.Meter;
+import io.dropwizard.revolver.core.RevolverExecutionException;
+import io.dropwizard.revolver.http.model.RevolverHttpResponse;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single flight: the first request for a key (leader) executes, concurrent requests for the same key wait for and
+ * share its outcome. Every caller gets its own copy of the response since callers mutate responses while rendering.
+ * @author phaneesh
+ */
+class RequestCoalescer {
+
+    private final Map<String, CompletableFuture<RevolverHttpResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Meter leaders;
+
+    private final Meter followers;
+
+    RequestCoalescer(final Meter leaders, final Meter followers) {
+        this.leaders = leaders;
+        this.followers = followers;
+    }
+
+    /**
+     * @param timeoutInMillis how long a follower waits for the leader's outcome, i.e. the time left before its deadline
+     */
+    RevolverHttpResponse execute(final String key, final long timeoutInMillis, final Call call) throws RevolverExecutionException,
+            TimeoutException {
+        final CompletableFuture<RevolverHttpResponse> flight = new CompletableFuture<>();
+        final CompletableFuture<RevolverHttpResponse> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            followers.mark();
+            return copy(await(existing, timeoutInMillis));
+        }
+        leaders.mark();
+        try {
+            flight.complete(call.execute());
+        } catch (TimeoutException | RuntimeException e) {
+            flight.completeExceptionally(e);
+        } finally {
+            //An Error thrown by the leader must not leave the followers waiting
+            if (!flight.isDone()) {
+                flight.completeExceptionally(new RevolverExecutionException(RevolverExecutionException.Type.SERVICE_ERROR,
+                        "Coalesced call failed"));
+            }
+            inFlight.remove(key, flight);
+        }
+        return copy(await(flight, timeoutInMillis));
+    }
+
+    CompletableFuture<RevolverHttpResponse> executeAsync(final String key, final Supplier<CompletableFuture<RevolverHttpResponse>> call) {
+        final CompletableFuture<RevolverHttpResponse> flight = new CompletableFuture<>();
+        final CompletableFuture<RevolverHttpResponse> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            followers.mark();
+            return existing.thenApply(RequestCoalescer::copy);
+        }
+        leaders.mark();
+        flight.whenComplete((response, t) -> inFlight.remove(key, flight));
+        try {
+            call.get().whenComplete((response, t) -> {
+                if (t != null) {
+                    flight.completeExceptionally(t);
+                } else {
+                    flight.complete(response);
+                }
+            });
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+        }
+        return flight.thenApply(RequestCoalescer::copy);
+    }
+
+    private static RevolverHttpResponse await(final CompletableFuture<RevolverHttpResponse> flight, final long timeoutInMillis)
+            throws RevolverExecutionException, TimeoutException {
+        try {
+            return flight.get(Math.max(timeoutInMillis, 0), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RevolverExecutionException(RevolverExecutionException.Type.SERVICE_ERROR, e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RevolverExecutionException) {
+                throw (RevolverExecutionException) cause;
+            }
+            if (cause instanceof TimeoutException) {
+                throw (TimeoutException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RevolverExecutionException(RevolverExecutionException.Type.SERVICE_ERROR, cause);
+        }
+    }
+
+    static RevolverHttpResponse copy(final RevolverHttpResponse response) {
+        if (response == null) {
+            return null;
+        }
+        return RevolverHttpResponse.builder()
+                .statusCode(response.getStatusCode())
+                .headers(response.getHeaders() == null ? new MultivaluedHashMap<>() : new MultivaluedHashMap<String, String>(response.getHeaders()))
+                .body(response.getBody())
+                .build();
+    }
+
+    @FunctionalInterface
+    interface Call {
+        RevolverHttpResponse execute() throws RevolverExecutionException, TimeoutException;
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import io.dropwizard.revolver.http.model.RevolverHttpResponse;
+import io.dropwizard.revolver.util.ConditionalRequestUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import javax.ws.rs.core.HttpHeaders;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Byte bounded, per service cache of buffered upstream responses. Eviction is (segmented) LRU by weight; entries
+ * carry their own expiry and are kept through their stale window and, when they carry an ETag or Last-Modified
+ * validator, a further revalidation window. Entries past that are dropped when read and by a periodic sweep.
+ * @author phaneesh
+ */
+public class ResponseCache {
+
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private static final long SWEEP_INTERVAL_IN_MILLIS = 60000;
+
+    private final Cache<String, Entry> entries;
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    private final Meter hits;
+
+    private final Meter misses;
+
+    private final Meter revalidated;
+
+    private final Meter stale;
+
+    ResponseCache(final String service, final String name, final long maxSizeInBytes, final MetricRegistry metrics) {
+        final Meter evictions = metrics.meter(MetricRegistry.name("revolver", service, name, "evictions"));
+        this.hits = metrics.meter(MetricRegistry.name("revolver", service, name, "hits"));
+        this.misses = metrics.meter(MetricRegistry.name("revolver", service, name, "misses"));
+        this.revalidated = metrics.meter(MetricRegistry.name("revolver", service, name, "revalidated"));
+        this.stale = metrics.meter(MetricRegistry.name("revolver", service, name, "stale"));
+        this.entries = CacheBuilder.newBuilder()
+                .maximumWeight(maxSizeInBytes)
+                .<String, Entry>weigher((key, entry) -> entry.getWeight())
+                .removalListener(notification -> {
+                    bytes.addAndGet(-notification.getValue().getWeight());
+                    if (notification.getCause() == RemovalCause.SIZE) {
+                        evictions.mark();
+                    }
+                })
+                .build();
+        final String size = MetricRegistry.name("revolver", service, name, "bytes");
+        final String count = MetricRegistry.name("revolver", service, name, "entries");
+        metrics.remove(size);
+        metrics.remove(count);
+        metrics.register(size, (Gauge<Long>) bytes::get);
+        metrics.register(count, (Gauge<Long>) entries::size);
+    }
+
+    /**
+     * A copy of the fresh response cached against the key, null on a miss
+     */
+    RevolverHttpResponse get(final String key) {
+        final Entry entry = entries.getIfPresent(key);
+        final long now = System.currentTimeMillis();
+        if (entry == null || entry.getExpiresAt() <= now) {
+            if (entry != null && entry.getRetainUntil() <= now) {
+                entries.asMap().remove(key, entry);
+            }
+            misses.mark();
+            return null;
+        }
+        hits.mark();
+        return copy(entry, now);
+    }
+
+    /**
+     * A copy of the expired response cached against the key while it is still within its stale window, null otherwise
+     */
+    RevolverHttpResponse getStale(final String key) {
+        final Entry entry = entries.getIfPresent(key);
+        final long now = System.currentTimeMillis();
+        if (entry == null || entry.getStaleUntil() <= now) {
+            return null;
+        }
+        stale.mark();
+        return copy(entry, now);
+    }
+
+    /**
+     * Conditional request headers to revalidate the stale response cached against the key; empty when there is none
+     */
+    Map<String, String> validators(final String key) {
+        final Entry entry = entries.getIfPresent(key);
+        if (entry == null || entry.getRetainUntil() <= System.currentTimeMillis()) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> validators = new HashMap<>();
+        final String etag = ConditionalRequestUtil.header(entry.getResponse().getHeaders(), HttpHeaders.ETAG);
+        final String lastModified = ConditionalRequestUtil.header(entry.getResponse().getHeaders(), HttpHeaders.LAST_MODIFIED);
+        if (etag != null) {
+            validators.put(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        if (lastModified != null) {
+            validators.put(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        }
+        return validators;
+    }
+
+    /**
+     * Refreshes the cached response with the headers of an upstream 304 for it.
+     * @return a copy of the refreshed response, null if it is no longer cached
+     */
+    RevolverHttpResponse revalidate(final String key, final RevolverHttpResponse notModified, final ToLongFunction<RevolverHttpResponse> ttl) {
+        final Entry entry = entries.getIfPresent(key);
+        if (entry == null || entry.getRetainUntil() <= System.currentTimeMillis()) {
+            return null;
+        }
+        revalidated.mark();
+        final RevolverHttpResponse response = RequestCoalescer.copy(entry.getResponse());
+        if (notModified.getHeaders() != null) {
+            notModified.getHeaders().forEach((name, values) -> {
+                if (ConditionalRequestUtil.NOT_MODIFIED_HEADERS.contains(name.toLowerCase())) {
+                    response.getHeaders().keySet().removeIf(name::equalsIgnoreCase);
+                    response.getHeaders().put(name, values);
+                }
+            });
+        }
+        put(entry.getApi(), entry.getPath(), key, response, ttl.applyAsLong(response), entry.getStaleUntil() - entry.getExpiresAt(),
+                entry.getRetainUntil() - entry.getStaleUntil());
+        return RequestCoalescer.copy(response);
+    }
+
+    /**
+     * Stores a copy of the response; responses that are stale on arrival are kept only when they can be revalidated
+     * or served stale. Responses with validators are kept for revalidation up to revalidateInMillis after going stale.
+     */
+    void put(final String api, final String path, final String key, final RevolverHttpResponse response, final long ttlInMillis,
+             final long staleInMillis, final long revalidateInMillis) {
+        final boolean revalidatable = revalidateInMillis > 0 && hasValidators(response);
+        if (ttlInMillis < 0 || (ttlInMillis == 0 && staleInMillis <= 0 && !revalidatable)) {
+            entries.invalidate(key);
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        sweep(now);
+        final RevolverHttpResponse copy = RequestCoalescer.copy(response);
+        copy.getHeaders().remove("Age");
+        final long staleUntil = now + ttlInMillis + Math.max(0, staleInMillis);
+        final Entry entry = new Entry(api, path, copy, now, now + ttlInMillis, staleUntil,
+                revalidatable ? staleUntil + revalidateInMillis : staleUntil, weight(key, copy));
+        bytes.addAndGet(entry.getWeight());
+        entries.put(key, entry);
+    }
+
+    /**
+     * Drops entries that are past their retention but were not read since
+     */
+    private void sweep(final long now) {
+        final long next = nextSweep.get();
+        if (now < next || !nextSweep.compareAndSet(next, now + SWEEP_INTERVAL_IN_MILLIS)) {
+            return;
+        }
+        entries.asMap().values().removeIf(entry -> entry.getRetainUntil() <= now);
+    }
+
+    /**
+     * Drops cached responses of the api (all apis when null) whose path starts with the prefix (any path when null).
+     * @return number of responses dropped
+     */
+    public int invalidate(final String api, final String pathPrefix) {
+        final String prefix = Strings.isNullOrEmpty(pathPrefix) || pathPrefix.charAt(0) == '/' ? pathPrefix : "/" + pathPrefix;
+        int invalidated = 0;
+        for (Map.Entry<String, Entry> entry : entries.asMap().entrySet()) {
+            if ((api == null || api.equals(entry.getValue().getApi()))
+                    && (Strings.isNullOrEmpty(prefix) || entry.getValue().getPath().startsWith(prefix))
+                    && entries.asMap().remove(entry.getKey(), entry.getValue())) {
+                invalidated++;
+            }
+        }
+        return invalidated;
+    }
+
+    private static RevolverHttpResponse copy(final Entry entry, final long now) {
+        final RevolverHttpResponse response = RequestCoalescer.copy(entry.getResponse());
+        response.getHeaders().putSingle("Age", String.valueOf((now - entry.getStoredAt()) / 1000));
+        return response;
+    }
+
+    private static boolean hasValidators(final RevolverHttpResponse response) {
+        return ConditionalRequestUtil.header(response.getHeaders(), HttpHeaders.ETAG) != null
+                || ConditionalRequestUtil.header(response.getHeaders(), HttpHeaders.LAST_MODIFIED) != null;
+    }
+
+    private static int weight(final String key, final RevolverHttpResponse response) {
+        int weight = ENTRY_OVERHEAD + key.length() * 2;
+        if (response.getBody() != null) {
+            weight += response.getBody().length;
+        }
+        for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+            weight += header.getKey().length() * 2;
+            for (String value : header.getValue()) {
+                weight += value == null ? 0 : value.length() * 2;
+            }
+        }
+        return weight;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Entry {
+        private final String api;
+        private final String path;
+        private final RevolverHttpResponse response;
+        private final long storedAt;
+        private final long expiresAt;
+        private final long staleUntil;
+        private final long retainUntil;
+        private final int weight;
+    }
+}
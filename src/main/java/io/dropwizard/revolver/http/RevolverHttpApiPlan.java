@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http;
+
+import com.google.common.base.Strings;
+import io.dropwizard.revolver.core.config.ClientConfig;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import io.dropwizard.revolver.http.model.RevolverHttpRequest;
+import lombok.Getter;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Everything about an api that does not change between requests; compiled once when the command is created so that
+ * building an upstream request does not re-parse configuration on every call.
+ * @author phaneesh
+ */
+@Getter
+public class RevolverHttpApiPlan {
+
+    static final MediaType ANY_MEDIA_TYPE = MediaType.parse("*/*");
+
+    private static final int MAX_CACHED_ENTRIES = 256;
+
+    private final RevolverHttpApiConfig apiConfig;
+
+    private final String scheme;
+
+    private final boolean trackingHeaders;
+
+    private final String clientName;
+
+    private final int timeout;
+
+    private final String[] pathTokens;
+
+    private final boolean[] pathParams;
+
+    private final Map<Endpoint, HttpUrl> baseUrls = new ConcurrentHashMap<>();
+
+    private final Map<String, MediaType> mediaTypes = new ConcurrentHashMap<>();
+
+    public RevolverHttpApiPlan(final RevolverHttpServiceConfig serviceConfiguration, final RevolverHttpApiConfig apiConfig,
+                               final ClientConfig clientConfiguration, final int timeout) {
+        this.apiConfig = apiConfig;
+        this.timeout = timeout;
+        this.scheme = serviceConfiguration.isSecured() ? "https" : "http";
+        this.trackingHeaders = serviceConfiguration.isTrackingHeaders();
+        this.clientName = clientConfiguration == null ? null : clientConfiguration.getClientName();
+        final List<String> tokens = new ArrayList<>();
+        final List<Boolean> params = new ArrayList<>();
+        tokenize(apiConfig.getPath(), tokens, params);
+        this.pathTokens = tokens.toArray(new String[0]);
+        this.pathParams = new boolean[params.size()];
+        for (int i = 0; i < pathParams.length; i++) {
+            pathParams[i] = params.get(i);
+        }
+    }
+
+    /**
+     * Url builder with scheme, host & port already set. Host validation is done once per endpoint.
+     */
+    public HttpUrl.Builder urlBuilder(final Endpoint endpoint) {
+        HttpUrl baseUrl = baseUrls.get(endpoint);
+        if (baseUrl == null) {
+            baseUrl = new HttpUrl.Builder()
+                    .scheme(scheme)
+                    .host(endpoint.getHost())
+                    .port(endpoint.getPort())
+                    .build();
+            //Endpoints churn with discovery; do not let the cache grow without bound
+            if (baseUrls.size() >= MAX_CACHED_ENTRIES) {
+                baseUrls.clear();
+            }
+            baseUrls.put(endpoint, baseUrl);
+        }
+        return baseUrl.newBuilder();
+    }
+
+    public MediaType mediaType(final String contentType) {
+        if (Strings.isNullOrEmpty(contentType)) {
+            return ANY_MEDIA_TYPE;
+        }
+        MediaType mediaType = mediaTypes.get(contentType);
+        if (mediaType == null) {
+            mediaType = MediaType.parse(contentType);
+            if (mediaType == null) {
+                return ANY_MEDIA_TYPE;
+            }
+            if (mediaTypes.size() < MAX_CACHED_ENTRIES) {
+                mediaTypes.put(contentType, mediaType);
+            }
+        }
+        return mediaType;
+    }
+
+    public String resolvePath(final RevolverHttpRequest request) {
+        String uri = request.getPath();
+        if (Strings.isNullOrEmpty(uri)) {
+            uri = expandPath(request.getPathParams());
+        }
+        return !uri.isEmpty() && uri.charAt(0) == '/' ? uri : "/" + uri;
+    }
+
+    private String expandPath(final Map<String, String> params) {
+        final StringBuilder path = new StringBuilder(apiConfig.getPath().length() + 16);
+        for (int i = 0; i < pathTokens.length; i++) {
+            final String value = pathParams[i] && params != null ? params.get(pathTokens[i]) : null;
+            if (value != null) {
+                path.append(value);
+            } else if (pathParams[i]) {
+                path.append('{').append(pathTokens[i]).append('}');
+            } else {
+                path.append(pathTokens[i]);
+            }
+        }
+        return path.toString();
+    }
+
+    private static void tokenize(final String path, final List<String> tokens, final List<Boolean> params) {
+        int index = 0;
+        while (index < path.length()) {
+            final int start = path.indexOf('{', index);
+            final int end = start < 0 ? -1 : path.indexOf('}', start);
+            if (start < 0 || end < 0) {
+                tokens.add(path.substring(index));
+                params.add(false);
+                return;
+            }
+            if (start > index) {
+                tokens.add(path.substring(index, start));
+                params.add(false);
+            }
+            tokens.add(path.substring(start + 1, end));
+            params.add(true);
+            index = end + 1;
+        }
+    }
+}
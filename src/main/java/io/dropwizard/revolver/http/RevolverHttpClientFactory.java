@@ -30,7 +30,9 @@ import lombok.val;
 import okhttp3.ConnectionPool;
 import okhttp3.ConnectionSpec;
 import okhttp3.Credentials;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.internal.tls.OkHostnameVerifier;
 import org.apache.commons.lang3.StringUtils;
 
@@ -40,7 +42,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.*;
 import java.security.cert.CertificateException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -115,16 +119,52 @@ public class RevolverHttpClientFactory {
         } else {
             builder.connectionPool(new ConnectionPool(serviceConfiguration.getConnectionPoolSize(), serviceConfiguration.getConnectionKeepAliveInMillis(), TimeUnit.MILLISECONDS));
         }
+        if (serviceConfiguration.getProtocols() != null && !serviceConfiguration.getProtocols().isEmpty()) {
+            builder.protocols(protocols(serviceConfiguration));
+        }
+        builder.dispatcher(dispatcher(serviceConfiguration));
+        builder.eventListenerFactory(ConnectionEventListener.factory(serviceConfiguration.getService()));
         builder.retryOnConnectionFailure(true);
+        //Calls of a command carry the time left before their deadline (see CallTimeoutInterceptor); calls without one
+        //are bounded by hystrix alone rather than by okhttp's 10s defaults
         builder.connectTimeout(Integer.MAX_VALUE, TimeUnit.MILLISECONDS);
         builder.readTimeout(Integer.MAX_VALUE, TimeUnit.MILLISECONDS);
         builder.writeTimeout(Integer.MAX_VALUE, TimeUnit.MILLISECONDS);
-        builder.connectTimeout(Integer.MAX_VALUE, TimeUnit.MILLISECONDS);
         builder.followRedirects(false);
         builder.followSslRedirects(false);
         return builder.build();
     }
 
+    /**
+     * Concurrency is already bounded per api by hystrix (thread pool or semaphore); size the dispatcher so that it never
+     * ends up queuing enqueued (non blocking) calls behind its own defaults.
+     */
+    private static Dispatcher dispatcher(final RevolverHttpServiceConfig serviceConfiguration) {
+        final Dispatcher dispatcher = new Dispatcher();
+        int concurrency = 0;
+        if (serviceConfiguration.getApis() != null) {
+            concurrency = serviceConfiguration.getApis().stream()
+                    .mapToInt(api -> api.getRuntime() != null && api.getRuntime().getThreadPool() != null
+                            ? api.getRuntime().getThreadPool().getConcurrency() : 0)
+                    .sum();
+        }
+        dispatcher.setMaxRequests(Math.max(dispatcher.getMaxRequests(), concurrency));
+        dispatcher.setMaxRequestsPerHost(Math.max(dispatcher.getMaxRequests(), concurrency));
+        return dispatcher;
+    }
+
+    private static List<Protocol> protocols(final RevolverHttpServiceConfig serviceConfiguration) throws IOException {
+        final List<Protocol> protocols = new ArrayList<>();
+        for (String protocol : serviceConfiguration.getProtocols()) {
+            protocols.add(Protocol.get(protocol.toLowerCase()));
+        }
+        //h2 over TLS still needs http/1.1 to fall back to when ALPN is not available
+        if (protocols.contains(Protocol.HTTP_2) && !protocols.contains(Protocol.HTTP_1_1)) {
+            protocols.add(Protocol.HTTP_1_1);
+        }
+        return protocols;
+    }
+
     private static void configureSSL(final String keyStorePath, final String keyStorePassword, OkHttpClient.Builder clientBuilder) throws KeyStoreException, NoSuchAlgorithmException, CertificateException, IOException, KeyManagementException, UnrecoverableKeyException {
         final KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
         try (InputStream instream = RevolverHttpClientFactory.class.getClassLoader().getResourceAsStream(keyStorePath)) {
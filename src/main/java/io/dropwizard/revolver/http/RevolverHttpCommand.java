@@ -17,25 +17,44 @@
 
 package io.dropwizard.revolver.http;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
 import io.dropwizard.revolver.core.RevolverCommand;
+import io.dropwizard.revolver.core.RevolverExecutionException;
 import io.dropwizard.revolver.core.config.ClientConfig;
 import io.dropwizard.revolver.core.config.RuntimeConfig;
+import io.dropwizard.revolver.core.metrics.LatencyRegistry;
 import io.dropwizard.revolver.core.tracing.TraceCollector;
+import io.dropwizard.revolver.core.tracing.TraceInfo;
 import io.dropwizard.revolver.core.util.RevolverCommandHelper;
 import io.dropwizard.revolver.discovery.RevolverServiceResolver;
 import io.dropwizard.revolver.discovery.model.Endpoint;
 import io.dropwizard.revolver.exception.RevolverException;
+import io.dropwizard.revolver.http.config.CacheConfig;
+import io.dropwizard.revolver.http.config.FallbackConfig;
+import io.dropwizard.revolver.http.config.HedgeConfig;
+import io.dropwizard.revolver.http.config.RetryConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
 import io.dropwizard.revolver.http.model.RevolverHttpRequest;
 import io.dropwizard.revolver.http.model.RevolverHttpResponse;
+import io.dropwizard.revolver.util.ConditionalRequestUtil;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import okhttp3.*;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.text.StrSubstitutor;
+import org.apache.commons.lang3.math.NumberUtils;
 
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MultivaluedHashMap;
@@ -45,11 +64,27 @@ import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
+import java.nio.charset.StandardCharsets;
 import java.security.cert.CertificateException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * @author phaneesh
@@ -62,240 +97,899 @@ public class RevolverHttpCommand extends RevolverCommand<RevolverHttpRequest, Re
     public static final String CALL_MODE_CALLBACK = "CALLBACK";
     public static final String CALL_MODE_CALLBACK_SYNC = "CALLBACK_SYNC";
 
+    private static final int MAX_BUDGET_TOKENS = 10;
+    private static final Set<Integer> CACHEABLE_STATUS_CODES = ImmutableSet.of(200, 203);
+    private static final Set<String> CONDITIONAL_HEADERS = ImmutableSet.of(HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+    private static final Set<String> CREDENTIAL_HEADERS = ImmutableSet.of(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE);
+    private static final Set<String> COALESCING_KEY_HEADERS = Sets.union(CONDITIONAL_HEADERS, CREDENTIAL_HEADERS).immutableCopy();
+    private static final String STALE_REVALIDATING = "revalidating";
+    private static final String STALE_FALLBACK = "fallback";
+    /**
+     * Timers of upstream calls: deadlines, hedge delays & the retry backoffs of non blocking calls
+     */
+    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            new ThreadFactoryBuilder().setNameFormat("revolver-http-scheduler-%d").setDaemon(true).build());
+    /**
+     * Trace attribute with the host:port of the endpoint that served the call
+     */
+    public static final String ENDPOINT_TRACE_ATTRIBUTE = "endpoint";
+
     private final RevolverServiceResolver serviceResolver;
     private final OkHttpClient client;
+    private final Map<String, RevolverHttpApiPlan> plans;
+    private final Map<String, LatencyRegistry.ApiLatency> latencies;
+    private final RequestBudget hedgeBudget;
+    private final Meter hedgesSent;
+    private final Meter hedgesWon;
+    private final Meter hedgesThrottled;
+    private final RequestBudget retryBudget;
+    private final Meter retriesSent;
+    private final Meter retriesThrottled;
+    private final RequestCoalescer coalescer;
+    private final ResponseCache responseCache;
+    private final ResponseCache lastKnownGood;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
 
     @Builder
     public RevolverHttpCommand(final RuntimeConfig runtimeConfig, final ClientConfig clientConfiguration,
                                final RevolverHttpServiceConfig serviceConfiguration,
                                final Map<String, RevolverHttpApiConfig> apiConfigurations,
-                               final TraceCollector traceCollector, final RevolverServiceResolver serviceResolver)
+                               final TraceCollector traceCollector, final RevolverServiceResolver serviceResolver,
+                               final MetricRegistry metrics)
             throws CertificateException, NoSuchAlgorithmException, KeyStoreException,
             IOException, KeyManagementException, UnrecoverableKeyException, ExecutionException {
         super(new RevolverHttpContext(), clientConfiguration, runtimeConfig, serviceConfiguration, apiConfigurations, traceCollector);
-        (this.serviceResolver = serviceResolver).register(serviceConfiguration.getEndpoint());
-        this.client = RevolverHttpClientFactory.buildClient(serviceConfiguration);
+        this.serviceResolver = serviceResolver;
+        this.serviceResolver.register(serviceConfiguration.getEndpoint());
+        this.client = RevolverHttpClientFactory.buildClient(serviceConfiguration).newBuilder()
+                .addInterceptor(new CallTimeoutInterceptor(SCHEDULER))
+                .addInterceptor(new BalancerFeedbackInterceptor(serviceResolver.balancer(serviceConfiguration.getEndpoint()),
+                        serviceResolver.outlierDetector(serviceConfiguration.getEndpoint())))
+                .build();
+        val planBuilder = ImmutableMap.<String, RevolverHttpApiPlan>builder();
+        apiConfigurations.forEach((api, apiConfig) -> planBuilder.put(api, new RevolverHttpApiPlan(serviceConfiguration, apiConfig,
+                clientConfiguration, RevolverCommandHelper.threadPoolConfig(this, api).getTimeout())));
+        this.plans = planBuilder.build();
+        val latencyBuilder = ImmutableMap.<String, LatencyRegistry.ApiLatency>builder();
+        apiConfigurations.keySet().forEach(api -> latencyBuilder.put(api, LatencyRegistry.forApi(serviceConfiguration.getService(), api)));
+        this.latencies = latencyBuilder.build();
+        this.hedgeBudget = new RequestBudget(serviceConfiguration.getHedgeBudgetPercentage(), MAX_BUDGET_TOKENS);
+        final MetricRegistry registry = metrics == null ? new MetricRegistry() : metrics;
+        this.hedgesSent = registry.meter(MetricRegistry.name("revolver", serviceConfiguration.getService(), "hedge", "sent"));
+        this.hedgesWon = registry.meter(MetricRegistry.name("revolver", serviceConfiguration.getService(), "hedge", "won"));
+        this.hedgesThrottled = registry.meter(MetricRegistry.name("revolver", serviceConfiguration.getService(), "hedge", "throttled"));
+        this.retryBudget = new RequestBudget(serviceConfiguration.getRetryBudgetPercentage(), MAX_BUDGET_TOKENS);
+        this.retriesSent = registry.meter(MetricRegistry.name("revolver", serviceConfiguration.getService(), "retry", "sent"));
+        this.retriesThrottled = registry.meter(MetricRegistry.name("revolver", serviceConfiguration.getService(), "retry", "throttled"));
+        final Meter coalescingLeaders = registry.meter(MetricRegistry.name("revolver", serviceConfiguration.getService(), "coalescing", "leaders"));
+        final Meter coalescingHits = registry.meter(MetricRegistry.name("revolver", serviceConfiguration.getService(), "coalescing", "hits"));
+        final String hitRate = MetricRegistry.name("revolver", serviceConfiguration.getService(), "coalescing", "hitRate");
+        registry.remove(hitRate);
+        registry.register(hitRate, new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(coalescingHits.getCount(), coalescingHits.getCount() + coalescingLeaders.getCount());
+            }
+        });
+        this.coalescer = new RequestCoalescer(coalescingLeaders, coalescingHits);
+        getConcurrencyLimiters().forEach((api, limiter) -> {
+            final String prefix = MetricRegistry.name("revolver", serviceConfiguration.getService(), api, "concurrency");
+            registry.removeMatching((name, metric) -> name.startsWith(prefix + "."));
+            registry.register(MetricRegistry.name(prefix, "limit"), (Gauge<Integer>) limiter::getLimit);
+            registry.register(MetricRegistry.name(prefix, "inFlight"), (Gauge<Integer>) limiter::getInFlight);
+            registry.register(MetricRegistry.name(prefix, "rejected"), (Gauge<Long>) limiter::getRejected);
+        });
+        this.responseCache = new ResponseCache(serviceConfiguration.getService(), "cache", serviceConfiguration.getResponseCacheSizeInBytes(), registry);
+        this.lastKnownGood = new ResponseCache(serviceConfiguration.getService(), "lastKnownGood",
+                serviceConfiguration.getLastKnownGoodSizeInBytes(), registry);
+    }
+
+    /**
+     * Service level client shared by every api; per call timeouts are applied by {@link CallTimeoutInterceptor}.
+     */
+    public OkHttpClient getClient() {
+        return client;
     }
 
     @Override
-    public boolean isFallbackEnabled() {
-        return false;
+    public RevolverHttpResponse execute(final RevolverHttpRequest request) throws RevolverExecutionException, TimeoutException {
+        final RevolverHttpApiConfig apiConfig = getApiConfigurations().get(request.getApi());
+        if(!isReadOnly(apiConfig, request) || !apiConfig.getCache().isEnabled()) {
+            return executeCoalesced(apiConfig, request);
+        }
+        final String key = requestKey(request, apiConfig.getCache().getVaryHeaders());
+        final boolean credentialed = isCredentialed(apiConfig.getCache(), request);
+        final RevolverHttpResponse cached = cached(apiConfig, request, key, credentialed);
+        if(cached != null) {
+            return cached;
+        }
+        //An answer to the client's own conditions (a 304 in particular) is not the response of the cache key
+        if(ConditionalRequestUtil.isConditional(request.getHeaders())) {
+            return executeCoalesced(apiConfig, request);
+        }
+        request.setStreamResponse(false);
+        final boolean revalidating = !credentialed && addValidators(request, key);
+        final RevolverHttpResponse response = executeCoalesced(apiConfig, request);
+        if(revalidating && response.getStatusCode() == javax.ws.rs.core.Response.Status.NOT_MODIFIED.getStatusCode()) {
+            final RevolverHttpResponse revalidated = responseCache.revalidate(key, response, r -> cacheTtl(apiConfig.getCache(), r, false));
+            if(revalidated != null) {
+                return revalidated;
+            }
+            removeValidators(request);
+            return cache(apiConfig, request, key, executeCoalesced(apiConfig, request), false);
+        }
+        return cache(apiConfig, request, key, response, credentialed);
+    }
+
+    @Override
+    public CompletableFuture<RevolverHttpResponse> executeAsync(final RevolverHttpRequest request) {
+        final RevolverHttpApiConfig apiConfig = getApiConfigurations().get(request.getApi());
+        if(!isReadOnly(apiConfig, request) || !apiConfig.getCache().isEnabled()) {
+            return executeCoalescedAsync(apiConfig, request);
+        }
+        final String key = requestKey(request, apiConfig.getCache().getVaryHeaders());
+        final boolean credentialed = isCredentialed(apiConfig.getCache(), request);
+        final RevolverHttpResponse cached = cached(apiConfig, request, key, credentialed);
+        if(cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if(ConditionalRequestUtil.isConditional(request.getHeaders())) {
+            return executeCoalescedAsync(apiConfig, request);
+        }
+        return fetchAsync(apiConfig, request, key, credentialed);
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public ResponseCache getLastKnownGood() {
+        return lastKnownGood;
+    }
+
+    /**
+     * Hystrix falls back only for apis with a fallback configured; failures of the others surface as they are
+     */
+    @Override
+    public boolean isFallbackEnabled(final String api) {
+        final RevolverHttpApiConfig apiConfig = getApiConfigurations().get(api);
+        return apiConfig != null && apiConfig.getFallback().getType() != FallbackConfig.Type.NONE;
+    }
+
+    @Override
+    protected boolean isNonBlocking(final String api) {
+        final RevolverHttpApiConfig apiConfig = getApiConfigurations().get(api);
+        return apiConfig != null && apiConfig.isNonBlocking();
     }
 
     @Override
     protected RevolverHttpResponse execute(final RevolverHttpContext context, final RevolverHttpRequest request) throws Exception {
         final RevolverHttpApiConfig apiConfig = getApiConfigurations().get(request.getApi());
         if(apiConfig.getMethods().contains(request.getMethod())) {
-            switch (request.getMethod()) {
-                case GET: {
-                    return doGet(request);
-                }
-                case POST: {
-                    return doPost(request);
-                }
-                case PUT: {
-                    return doPut(request);
+            final RevolverHttpApiPlan plan = plans.get(request.getApi());
+            final long remaining = remaining(plan, request);
+            final Request httpRequest = buildRequest(plan, request, remaining);
+            final boolean readBody = request.getMethod() != RevolverHttpApiConfig.RequestMethod.HEAD;
+            return executeRequest(apiConfig, request, httpRequest, () -> callWithRetries(plan, request, httpRequest, remaining),
+                    readBody, request.isStreamResponse());
+        }
+        return methodNotAllowed(request, apiConfig);
+    }
+
+    @Override
+    protected CompletableFuture<RevolverHttpResponse> executeNonBlocking(final RevolverHttpContext context, final RevolverHttpRequest request) {
+        final RevolverHttpApiConfig apiConfig = getApiConfigurations().get(request.getApi());
+        if(!apiConfig.getMethods().contains(request.getMethod())) {
+            return CompletableFuture.completedFuture(methodNotAllowed(request, apiConfig));
+        }
+        final CompletableFuture<RevolverHttpResponse> result = new CompletableFuture<>();
+        final RevolverHttpApiPlan plan = plans.get(request.getApi());
+        final long remaining;
+        final Request httpRequest;
+        try {
+            remaining = remaining(plan, request);
+            httpRequest = buildRequest(plan, request, remaining);
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        final boolean readBody = request.getMethod() != RevolverHttpApiConfig.RequestMethod.HEAD;
+        final long start = System.nanoTime();
+        final CompletableFuture<Response> call = callWithRetriesAsync(plan, request, httpRequest, remaining);
+        call.whenComplete((response, t) -> {
+            final long latency = System.nanoTime() - start;
+            if(t != null) {
+                latencies.get(apiConfig.getApi()).record(0, latency);
+                log.error("Error running HTTP {} call: ", httpRequest.method(), t);
+                result.completeExceptionally(t);
+                return;
+            }
+            try {
+                traceEndpoint(request, response.request().url());
+                latencies.get(apiConfig.getApi()).record(response.code(), latency);
+                val httpResponse = getHttpResponse(apiConfig, response, readBody, false);
+                log.info("[{}/{}] {} {}:{}{} {} {}ms", apiConfig.getApi(), apiConfig.getPath(),
+                        httpRequest.method(), response.request().url().host(), response.request().url().port(),
+                        httpRequest.url().encodedPath(), httpResponse.getStatusCode(), TimeUnit.NANOSECONDS.toMillis(latency));
+                result.complete(httpResponse);
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            } finally {
+                response.close();
+            }
+        });
+        result.whenComplete((response, t) -> {
+            if(result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private RevolverHttpResponse executeCoalesced(final RevolverHttpApiConfig apiConfig, final RevolverHttpRequest request)
+            throws TimeoutException {
+        final boolean lastKnownGoodFallback = isLastKnownGoodFallback(apiConfig, request);
+        if(lastKnownGoodFallback) {
+            request.setStreamResponse(false);
+        }
+        if(!isReadOnly(apiConfig, request) || !apiConfig.getCoalescing().isEnabled()) {
+            return remember(lastKnownGoodFallback, apiConfig, request, super.execute(request));
+        }
+        request.setStreamResponse(false);
+        //Stamps the trace the deadline is counted from
+        RevolverCommandHelper.normalize(request);
+        return remember(lastKnownGoodFallback, apiConfig, request, coalescer.execute(coalescingKey(apiConfig, request),
+                timeLeft(plans.get(request.getApi()), request), () -> super.execute(request)));
+    }
+
+    private CompletableFuture<RevolverHttpResponse> executeCoalescedAsync(final RevolverHttpApiConfig apiConfig, final RevolverHttpRequest request) {
+        final boolean lastKnownGoodFallback = isLastKnownGoodFallback(apiConfig, request);
+        if(lastKnownGoodFallback) {
+            request.setStreamResponse(false);
+        }
+        if(!isReadOnly(apiConfig, request) || !apiConfig.getCoalescing().isEnabled()) {
+            return super.executeAsync(request).thenApply(response -> remember(lastKnownGoodFallback, apiConfig, request, response));
+        }
+        request.setStreamResponse(false);
+        return coalescer.executeAsync(coalescingKey(apiConfig, request), () -> super.executeAsync(request))
+                .thenApply(response -> remember(lastKnownGoodFallback, apiConfig, request, response));
+    }
+
+    private CompletableFuture<RevolverHttpResponse> fetchAsync(final RevolverHttpApiConfig apiConfig, final RevolverHttpRequest request,
+                                                               final String key, final boolean credentialed) {
+        request.setStreamResponse(false);
+        final boolean revalidating = !credentialed && addValidators(request, key);
+        return executeCoalescedAsync(apiConfig, request).thenCompose(response -> {
+            if(revalidating && response.getStatusCode() == javax.ws.rs.core.Response.Status.NOT_MODIFIED.getStatusCode()) {
+                final RevolverHttpResponse revalidated = responseCache.revalidate(key, response, r -> cacheTtl(apiConfig.getCache(), r, false));
+                if(revalidated != null) {
+                    return CompletableFuture.completedFuture(revalidated);
                 }
-                case DELETE: {
-                    return doDelete(request);
+                removeValidators(request);
+                return executeCoalescedAsync(apiConfig, request).thenApply(refetched -> cache(apiConfig, request, key, refetched, false));
+            }
+            return CompletableFuture.completedFuture(cache(apiConfig, request, key, response, credentialed));
+        });
+    }
+
+    /**
+     * Fresh cached response; or, within the stale-while-revalidate window, the stale one while a single background
+     * refresh of it runs. Requests with credentials only get responses upstream marked as shared.
+     */
+    private RevolverHttpResponse cached(final RevolverHttpApiConfig apiConfig, final RevolverHttpRequest request, final String key,
+                                       final boolean credentialed) {
+        final RevolverHttpResponse cached = responseCache.get(key);
+        if(cached != null) {
+            return credentialed && !isShared(cached) ? null : cached;
+        }
+        if(apiConfig.getCache().getStaleWhileRevalidateInSeconds() <= 0) {
+            return null;
+        }
+        final RevolverHttpResponse stale = responseCache.getStale(key);
+        if(stale == null || (credentialed && !isShared(stale))) {
+            return null;
+        }
+        //A client's conditional request would refresh the entry with an answer to its own conditions
+        if(!ConditionalRequestUtil.isConditional(request.getHeaders()) && refreshing.add(key)) {
+            fetchAsync(apiConfig, refreshRequest(request), key, credentialed).whenComplete((response, t) -> {
+                refreshing.remove(key);
+                if(t != null) {
+                    log.warn("Background refresh failed for {}: {}", RevolverCommandHelper.getName(request), t.getMessage());
                 }
-                case HEAD: {
-                    return doHead(request);
+            });
+        }
+        stale.getHeaders().putSingle(RevolversHttpHeaders.STALE_RESPONSE_HEADER, STALE_REVALIDATING);
+        return stale;
+    }
+
+    /**
+     * Copy of the caller's request for a background refresh; fetching adds validators and turns off streaming on it.
+     */
+    private static RevolverHttpRequest refreshRequest(final RevolverHttpRequest request) {
+        return RevolverHttpRequest.builder()
+                .service(request.getService())
+                .api(request.getApi())
+                .method(request.getMethod())
+                .traceInfo(request.getTrace())
+                .headers(request.getHeaders() == null ? null : new MultivaluedHashMap<String, String>(request.getHeaders()))
+                .queryParams(request.getQueryParams() == null ? null : new MultivaluedHashMap<String, String>(request.getQueryParams()))
+                .pathParams(request.getPathParams() == null ? null : new HashMap<>(request.getPathParams()))
+                .path(request.getPath())
+                .body(request.getBody())
+                .build();
+    }
+
+    private boolean isLastKnownGoodFallback(final RevolverHttpApiConfig apiConfig, final RevolverHttpRequest request) {
+        return isReadOnly(apiConfig, request) && apiConfig.getFallback().getType() == FallbackConfig.Type.LAST_KNOWN_GOOD;
+    }
+
+    /**
+     * Keeps successful responses of last known good fallback apis around to fall back on; like the response cache, only
+     * shared responses of requests with credentials
+     */
+    private RevolverHttpResponse remember(final boolean lastKnownGoodFallback, final RevolverHttpApiConfig apiConfig,
+                                          final RevolverHttpRequest request, final RevolverHttpResponse response) {
+        if(lastKnownGoodFallback && response != null && response.getStatusCode() >= 200 && response.getStatusCode() < 300
+                && (response.getHeaders() == null || !hasHeader(response.getHeaders(), RevolversHttpHeaders.STALE_RESPONSE_HEADER))
+                && (!isCredentialed(apiConfig.getCache(), request) || isShared(response))) {
+            lastKnownGood.put(request.getApi(), plans.get(request.getApi()).resolvePath(request),
+                    requestKey(request, apiConfig.getCache().getVaryHeaders()), response,
+                    TimeUnit.SECONDS.toMillis(apiConfig.getFallback().getMaxStaleInSeconds()), 0, 0);
+        }
+        return response;
+    }
+
+    private static boolean isReadOnly(final RevolverHttpApiConfig apiConfig, final RevolverHttpRequest request) {
+        return apiConfig != null
+                && (request.getMethod() == RevolverHttpApiConfig.RequestMethod.GET || request.getMethod() == RevolverHttpApiConfig.RequestMethod.HEAD)
+                && apiConfig.getMethods().contains(request.getMethod());
+    }
+
+    private RevolverHttpResponse cache(final RevolverHttpApiConfig apiConfig, final RevolverHttpRequest request, final String key,
+                                       final RevolverHttpResponse response, final boolean credentialed) {
+        responseCache.put(request.getApi(), plans.get(request.getApi()).resolvePath(request), key, response,
+                cacheTtl(apiConfig.getCache(), response, credentialed), TimeUnit.SECONDS.toMillis(apiConfig.getCache().getStaleWhileRevalidateInSeconds()),
+                TimeUnit.SECONDS.toMillis(apiConfig.getCache().getRevalidateWithinInSeconds()));
+        return response;
+    }
+
+    /**
+     * Revalidate a stale cached response instead of refetching it.
+     */
+    private boolean addValidators(final RevolverHttpRequest request, final String key) {
+        final Map<String, String> validators = responseCache.validators(key);
+        if(validators.isEmpty()) {
+            return false;
+        }
+        if(request.getHeaders() == null) {
+            request.setHeaders(new MultivaluedHashMap<>());
+        }
+        validators.forEach(request.getHeaders()::putSingle);
+        return true;
+    }
+
+    private static void removeValidators(final RevolverHttpRequest request) {
+        request.getHeaders().remove(HttpHeaders.IF_NONE_MATCH);
+        request.getHeaders().remove(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    /**
+     * Freshness of an upstream response in millis; 0 when it has to be revalidated before reuse and -1 when it must
+     * not be stored at all. A response to a request with credentials is only stored when upstream marks it as shared.
+     */
+    private static long cacheTtl(final CacheConfig cacheConfig, final RevolverHttpResponse response, final boolean credentialed) {
+        if(response == null || response.getHeaders() == null || !CACHEABLE_STATUS_CODES.contains(response.getStatusCode())) {
+            return -1;
+        }
+        final MultivaluedMap<String, String> headers = response.getHeaders();
+        if(hasHeader(headers, HttpHeaders.SET_COOKIE) || !isVaryKeyed(cacheConfig, headerValue(headers, HttpHeaders.VARY))
+                || (credentialed && !isShared(response))) {
+            return -1;
+        }
+        final String cacheControl = headerValue(headers, HttpHeaders.CACHE_CONTROL);
+        if(!Strings.isNullOrEmpty(cacheControl)) {
+            long maxAge = -1;
+            long sharedMaxAge = -1;
+            for(String directive : cacheControl.toLowerCase().split(",")) {
+                directive = directive.trim();
+                if(directive.equals("no-store") || directive.equals("private")) {
+                    return -1;
                 }
-                case OPTIONS: {
-                    return doOptions(request);
+                if(directive.equals("no-cache")) {
+                    return 0;
                 }
-                case PATCH: {
-                    return doPatch(request);
+                if(directive.startsWith("s-maxage=")) {
+                    sharedMaxAge = NumberUtils.toLong(directive.substring("s-maxage=".length()), 0);
+                } else if(directive.startsWith("max-age=")) {
+                    maxAge = NumberUtils.toLong(directive.substring("max-age=".length()), 0);
                 }
             }
+            if(sharedMaxAge >= 0 || maxAge >= 0) {
+                return TimeUnit.SECONDS.toMillis(sharedMaxAge >= 0 ? sharedMaxAge : maxAge);
+            }
         }
-        MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
-        headers.putSingle("X-REQUEST-PATH", request.getPath());
-        headers.putSingle("X-REQUEST-METHOD", request.getMethod().name());
-        headers.putSingle("X-REQUEST-API", apiConfig.getApi());
-        return RevolverHttpResponse.builder()
-                .headers(headers)
-                .statusCode(javax.ws.rs.core.Response.Status.BAD_REQUEST.getStatusCode()).build();
+        final String expires = headerValue(headers, HttpHeaders.EXPIRES);
+        if(expires != null) {
+            try {
+                return Math.max(0, ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli()
+                        - System.currentTimeMillis());
+            } catch (DateTimeParseException e) {
+                return 0;
+            }
+        }
+        return TimeUnit.SECONDS.toMillis(cacheConfig.getTtlInSeconds());
     }
 
-    @Override
-    protected RevolverHttpResponse fallback(final RevolverHttpContext context, final RevolverHttpRequest requestType) {
-        log.error("Fallback triggered for command: " + RevolverCommandHelper.getName(requestType));
-        return null;
+    /**
+     * Whether the request carries an Authorization or Cookie header that is not part of the cache key, unless the api
+     * shares responses across credentials. A shared cache must not hand such a response to another caller (RFC 7234
+     * section 3.2).
+     */
+    private static boolean isCredentialed(final CacheConfig cacheConfig, final RevolverHttpRequest request) {
+        if(cacheConfig.isShareCredentialed() || request.getHeaders() == null) {
+            return false;
+        }
+        for(String header : CREDENTIAL_HEADERS) {
+            if(hasHeader(request.getHeaders(), header) && cacheConfig.getVaryHeaders().stream().noneMatch(header::equalsIgnoreCase)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private RevolverHttpResponse executeRequest(final RevolverHttpApiConfig apiConfiguration, final Request request, final boolean readBody) throws Exception {
-        try {
-            long start = System.currentTimeMillis();
-            val response = client.newCall(request).execute();
-            long end = System.currentTimeMillis();
-            val httpResponse = getHttpResponse(apiConfiguration, response, readBody);
-            log.info("[{}/{}] {} {}:{}{} {} {}ms", apiConfiguration.getApi(), apiConfiguration.getPath(),
-                    request.method(), request.url().host(), request.url().port(), request.url().encodedPath(),
-                    httpResponse.getStatusCode(), (end-start));
-            return httpResponse;
-        } catch (Exception e) {
-            log.error("Error running HTTP GET call: ", e);
-            throw e;
+    /**
+     * Whether upstream marked the response as fit for a shared cache (public or s-maxage)
+     */
+    private static boolean isShared(final RevolverHttpResponse response) {
+        final String cacheControl = response.getHeaders() == null ? null : headerValue(response.getHeaders(), HttpHeaders.CACHE_CONTROL);
+        if(Strings.isNullOrEmpty(cacheControl)) {
+            return false;
         }
+        for(String directive : cacheControl.toLowerCase().split(",")) {
+            directive = directive.trim();
+            if(directive.equals("public") || directive.startsWith("s-maxage=")) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private RevolverHttpResponse doGet(final RevolverHttpRequest request) throws Exception {
-        val apiConfiguration = this.getApiConfigurations().get(request.getApi());
-        val endpoint = this.serviceResolver.resolve((this.getServiceConfiguration()).getEndpoint());
-        if(endpoint == null) {
-            throw new RevolverException(503, "R999", "Service [" +request.getPath() +"] Unavailable");
+    /**
+     * Whether every request header the response varies on is part of the cache key. Accept-Encoding needs not be; the
+     * encoding is negotiated again for every client the response is served to.
+     */
+    private static boolean isVaryKeyed(final CacheConfig cacheConfig, final String vary) {
+        if(Strings.isNullOrEmpty(vary)) {
+            return true;
         }
-        val url = generateURI(request, apiConfiguration, endpoint);
-        val httpRequest = new Request.Builder()
-                .url(url);
-        httpRequest.get();
-        if (null != request.getHeaders()) {
-            request.getHeaders().forEach((key, values) -> values.forEach(value -> httpRequest.addHeader(key, value)));
+        for(String header : vary.split(",")) {
+            header = header.trim();
+            if("*".equals(header)) {
+                return false;
+            }
+            if(!header.isEmpty() && !HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(header)
+                    && cacheConfig.getVaryHeaders().stream().noneMatch(header::equalsIgnoreCase)) {
+                return false;
+            }
         }
-        trackingHeaders(request, httpRequest);
-        return executeRequest(apiConfiguration, httpRequest.build(), true);
+        return true;
     }
 
-    private RevolverHttpResponse doOptions(final RevolverHttpRequest request) throws Exception {
-        val apiConfiguration = this.getApiConfigurations().get(request.getApi());
-        val endpoint = this.serviceResolver.resolve((this.getServiceConfiguration()).getEndpoint());
-        if(endpoint == null) {
-            throw new RevolverException(503, "R999", "Service [" +request.getPath() +"] Unavailable");
+    /**
+     * Coalesced calls share one upstream response, so their conditions and credentials must match too: a 304 answered
+     * to a conditional call is no answer for an unconditional one, and one caller's response is not another's.
+     */
+    private String coalescingKey(final RevolverHttpApiConfig apiConfig, final RevolverHttpRequest request) {
+        return requestKey(request, Sets.union(apiConfig.getCoalescing().getHeaders(), COALESCING_KEY_HEADERS));
+    }
+
+    /**
+     * Identical requests: same api, method, resolved path, query params (order insensitive) and the given headers.
+     */
+    private String requestKey(final RevolverHttpRequest request, final Set<String> headers) {
+        final RevolverHttpApiPlan plan = plans.get(request.getApi());
+        final StringBuilder key = new StringBuilder(request.getApi()).append(' ')
+                .append(request.getMethod()).append(' ')
+                .append(plan.resolvePath(request));
+        if(request.getQueryParams() != null && !request.getQueryParams().isEmpty()) {
+            key.append('?');
+            new TreeMap<>(request.getQueryParams()).forEach((name, values) -> {
+                final List<String> sorted = new ArrayList<>(values);
+                Collections.sort(sorted);
+                sorted.forEach(value -> key.append(name).append('=').append(value).append('&'));
+            });
         }
-        val url = generateURI(request, apiConfiguration, endpoint);
-        val httpRequest = new Request.Builder()
-                .url(url);
-        httpRequest.method("OPTIONS", null);
-        if (null != request.getHeaders()) {
-            request.getHeaders().forEach((key, values) -> values.forEach(value -> httpRequest.addHeader(key, value)));
+        for(String header : new TreeSet<>(headers)) {
+            key.append('\n').append(header.toLowerCase()).append(':').append(request.getHeaders() == null ? "" : StringUtils.defaultString(headerValue(request.getHeaders(), header)));
         }
-        trackingHeaders(request, httpRequest);
-        return executeRequest(apiConfiguration, httpRequest.build(), true);
+        return key.toString();
     }
 
-    private RevolverHttpResponse doHead(final RevolverHttpRequest request) throws Exception {
-        val apiConfiguration = this.getApiConfigurations().get(request.getApi());
-        val endpoint = this.serviceResolver.resolve((this.getServiceConfiguration()).getEndpoint());
-        if(endpoint == null) {
-            throw new RevolverException(503, "R999", "Service [" +request.getPath() +"] Unavailable");
+    /**
+     * Millis left before the request's deadline. The deadline is the api timeout counted from when the request was
+     * received, tightened by an incoming {@link RevolversHttpHeaders#DEADLINE_HEADER}. Requests that ran out of time
+     * while queued are dropped here, before anything is sent upstream.
+     */
+    private long remaining(final RevolverHttpApiPlan plan, final RevolverHttpRequest request) {
+        final long remaining = timeLeft(plan, request);
+        if(remaining <= 0) {
+            throw new HystrixBadRequestException("Deadline exceeded", new TimeoutException(
+                    String.format("Deadline exceeded for %s by %dms before dispatch", RevolverCommandHelper.getName(request), -remaining)));
         }
-        val url = generateURI(request, apiConfiguration, endpoint);
-        val httpRequest = new Request.Builder()
-                .url(url);
-        httpRequest.head();
-        if (null != request.getHeaders()) {
-            request.getHeaders().forEach((key, values) -> values.forEach(value -> httpRequest.addHeader(key, value)));
+        return remaining;
+    }
+
+    private long timeLeft(final RevolverHttpApiPlan plan, final RevolverHttpRequest request) {
+        final long now = System.currentTimeMillis();
+        final long received = Math.min(request.getTrace().getTimestamp(), now);
+        long budget = plan.getTimeout();
+        final String deadline = request.getHeaders() == null ? null : headerValue(request.getHeaders(), RevolversHttpHeaders.DEADLINE_HEADER);
+        if(StringUtils.isNumeric(deadline)) {
+            budget = Math.min(budget, Long.parseLong(deadline));
         }
-        trackingHeaders(request, httpRequest);
-        return executeRequest(apiConfiguration, httpRequest.build(), false);
+        return received + budget - now;
     }
 
-    private RevolverHttpResponse doDelete(final RevolverHttpRequest request) throws Exception {
-        val apiConfiguration = this.getApiConfigurations().get(request.getApi());
+    private Request buildRequest(final RevolverHttpApiPlan plan, final RevolverHttpRequest request, final long remaining) throws RevolverException {
         val endpoint = this.serviceResolver.resolve((this.getServiceConfiguration()).getEndpoint());
         if(endpoint == null) {
             throw new RevolverException(503, "R999", "Service [" +request.getPath() +"] Unavailable");
         }
-        val url = generateURI(request, apiConfiguration, endpoint);
+        val httpRequest = buildRequest(plan, request, remaining, endpoint);
+        traceEndpoint(request, httpRequest.url());
+        return httpRequest;
+    }
+
+    /**
+     * Records the endpoint a call went to in the trace; retries & hedges overwrite it with the endpoint that answered
+     */
+    private static void traceEndpoint(final RevolverHttpRequest request, final HttpUrl url) {
+        final TraceInfo trace = request.getTrace();
+        if(trace == null) {
+            return;
+        }
+        final String endpoint = url.host() + ":" + url.port();
+        final Map<String, String> attributes = trace.getAttributes();
+        if(attributes != null && attributes.containsKey(ENDPOINT_TRACE_ATTRIBUTE)) {
+            attributes.put(ENDPOINT_TRACE_ATTRIBUTE, endpoint);
+            return;
+        }
+        //Copy once; caller supplied attributes may be immutable
+        final Map<String, String> copy = attributes == null ? new HashMap<>() : new HashMap<>(attributes);
+        copy.put(ENDPOINT_TRACE_ATTRIBUTE, endpoint);
+        trace.setAttributes(copy);
+    }
+
+    private Request buildRequest(final RevolverHttpApiPlan plan, final RevolverHttpRequest request, final long remaining,
+                                 final Endpoint endpoint) {
+        val url = plan.urlBuilder(endpoint);
+        addQueryParams(request, url);
+        url.encodedPath(plan.resolvePath(request));
         val httpRequest = new Request.Builder()
-                .url(url);
-        httpRequest.delete();
+                .url(url.build());
+        switch (request.getMethod()) {
+            case POST: {
+                httpRequest.post(requestBody(plan, request));
+                break;
+            }
+            case PUT: {
+                httpRequest.put(requestBody(plan, request));
+                break;
+            }
+            case PATCH: {
+                httpRequest.patch(requestBody(plan, request));
+                break;
+            }
+            case DELETE: {
+                httpRequest.delete();
+                break;
+            }
+            case HEAD: {
+                httpRequest.head();
+                break;
+            }
+            case OPTIONS: {
+                httpRequest.method("OPTIONS", null);
+                break;
+            }
+            default: {
+                httpRequest.get();
+            }
+        }
         if (null != request.getHeaders()) {
-            request.getHeaders().forEach((key, values) -> values.forEach(value -> httpRequest.addHeader(key, value)));
+            request.getHeaders().forEach((key, values) -> {
+                if(!RevolversHttpHeaders.DEADLINE_HEADER.equalsIgnoreCase(key)) {
+                    values.forEach(value -> httpRequest.addHeader(key, value));
+                }
+            });
         }
-        trackingHeaders(request, httpRequest);
-        return executeRequest(apiConfiguration, httpRequest.build(), true);
+        httpRequest.addHeader(RevolversHttpHeaders.DEADLINE_HEADER, Long.toString(remaining));
+        CallTimeoutInterceptor.timeout(httpRequest, remaining);
+        trackingHeaders(plan, request, httpRequest);
+        return httpRequest.build();
     }
 
-    private RevolverHttpResponse doPatch(final RevolverHttpRequest request) throws Exception {
-        val apiConfiguration = this.getApiConfigurations().get(request.getApi());
-        val endpoint = this.serviceResolver.resolve((this.getServiceConfiguration()).getEndpoint());
-        if(endpoint == null) {
-            throw new RevolverException(503, "R999", "Service [" +request.getPath() +"] Unavailable");
+    /**
+     * Calls upstream, retrying retryable failures as the api's retry config, the service retry budget and the request
+     * deadline allow. Retries go to a different endpoint when there is one.
+     */
+    private Response callWithRetries(final RevolverHttpApiPlan plan, final RevolverHttpRequest request, final Request httpRequest,
+                                     final long remaining) throws Exception {
+        final RetryConfig retryConfig = plan.getApiConfig().getRetry();
+        final boolean retryable = retryConfig != null && retryConfig.isEnabled() && request.getBodyStream() == null
+                && retryConfig.getMethods().contains(request.getMethod());
+        if(retryable) {
+            retryBudget.deposit();
         }
-        val url = generateURI(request, apiConfiguration, endpoint);
-        val httpRequest = new Request.Builder()
-                .url(url);
-        if (null != request.getHeaders()) {
-            request.getHeaders().forEach((key, values) -> values.forEach(value -> httpRequest.addHeader(key, value)));
+        Request current = httpRequest;
+        long currentRemaining = remaining;
+        for(int attempt = 0; ; attempt++) {
+            Response response = null;
+            Exception failure = null;
+            try {
+                response = call(plan, request, current, currentRemaining);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                failure = e;
+            }
+            final boolean retryableOutcome = retryable && attempt < retryConfig.getMaxRetries()
+                    && (response != null ? retryConfig.getRetryableStatusCodes().contains(response.code()) : isRetryable(retryConfig, failure));
+            final long backoff = retryableOutcome ? backoff(retryConfig, attempt) : 0;
+            final long left = timeLeft(plan, request) - backoff;
+            if(!retryableOutcome || left <= 0 || !retryBudget.tryWithdraw()) {
+                if(retryableOutcome && left > 0) {
+                    retriesThrottled.mark();
+                }
+                if(failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+            if(response != null) {
+                response.close();
+            }
+            log.warn("Retrying {} {} in {}ms; attempt {} failed with {}", current.method(), current.url().encodedPath(), backoff,
+                    attempt + 1, response != null ? response.code() : failure.toString());
+            Thread.sleep(backoff);
+            retriesSent.mark();
+            final Endpoint last = Endpoint.builder().host(current.url().host()).port(current.url().port()).build();
+            final Endpoint other = serviceResolver.resolveOther(getServiceConfiguration().getEndpoint(), last);
+            currentRemaining = left;
+            current = buildRequest(plan, request, currentRemaining, other == null ? last : other);
         }
-        if(request.getBody() != null) {
-            if(null != request.getHeaders() && StringUtils.isNotBlank(request.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)))
-                httpRequest.patch(RequestBody.create(MediaType.parse(request.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)), request.getBody()));
-            else
-                httpRequest.patch(RequestBody.create(MediaType.parse("*/*"), request.getBody()));
-        } else {
-            httpRequest.patch(RequestBody.create(MediaType.parse("*/*"), new byte[0]));
+    }
+
+    /**
+     * Asynchronous {@link #callWithRetries}; the backoff before a retry is scheduled instead of slept on a thread.
+     * Cancelling the returned future cancels the attempt in flight and any retry still to come.
+     */
+    private CompletableFuture<Response> callWithRetriesAsync(final RevolverHttpApiPlan plan, final RevolverHttpRequest request,
+                                                             final Request httpRequest, final long remaining) {
+        final RetryConfig retryConfig = plan.getApiConfig().getRetry();
+        final boolean retryable = retryConfig != null && retryConfig.isEnabled() && request.getBodyStream() == null
+                && retryConfig.getMethods().contains(request.getMethod());
+        if(retryable) {
+            retryBudget.deposit();
         }
-        trackingHeaders(request, httpRequest);
-        return executeRequest(apiConfiguration, httpRequest.build(), true);
+        final CompletableFuture<Response> result = new CompletableFuture<>();
+        attemptAsync(plan, request, httpRequest, remaining, retryable ? retryConfig : null, 0, result);
+        return result;
     }
 
-    private RevolverHttpResponse doPost(final RevolverHttpRequest request) throws Exception {
-        val apiConfiguration = this.getApiConfigurations().get(request.getApi());
-        val endpoint = this.serviceResolver.resolve((this.getServiceConfiguration()).getEndpoint());
-        if(endpoint == null) {
-            throw new RevolverException(503, "R999", "Service [" +request.getPath() +"] Unavailable");
+    private void attemptAsync(final RevolverHttpApiPlan plan, final RevolverHttpRequest request, final Request current,
+                              final long currentRemaining, final RetryConfig retryConfig, final int attempt,
+                              final CompletableFuture<Response> result) {
+        final HedgedCall hedgedCall = hedge(plan, request, current, currentRemaining, true);
+        final HedgedCall call = hedgedCall != null ? hedgedCall : HedgedCall.execute(client, current);
+        result.whenComplete((response, t) -> {
+            if(result.isCancelled()) {
+                call.response().cancel(true);
+            }
+        });
+        call.response().whenComplete((response, failure) -> {
+            if(response != null && call.isHedgeWon()) {
+                hedgesWon.mark();
+            }
+            final boolean retryableOutcome = retryConfig != null && attempt < retryConfig.getMaxRetries()
+                    && (response != null ? retryConfig.getRetryableStatusCodes().contains(response.code()) : isRetryable(retryConfig, failure));
+            final long backoff = retryableOutcome ? backoff(retryConfig, attempt) : 0;
+            final long left = timeLeft(plan, request) - backoff;
+            if(!retryableOutcome || left <= 0 || !retryBudget.tryWithdraw()) {
+                if(retryableOutcome && left > 0) {
+                    retriesThrottled.mark();
+                }
+                if(failure != null) {
+                    result.completeExceptionally(failure);
+                } else if(!result.complete(response)) {
+                    response.close();
+                }
+                return;
+            }
+            if(response != null) {
+                response.close();
+            }
+            log.warn("Retrying {} {} in {}ms; attempt {} failed with {}", current.method(), current.url().encodedPath(), backoff,
+                    attempt + 1, response != null ? response.code() : failure.toString());
+            SCHEDULER.schedule(() -> {
+                if(result.isDone()) {
+                    return;
+                }
+                retriesSent.mark();
+                final Endpoint last = Endpoint.builder().host(current.url().host()).port(current.url().port()).build();
+                final Endpoint other = serviceResolver.resolveOther(getServiceConfiguration().getEndpoint(), last);
+                final Request next;
+                try {
+                    next = buildRequest(plan, request, left, other == null ? last : other);
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                attemptAsync(plan, request, next, left, retryConfig, attempt + 1, result);
+            }, backoff, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private Response call(final RevolverHttpApiPlan plan, final RevolverHttpRequest request, final Request httpRequest,
+                          final long remaining) throws Exception {
+        final HedgedCall hedgedCall = hedge(plan, request, httpRequest, remaining, false);
+        if(hedgedCall != null) {
+            return await(hedgedCall);
         }
-        val url = generateURI(request, apiConfiguration, endpoint);
-        val httpRequest = new Request.Builder()
-                .url(url);
-        if (null != request.getHeaders()) {
-            request.getHeaders()
-                    .forEach((key, values) ->
-                            values.forEach(value ->
-                                    httpRequest.addHeader(key, value)));
+        return client.newCall(httpRequest).execute();
+    }
+
+    private static boolean isRetryable(final RetryConfig retryConfig, final Throwable failure) {
+        for(Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if(retryConfig.getRetryableExceptions().contains(cause.getClass().getName())
+                    || retryConfig.getRetryableExceptions().contains(cause.getClass().getSimpleName())) {
+                return true;
+            }
         }
-        if(request.getBody() != null) {
-            if(null != request.getHeaders() && StringUtils.isNotBlank(request.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)))
-                httpRequest.post(RequestBody.create(MediaType.parse(request.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)), request.getBody()));
-            else
-                httpRequest.post(RequestBody.create(MediaType.parse("*/*"), request.getBody()));
-        } else {
-            httpRequest.post(RequestBody.create(MediaType.parse("*/*"), new byte[0]));
+        return false;
+    }
+
+    /**
+     * Exponential backoff with full jitter
+     */
+    private static long backoff(final RetryConfig retryConfig, final int attempt) {
+        final long cap = Math.min((long)retryConfig.getMaxBackoffInMillis(), (long)retryConfig.getInitialBackoffInMillis() << Math.min(attempt, 30));
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    /**
+     * Starts a hedged call when hedging is enabled for the api and the request is idempotent; null otherwise.
+     * @param nonBlocking whether the call runs as a non blocking command; without a configured delay the hedge waits for
+     *                    the p95 latency of the command the call runs under
+     */
+    private HedgedCall hedge(final RevolverHttpApiPlan plan, final RevolverHttpRequest request, final Request httpRequest,
+                             final long remaining, final boolean nonBlocking) {
+        final HedgeConfig hedgeConfig = plan.getApiConfig().getHedge();
+        if(hedgeConfig == null || !hedgeConfig.isEnabled() || request.getBodyStream() != null
+                || (request.getMethod() != RevolverHttpApiConfig.RequestMethod.GET && request.getMethod() != RevolverHttpApiConfig.RequestMethod.HEAD)) {
+            return null;
         }
-        trackingHeaders(request, httpRequest);
-        return executeRequest(apiConfiguration, httpRequest.build(), true);
+        hedgeBudget.deposit();
+        final long delay = hedgeConfig.getDelayInMillis() > 0 ? hedgeConfig.getDelayInMillis() : observedP95(request.getApi(), nonBlocking);
+        if(delay <= 0 || delay >= remaining) {
+            return null;
+        }
+        final Endpoint primary = Endpoint.builder().host(httpRequest.url().host()).port(httpRequest.url().port()).build();
+        return HedgedCall.execute(client, SCHEDULER, httpRequest, delay, () -> {
+            final Endpoint other = serviceResolver.resolveOther(getServiceConfiguration().getEndpoint(), primary);
+            if(other == null) {
+                return null;
+            }
+            if(!hedgeBudget.tryWithdraw()) {
+                hedgesThrottled.mark();
+                return null;
+            }
+            hedgesSent.mark();
+            return buildRequest(plan, request, remaining - delay, other);
+        });
     }
 
-    private RevolverHttpResponse doPut(final RevolverHttpRequest request) throws Exception {
-        val apiConfiguration = this.getApiConfigurations().get(request.getApi());
-        val endpoint = this.serviceResolver.resolve((this.getServiceConfiguration()).getEndpoint());
-        if(endpoint == null) {
-            throw new RevolverException(503, "R999", "Service [" +request.getPath() +"] Unavailable");
+    private int observedP95(final String api, final boolean nonBlocking) {
+        final HystrixCommandMetrics metrics = HystrixCommandMetrics.getInstance(
+                HystrixCommandKey.Factory.asKey(RevolverCommandHelper.commandKeyName(this, api, nonBlocking)));
+        return metrics == null ? -1 : metrics.getExecutionTimePercentile(95);
+    }
+
+    private Response await(final HedgedCall hedgedCall) throws Exception {
+        try {
+            final Response response = hedgedCall.response().get();
+            if(hedgedCall.isHedgeWon()) {
+                hedgesWon.mark();
+            }
+            return response;
+        } catch (InterruptedException e) {
+            //Hystrix timed out the command; abandon every call in flight
+            hedgedCall.response().cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
         }
-        val url = generateURI(request, apiConfiguration, endpoint);
-        val httpRequest = new Request.Builder()
-                .url(url);
-        if (null != request.getHeaders()) {
-            request.getHeaders().forEach((key, values) -> values.forEach(value -> httpRequest.addHeader(key, value)));
+    }
+
+    private RevolverHttpResponse methodNotAllowed(final RevolverHttpRequest request, final RevolverHttpApiConfig apiConfig) {
+        MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle("X-REQUEST-PATH", request.getPath());
+        headers.putSingle("X-REQUEST-METHOD", request.getMethod().name());
+        headers.putSingle("X-REQUEST-API", apiConfig.getApi());
+        return RevolverHttpResponse.builder()
+                .headers(headers)
+                .statusCode(javax.ws.rs.core.Response.Status.BAD_REQUEST.getStatusCode()).build();
+    }
+
+    @Override
+    protected RevolverHttpResponse fallback(final RevolverHttpContext context, final RevolverHttpRequest requestType) {
+        log.error("Fallback triggered for command: " + RevolverCommandHelper.getName(requestType));
+        final RevolverHttpApiConfig apiConfig = getApiConfigurations().get(requestType.getApi());
+        final FallbackConfig fallbackConfig = apiConfig.getFallback();
+        RevolverHttpResponse response = null;
+        if(fallbackConfig.getType() == FallbackConfig.Type.STATIC) {
+            final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+            fallbackConfig.getHeaders().forEach(headers::putSingle);
+            response = RevolverHttpResponse.builder()
+                    .statusCode(fallbackConfig.getStatusCode())
+                    .headers(headers)
+                    .body(fallbackConfig.getBody() == null ? null : fallbackConfig.getBody().getBytes(StandardCharsets.UTF_8))
+                    .build();
+        } else if(isLastKnownGoodFallback(apiConfig, requestType)) {
+            response = lastKnownGood.get(requestKey(requestType, apiConfig.getCache().getVaryHeaders()));
+            if(response != null && isCredentialed(apiConfig.getCache(), requestType) && !isShared(response)) {
+                response = null;
+            }
         }
-        if(request.getBody() != null) {
-            if(null != request.getHeaders() && StringUtils.isNotBlank(request.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)))
-                httpRequest.put(RequestBody.create(MediaType.parse(request.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)), request.getBody()));
-            else
-                httpRequest.put(RequestBody.create(MediaType.parse("*/*"), request.getBody()));
-        } else {
-            httpRequest.put(RequestBody.create(MediaType.parse("*/*"), new byte[0]));
+        if(response == null) {
+            //Hystrix keeps the original failure as the cause
+            throw new RevolverExecutionException(RevolverExecutionException.Type.SERVICE_ERROR,
+                    "No last known good response for " + RevolverCommandHelper.getName(requestType));
+        }
+        response.getHeaders().putSingle(RevolversHttpHeaders.STALE_RESPONSE_HEADER, STALE_FALLBACK);
+        return response;
+    }
+
+    private RevolverHttpResponse executeRequest(final RevolverHttpApiConfig apiConfiguration, final RevolverHttpRequest revolverRequest,
+                                                final Request request, final UpstreamCall call,
+                                                final boolean readBody, final boolean streamable) throws Exception {
+        final long start = System.nanoTime();
+        try {
+            val response = call.execute();
+            traceEndpoint(revolverRequest, response.request().url());
+            final long latency = System.nanoTime() - start;
+            latencies.get(apiConfiguration.getApi()).record(response.code(), latency);
+            val httpResponse = getHttpResponse(apiConfiguration, response, readBody, streamable);
+            log.info("[{}/{}] {} {}:{}{} {} {}ms", apiConfiguration.getApi(), apiConfiguration.getPath(),
+                    request.method(), response.request().url().host(), response.request().url().port(), request.url().encodedPath(),
+                    httpResponse.getStatusCode(), TimeUnit.NANOSECONDS.toMillis(latency));
+            return httpResponse;
+        } catch (Exception e) {
+            latencies.get(apiConfiguration.getApi()).record(0, System.nanoTime() - start);
+            log.error("Error running HTTP {} call: ", request.method(), e);
+            throw e;
         }
-        trackingHeaders(request, httpRequest);
-        return executeRequest(apiConfiguration, httpRequest.build(), true);
     }
 
-    private HttpUrl generateURI(final RevolverHttpRequest request, final RevolverHttpApiConfig apiConfiguration, final Endpoint endpoint) {
-        val builder = new HttpUrl.Builder();
-        addQueryParams(request, builder);
-        if (getServiceConfiguration().isSecured())
-            builder.scheme("https");
-        else
-            builder.scheme("http");
-        builder.host(endpoint.getHost()).port(endpoint.getPort()).encodedPath(resolvePath(apiConfiguration, request));
-        return builder.build();
+    private RequestBody requestBody(final RevolverHttpApiPlan plan, final RevolverHttpRequest request) {
+        if(request.getBodyStream() == null && request.getBody() == null) {
+            return RequestBody.create(RevolverHttpApiPlan.ANY_MEDIA_TYPE, new byte[0]);
+        }
+        final MediaType mediaType = plan.mediaType(request.getHeaders() == null ? null : request.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+        if(request.getBodyStream() != null) {
+            long contentLength = -1;
+            if(null != request.getHeaders() && StringUtils.isNumeric(request.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH))) {
+                contentLength = Long.parseLong(request.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+            }
+            return new StreamingRequestBody(mediaType, request.getBodyStream(), contentLength);
+        }
+        return RequestBody.create(mediaType, request.getBody());
     }
 
-    private RevolverHttpResponse getHttpResponse(final RevolverHttpApiConfig apiConfiguration, final Response response, final boolean readBody) throws Exception {
+    private RevolverHttpResponse getHttpResponse(final RevolverHttpApiConfig apiConfiguration, final Response response, final boolean readBody,
+                                                 final boolean streamable) throws Exception {
         if (apiConfiguration.getAcceptableResponseCodes() != null && !apiConfiguration.getAcceptableResponseCodes().isEmpty() && !apiConfiguration.getAcceptableResponseCodes().contains(response.code())) {
             if (response.body() != null) {
                 log.error("Response: " + response.body().string());
@@ -308,24 +1002,26 @@ public class RevolverHttpCommand extends RevolverCommand<RevolverHttpRequest, Re
                 .statusCode(response.code())
                 .headers(headers);
         if(readBody) {
-            revolverResponse.body(response.body().bytes());
+            if(streamable && isStreamed(apiConfiguration, response.body())) {
+                //Body is piped to the client by the caller which is responsible for closing it
+                revolverResponse.bodyStream(response.body().byteStream());
+            } else {
+                revolverResponse.body(response.body().bytes());
+            }
         }
         return revolverResponse.build();
     }
 
-    private String resolvePath(final RevolverHttpApiConfig httpApiConfiguration, final RevolverHttpRequest request) {
-        String uri = null;
-        if (Strings.isNullOrEmpty(request.getPath())) {
-            if (null != request.getPathParams()) {
-                uri = StrSubstitutor.replace(httpApiConfiguration.getPath(), request.getPathParams());
-            }
-        } else {
-            uri = request.getPath();
+    private boolean isStreamed(final RevolverHttpApiConfig apiConfiguration, final ResponseBody body) {
+        if(body == null) {
+            return false;
         }
-        if (Strings.isNullOrEmpty(uri)) {
-            uri = httpApiConfiguration.getPath();
+        if(apiConfiguration.isStreaming()) {
+            return true;
         }
-        return uri.charAt(0) == '/' ? uri : "/" + uri;
+        final long threshold = apiConfiguration.getStreamingThresholdInBytes();
+        //Unknown (chunked) lengths are streamed as well once a threshold is configured
+        return threshold >= 0 && (body.contentLength() < 0 || body.contentLength() > threshold);
     }
 
     private void addQueryParams(final RevolverHttpRequest request, final HttpUrl.Builder builder) {
@@ -334,30 +1030,47 @@ public class RevolverHttpCommand extends RevolverCommand<RevolverHttpRequest, Re
         }
     }
 
-    private void trackingHeaders(final RevolverHttpRequest request, final Request.Builder requestBuilder) {
-        if (!getServiceConfiguration().isTrackingHeaders()) {
+    private void trackingHeaders(final RevolverHttpApiPlan plan, final RevolverHttpRequest request, final Request.Builder requestBuilder) {
+        if (!plan.isTrackingHeaders()) {
             return;
         }
         val spanInfo = request.getTrace();
         if(request.getHeaders() == null) {
             request.setHeaders(new MultivaluedHashMap<>());
         }
-        List<String> existing = request.getHeaders().keySet().stream().map(String::toLowerCase).collect(Collectors.toList());
-        if (!existing.contains(RevolversHttpHeaders.TXN_ID_HEADER.toLowerCase())) {
+        val existing = request.getHeaders();
+        if (!hasHeader(existing, RevolversHttpHeaders.TXN_ID_HEADER)) {
             requestBuilder.addHeader(RevolversHttpHeaders.TXN_ID_HEADER, spanInfo.getTransactionId());
         }
-        if (!existing.contains(RevolversHttpHeaders.REQUEST_ID_HEADER.toLowerCase())) {
+        if (!hasHeader(existing, RevolversHttpHeaders.REQUEST_ID_HEADER)) {
             requestBuilder.addHeader(RevolversHttpHeaders.REQUEST_ID_HEADER, spanInfo.getRequestId());
         }
-        if (!existing.contains(RevolversHttpHeaders.PARENT_REQUEST_ID_HEADER.toLowerCase())) {
+        if (!hasHeader(existing, RevolversHttpHeaders.PARENT_REQUEST_ID_HEADER)) {
             requestBuilder.addHeader(RevolversHttpHeaders.PARENT_REQUEST_ID_HEADER, spanInfo.getParentRequestId());
         }
-        if (!existing.contains(RevolversHttpHeaders.TIMESTAMP_HEADER.toLowerCase())) {
+        if (!hasHeader(existing, RevolversHttpHeaders.TIMESTAMP_HEADER)) {
             requestBuilder.addHeader(RevolversHttpHeaders.TIMESTAMP_HEADER, Long.toString(spanInfo.getTimestamp()));
         }
-        if (!existing.contains(RevolversHttpHeaders.CLIENT_HEADER.toLowerCase())) {
-            requestBuilder.addHeader(RevolversHttpHeaders.CLIENT_HEADER, this.getClientConfiguration().getClientName());
+        if (!hasHeader(existing, RevolversHttpHeaders.CLIENT_HEADER)) {
+            requestBuilder.addHeader(RevolversHttpHeaders.CLIENT_HEADER, plan.getClientName());
+        }
+    }
+
+    private static boolean hasHeader(final MultivaluedMap<String, String> headers, final String name) {
+        return headerValue(headers, name) != null;
+    }
+
+    private static String headerValue(final MultivaluedMap<String, String> headers, final String name) {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue() == null || header.getValue().isEmpty() ? "" : header.getValue().get(0);
+            }
         }
+        return null;
     }
 
+    @FunctionalInterface
+    private interface UpstreamCall {
+        Response execute() throws Exception;
+    }
 }
@@ -27,6 +27,7 @@ public interface RevolversHttpHeaders {
     String PARENT_REQUEST_ID_HEADER = "X-PARENT-REQUEST-ID";
     String TIMESTAMP_HEADER = "X-REQUEST-TIMESTAMP";
     String CLIENT_HEADER = "X-CLIENT-ID";
+    String DEADLINE_HEADER = "X-REQUEST-DEADLINE";
     String CALL_MODE_HEADER = "X-CALL-MODE";
     String MAILBOX_ID_HEADER = "X-MAILBOX-ID";
     String MAILBOX_TTL_HEADER = "X-MAILBOX-TTL";
@@ -34,5 +35,6 @@ public interface RevolversHttpHeaders {
     String CALLBACK_TIMEOUT_HEADER = "X-CALLBACK-TIMEOUT";
     String CALLBACK_METHOD_HEADER = "X-CALLBACK-METHOD";
     String CALLBACK_RESPONSE_CODE = "X-RESPONSE-CODE";
+    String STALE_RESPONSE_HEADER = "X-RESPONSE-STALE";
 
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.internal.http.UnrepeatableRequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Request body that pipes the client's input stream to the upstream as it is being read. A negative content length
+ * makes the upstream request use chunked transfer encoding.
+ * The body can only be written once; it is marked unrepeatable so that the http client never tries to replay it.
+ * @author phaneesh
+ */
+class StreamingRequestBody extends RequestBody implements UnrepeatableRequestBody {
+
+    private final MediaType mediaType;
+    private final InputStream body;
+    private final long contentLength;
+
+    StreamingRequestBody(final MediaType mediaType, final InputStream body, final long contentLength) {
+        this.mediaType = mediaType;
+        this.body = body;
+        this.contentLength = contentLength;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return mediaType;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(final BufferedSink sink) throws IOException {
+        try (Source source = Okio.source(body)) {
+            sink.writeAll(source);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * In process caching of GET/HEAD responses. Upstream Cache-Control (no-store, private, no-cache, s-maxage, max-age)
+ * and Expires take precedence over the configured ttl.
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheConfig {
+
+    private boolean enabled = false;
+
+    /**
+     * Ttl for responses that carry no freshness information of their own
+     */
+    private int ttlInSeconds = 60;
+
+    /**
+     * How long after expiry a cached response may still be served (marked stale) while it is refreshed in background
+     */
+    private int staleWhileRevalidateInSeconds = 0;
+
+    /**
+     * How long after expiry (and the stale window) a response with an ETag or Last-Modified is kept to be revalidated
+     */
+    private int revalidateWithinInSeconds = 300;
+
+    /**
+     * Request headers whose values are part of the cache key (e.g. Accept, Accept-Language). Responses that Vary on any
+     * other header (Accept-Encoding aside) are not cached.
+     */
+    private Set<String> varyHeaders = Collections.emptySet();
+
+    /**
+     * Share responses among callers with different Authorization / Cookie headers (when those are not vary headers).
+     * Only for apis whose responses do not depend on the caller; otherwise such responses are cached only when upstream
+     * marks them public or sets s-maxage.
+     */
+    private boolean shareCredentialed = false;
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Single flight for GET calls: concurrent requests with the same path, query params and the listed headers share one
+ * upstream call and its response. Coalesced responses are always buffered, never streamed.
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CoalescingConfig {
+
+    private boolean enabled = false;
+
+    /**
+     * Request headers whose values are part of the coalescing key (e.g. Accept-Language); Authorization, Cookie and
+     * conditional headers always are
+     */
+    private Set<String> headers = Collections.emptySet();
+}
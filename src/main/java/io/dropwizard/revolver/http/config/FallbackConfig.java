@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * What to respond with when the api fails, times out or its circuit is open. Fallback responses carry the
+ * {@link io.dropwizard.revolver.http.RevolversHttpHeaders#STALE_RESPONSE_HEADER} header.
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FallbackConfig {
+
+    public enum Type {
+        /**
+         * The failure is propagated to the client
+         */
+        NONE,
+        /**
+         * The configured static response
+         */
+        STATIC,
+        /**
+         * The last successful GET/HEAD response for the same request (keyed like the response cache), if not older
+         * than maxStaleInSeconds
+         */
+        LAST_KNOWN_GOOD
+    }
+
+    private Type type = Type.NONE;
+
+    private int statusCode = 200;
+
+    private Map<String, String> headers = Collections.emptyMap();
+
+    private String body;
+
+    private int maxStaleInSeconds = 3600;
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http.config;
+
+import com.google.common.collect.ImmutableSet;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Retries for failed upstream calls. Only the listed (idempotent by default) methods are retried, with exponential
+ * backoff & full jitter, on a different endpoint when discovery has more than one. Retries are capped by the
+ * service's retry budget and never run past the request's deadline.
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RetryConfig {
+
+    private boolean enabled = false;
+
+    private int maxRetries = 2;
+
+    private Set<RevolverHttpApiConfig.RequestMethod> methods = ImmutableSet.of(RevolverHttpApiConfig.RequestMethod.GET,
+            RevolverHttpApiConfig.RequestMethod.HEAD, RevolverHttpApiConfig.RequestMethod.PUT,
+            RevolverHttpApiConfig.RequestMethod.DELETE, RevolverHttpApiConfig.RequestMethod.OPTIONS);
+
+    private Set<Integer> retryableStatusCodes = ImmutableSet.of(502, 503, 504);
+
+    /**
+     * Exception class names (simple or fully qualified) anywhere in the cause chain that make a call retryable
+     */
+    private Set<String> retryableExceptions = ImmutableSet.of("java.net.ConnectException", "java.net.NoRouteToHostException",
+            "java.net.SocketTimeoutException");
+
+    private int initialBackoffInMillis = 20;
+
+    private int maxBackoffInMillis = 500;
+}
@@ -49,6 +49,29 @@ public class RevolverHttpApiConfig extends CommandHandlerConfig {
 
     private  String acceptEncoding = "identity";
 
+    /**
+     * Complete async (polling/callback) calls from the http client callback under semaphore isolation instead of
+     * parking a hystrix pool thread for the whole upstream call. Retries & hedges apply as to blocking calls; their
+     * delays are scheduled rather than waited out on a thread
+     */
+    private boolean nonBlocking = false;
+
+    /**
+     * Pipe inline response bodies straight to the client without buffering them when no media type transcoding is needed
+     */
+    private boolean streaming = false;
+
+    /**
+     * Response size above which inline responses are streamed even if streaming is not enabled; negative disables it
+     */
+    private long streamingThresholdInBytes = -1;
+
+    /**
+     * Pipe inline request bodies to the upstream as they are read instead of buffering them; polling & callback calls
+     * are always buffered since the request is persisted
+     */
+    private boolean requestStreaming = false;
+
     @NotNull
     @NotEmpty
     @Singular
@@ -58,6 +81,16 @@ public class RevolverHttpApiConfig extends CommandHandlerConfig {
 
     private RevolverHttpAuthorizationConfig authorization = new RevolverHttpAuthorizationConfig();
 
+    private HedgeConfig hedge = new HedgeConfig();
+
+    private RetryConfig retry = new RetryConfig();
+
+    private CoalescingConfig coalescing = new CoalescingConfig();
+
+    private CacheConfig cache = new CacheConfig();
+
+    private FallbackConfig fallback = new FallbackConfig();
+
     @Builder(builderMethodName = "configBuilder")
     public RevolverHttpApiConfig(final String api, final HystrixCommandConfig runtime, final String path, @Singular final Set<RequestMethod> methods, final Set<Integer> acceptableResponseCodes) {
         super(api, runtime);
@@ -24,6 +24,7 @@ import lombok.*;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -48,14 +49,50 @@ public class RevolverHttpServiceConfig extends RevolverServiceConfig {
     @Singular("api")
     private Set<RevolverHttpApiConfig> apis;
     private boolean trackingHeaders;
+    /**
+     * Ask upstreams for gzip encoded responses. They are passed through as is to clients that accept gzip and are
+     * decompressed only when the client does not, or when the response has to be transcoded.
+     */
     private boolean compression;
+    /**
+     * Gzip uncompressed upstream responses for clients that accept it.
+     */
+    private boolean responseCompression;
+    /**
+     * Responses (of known length) smaller than this are never compressed by revolver.
+     */
+    private int compressionThresholdInBytes = 1024;
+    /**
+     * Hedged requests allowed as a percentage of hedge eligible requests across all apis of the service
+     */
+    private double hedgeBudgetPercentage = 5.0;
+    /**
+     * Retries allowed as a percentage of retry eligible requests across all apis of the service
+     */
+    private double retryBudgetPercentage = 10.0;
+    /**
+     * Upper bound on the bytes held by the response cache shared by all cache enabled apis of the service
+     */
+    private long responseCacheSizeInBytes = 64L * 1024 * 1024;
+    /**
+     * Upper bound on the bytes held for last known good fallbacks of the service
+     */
+    private long lastKnownGoodSizeInBytes = 16L * 1024 * 1024;
     private int connectionKeepAliveInMillis = 30000;
+    /**
+     * OkHttp protocol ids in order of preference: http/1.1, h2 (negotiated over TLS using ALPN) or
+     * h2_prior_knowledge (cleartext h2c). Unset keeps the OkHttp default of h2 with fallback to http/1.1.
+     */
+    private List<String> protocols;
 
     @Builder
     public RevolverHttpServiceConfig(final String type, final String service, final EndpointSpec enpoint, final int connectionPoolSize,
                                      final boolean authEnabled, final boolean secured, final AuthConfig auth, final String keyStorePath,
                                      final String keystorePassword, @Singular("api") final Set<RevolverHttpApiConfig> apis, final boolean trackingHeaders,
-                                     final boolean compression, final int connectionKeepAliveInMillis) {
+                                     final boolean compression, final int connectionKeepAliveInMillis, final List<String> protocols,
+                                     final boolean responseCompression, final Integer compressionThresholdInBytes,
+                                     final Double hedgeBudgetPercentage, final Double retryBudgetPercentage,
+                                     final Long responseCacheSizeInBytes, final Long lastKnownGoodSizeInBytes) {
         super(type, service);
         this.endpoint = enpoint;
         this.connectionPoolSize = connectionPoolSize;
@@ -68,5 +105,22 @@ public class RevolverHttpServiceConfig extends RevolverServiceConfig {
         this.trackingHeaders = trackingHeaders;
         this.compression = compression;
         this.connectionKeepAliveInMillis = connectionKeepAliveInMillis;
+        this.protocols = protocols;
+        this.responseCompression = responseCompression;
+        if (compressionThresholdInBytes != null) {
+            this.compressionThresholdInBytes = compressionThresholdInBytes;
+        }
+        if (hedgeBudgetPercentage != null) {
+            this.hedgeBudgetPercentage = hedgeBudgetPercentage;
+        }
+        if (retryBudgetPercentage != null) {
+            this.retryBudgetPercentage = retryBudgetPercentage;
+        }
+        if (responseCacheSizeInBytes != null) {
+            this.responseCacheSizeInBytes = responseCacheSizeInBytes;
+        }
+        if (lastKnownGoodSizeInBytes != null) {
+            this.lastKnownGoodSizeInBytes = lastKnownGoodSizeInBytes;
+        }
     }
 }
@@ -20,6 +20,8 @@ package io.dropwizard.revolver.http.model;
 import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
 import lombok.*;
 
+import java.util.Map;
+
 /**
  * @author phaneesh
  */
@@ -34,4 +36,6 @@ public class ApiPathMap {
     private RevolverHttpApiConfig api;
 
     private String path;
+
+    private Map<String, String> pathParams;
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http.model;
+
+import lombok.*;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.Valid;
+import java.util.List;
+
+/**
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RevolverHttpBatchRequest {
+
+    @NotEmpty
+    @Valid
+    @Singular
+    private List<RevolverHttpSubRequest> requests;
+
+    /**
+     * Stream sub responses in the order they complete instead of returning them all at once in request order
+     */
+    private boolean stream;
+
+    /**
+     * Sub requests in flight at any time; capped by the configured batch concurrency
+     */
+    private int concurrency;
+}
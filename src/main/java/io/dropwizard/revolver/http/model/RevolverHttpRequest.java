@@ -17,6 +17,7 @@
 
 package io.dropwizard.revolver.http.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.collect.Maps;
 import io.dropwizard.revolver.core.model.RevolverRequest;
 import io.dropwizard.revolver.core.tracing.TraceInfo;
@@ -27,6 +28,7 @@ import lombok.EqualsAndHashCode;
 
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
+import java.io.InputStream;
 import java.util.Map;
 
 /**
@@ -42,6 +44,9 @@ public class RevolverHttpRequest extends RevolverRequest
     private String path;
     private RevolverHttpApiConfig.RequestMethod method;
     private byte[] body;
+    @JsonIgnore
+    private InputStream bodyStream;
+    private boolean streamResponse;
 
     public RevolverHttpRequest() {
         this.headers = new MultivaluedHashMap<>();
@@ -52,7 +57,7 @@ public class RevolverHttpRequest extends RevolverRequest
     }
 
     @Builder
-    public RevolverHttpRequest(final String service, final String api, final RevolverHttpApiConfig.RequestMethod method, final TraceInfo traceInfo, final MultivaluedMap<String, String> headers, final MultivaluedMap<String, String> queryParams, final Map<String, String> pathParams, final String path, final byte[] body) {
+    public RevolverHttpRequest(final String service, final String api, final RevolverHttpApiConfig.RequestMethod method, final TraceInfo traceInfo, final MultivaluedMap<String, String> headers, final MultivaluedMap<String, String> queryParams, final Map<String, String> pathParams, final String path, final byte[] body, final InputStream bodyStream, final boolean streamResponse) {
         super("http", service, api, traceInfo);
         this.headers = new MultivaluedHashMap<>();
         this.queryParams = new MultivaluedHashMap<>();
@@ -61,7 +66,9 @@ public class RevolverHttpRequest extends RevolverRequest
         this.queryParams = queryParams;
         this.pathParams = pathParams;
         this.body = body;
+        this.bodyStream = bodyStream;
         this.path = path;
         this.method = method;
+        this.streamResponse = streamResponse;
     }
 }
@@ -17,10 +17,12 @@
 
 package io.dropwizard.revolver.http.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.dropwizard.revolver.core.model.RevolverResponse;
 import lombok.*;
 
 import javax.ws.rs.core.MultivaluedMap;
+import java.io.InputStream;
 
 /**
  * @author phaneesh
@@ -33,9 +35,17 @@ public class RevolverHttpResponse extends RevolverResponse {
 
     private int statusCode;
 
+    /**
+     * Unread upstream body; set instead of body when the response is streamed to the client
+     */
+    @JsonIgnore
+    private InputStream bodyStream;
+
     @Builder
-    public RevolverHttpResponse(final MultivaluedMap<String, String> headers, final byte[] body, final int statusCode) {
+    public RevolverHttpResponse(final MultivaluedMap<String, String> headers, final byte[] body, final int statusCode,
+                                final InputStream bodyStream) {
         super(headers, body);
         this.statusCode = statusCode;
+        this.bodyStream = bodyStream;
     }
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import lombok.*;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A request in a batch. Json bodies are sent as is, text bodies as their string value.
+ * @author phaneesh
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@ToString(exclude = "body")
+public class RevolverHttpSubRequest {
+
+    /**
+     * Echoed back in the sub response; defaults to the position of the request in the batch
+     */
+    private String id;
+
+    @NotEmpty
+    private String service;
+
+    @NotNull
+    private RevolverHttpApiConfig.RequestMethod method;
+
+    @NotEmpty
+    private String path;
+
+    private Map<String, String> headers;
+
+    private Map<String, List<String>> queryParams;
+
+    private JsonNode body;
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http.router;
+
+import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import io.dropwizard.revolver.http.model.ApiPathMap;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Segment trie of all the api paths configured for a single service. It is built once when the service is
+ * registered; lookups walk the request path one segment at a time and never evaluate a regex for plain
+ * literal or {param} segments.
+ * At every level the match precedence is: literal &gt; mixed (regex) segment &gt; {param} &gt; * &gt; ** (catch all).
+ * Among paths of equal precedence the one registered first wins.
+ * Paths match as a whole like the regex scan this replaced: leading and trailing slashes are significant, and a
+ * trailing catch all (.* or **) also matches an empty remainder. A .* anywhere else only spans a single segment.
+ * @author phaneesh
+ */
+public class ApiPathRouter {
+
+    private static final Pattern PARAM_SEGMENT = Pattern.compile("^\\{([^/{}]+)\\}$");
+
+    private static final Pattern PARAM_TOKEN = Pattern.compile("\\{([^/{}]+)\\}");
+
+    private static final String SINGLE_WILDCARD = "*";
+
+    private static final Set<String> CATCH_ALL = new HashSet<>(Arrays.asList("**", ".*"));
+
+    private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+
+    private final Node root = new Node();
+
+    private int maxParams = 0;
+
+    public void register(final RevolverHttpApiConfig api, final String pathExpression) {
+        final String[] segments = split(api.getPath());
+        final ApiPathMap route = ApiPathMap.builder()
+                .api(api)
+                .path(pathExpression)
+                .pathParams(Collections.emptyMap())
+                .build();
+        Node node = root;
+        int params = 0;
+        for (int i = 0; i < segments.length; i++) {
+            final String segment = segments[i];
+            final Matcher paramMatcher = PARAM_SEGMENT.matcher(segment);
+            if (paramMatcher.matches()) {
+                node = node.param(paramMatcher.group(1));
+                params++;
+            } else if (CATCH_ALL.contains(segment) && i == segments.length - 1) {
+                if (node.catchAll == null) {
+                    node.catchAll = route;
+                }
+                maxParams = Math.max(maxParams, params);
+                return;
+            } else if (SINGLE_WILDCARD.equals(segment)) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+                node = node.wildcard;
+            } else if (isPattern(segment)) {
+                final PatternNode patternNode = node.pattern(segment);
+                params += patternNode.paramNames.length;
+                node = patternNode.node;
+            } else {
+                node = node.literals.computeIfAbsent(segment, k -> new Node());
+            }
+        }
+        if (node.route == null) {
+            node.route = route;
+        }
+        maxParams = Math.max(maxParams, params);
+    }
+
+    public ApiPathMap match(final String path) {
+        final String[] segments = split(path);
+        final Captures captures = maxParams == 0 ? null : new Captures(maxParams);
+        final ApiPathMap route = match(root, segments, 0, captures, 0);
+        if (route == null || captures == null || captures.count == 0) {
+            return route;
+        }
+        final Map<String, String> pathParams = new HashMap<>(captures.count * 2);
+        for (int i = 0; i < captures.count; i++) {
+            pathParams.put(captures.names[i], captures.values[i]);
+        }
+        return ApiPathMap.builder()
+                .api(route.getApi())
+                .path(route.getPath())
+                .pathParams(pathParams)
+                .build();
+    }
+
+    private ApiPathMap match(final Node node, final String[] segments, final int depth, final Captures captures,
+                             final int captured) {
+        if (depth == segments.length) {
+            if (node.route != null) {
+                if (captures != null) {
+                    captures.count = captured;
+                }
+                return node.route;
+            }
+            //Only the root catch all can match an empty path; elsewhere the remainder starts after a slash
+            if (depth == 0 && node.catchAll != null) {
+                if (captures != null) {
+                    captures.count = captured;
+                }
+                return node.catchAll;
+            }
+            return null;
+        }
+        final String segment = segments[depth];
+        final Node literal = node.literals.get(segment);
+        if (literal != null) {
+            final ApiPathMap route = match(literal, segments, depth + 1, captures, captured);
+            if (route != null) {
+                return route;
+            }
+        }
+        for (PatternNode patternNode : node.patterns) {
+            final Matcher matcher = patternNode.pattern.matcher(segment);
+            if (matcher.matches()) {
+                int next = captured;
+                for (int i = 0; i < patternNode.paramNames.length; i++) {
+                    next = captures.set(next, patternNode.paramNames[i], matcher.group(patternNode.groupNames[i]));
+                }
+                final ApiPathMap route = match(patternNode.node, segments, depth + 1, captures, next);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+        if (!segment.isEmpty()) {
+            for (Node param : node.params) {
+                final ApiPathMap route = match(param, segments, depth + 1, captures,
+                        captures.set(captured, param.name, segment));
+                if (route != null) {
+                    return route;
+                }
+            }
+            if (node.wildcard != null) {
+                final ApiPathMap route = match(node.wildcard, segments, depth + 1, captures, captured);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+        if (node.catchAll != null) {
+            if (captures != null) {
+                captures.count = captured;
+            }
+            return node.catchAll;
+        }
+        return null;
+    }
+
+    private static boolean isPattern(final String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (REGEX_META_CHARS.indexOf(segment.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String[] split(final String path) {
+        if (path == null || path.isEmpty()) {
+            return new String[0];
+        }
+        int count = 1;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                count++;
+            }
+        }
+        final String[] segments = new String[count];
+        int index = 0;
+        int segmentStart = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                segments[index++] = path.substring(segmentStart, i);
+                segmentStart = i + 1;
+            }
+        }
+        segments[index] = path.substring(segmentStart);
+        return segments;
+    }
+
+    private static final class Node {
+
+        private final String name;
+        private final Map<String, Node> literals = new HashMap<>();
+        private final List<PatternNode> patterns = new ArrayList<>();
+        private final List<Node> params = new ArrayList<>();
+        private Node wildcard;
+        private ApiPathMap catchAll;
+        private ApiPathMap route;
+
+        private Node() {
+            this(null);
+        }
+
+        private Node(final String name) {
+            this.name = name;
+        }
+
+        private Node param(final String paramName) {
+            for (Node param : params) {
+                if (param.name.equals(paramName)) {
+                    return param;
+                }
+            }
+            final Node param = new Node(paramName);
+            params.add(param);
+            return param;
+        }
+
+        private PatternNode pattern(final String segment) {
+            for (PatternNode patternNode : patterns) {
+                if (patternNode.segment.equals(segment)) {
+                    return patternNode;
+                }
+            }
+            final PatternNode patternNode = new PatternNode(segment);
+            patterns.add(patternNode);
+            return patternNode;
+        }
+    }
+
+    private static final class PatternNode {
+
+        private final String segment;
+        private final Pattern pattern;
+        private final String[] paramNames;
+        private final String[] groupNames;
+        private final Node node = new Node();
+
+        private PatternNode(final String segment) {
+            this.segment = segment;
+            final List<String> names = new ArrayList<>();
+            final Matcher matcher = PARAM_TOKEN.matcher(segment);
+            final StringBuffer expression = new StringBuffer();
+            while (matcher.find()) {
+                final String groupName = "p" + names.size();
+                names.add(matcher.group(1));
+                matcher.appendReplacement(expression, "(?<" + groupName + ">[^/]+)");
+            }
+            matcher.appendTail(expression);
+            this.pattern = Pattern.compile(expression.toString());
+            this.paramNames = names.toArray(new String[0]);
+            this.groupNames = new String[paramNames.length];
+            for (int i = 0; i < groupNames.length; i++) {
+                groupNames[i] = "p" + i;
+            }
+        }
+    }
+
+    private static final class Captures {
+
+        private final String[] names;
+        private final String[] values;
+        private int count;
+
+        private Captures(final int size) {
+            this.names = new String[size];
+            this.values = new String[size];
+        }
+
+        private int set(final int index, final String name, final String value) {
+            names[index] = name;
+            values[index] = value;
+            return index + 1;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.resource;
+
+import com.codahale.metrics.annotation.Metered;
+import com.google.common.collect.ImmutableMap;
+import io.dropwizard.revolver.RevolverBundle;
+import io.dropwizard.revolver.core.RevolverExecutionException;
+import io.dropwizard.revolver.http.RevolverHttpCommand;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.Map;
+
+/**
+ * @author phaneesh
+ */
+@Path("/revolver")
+@Slf4j
+@Singleton
+public class RevolverCacheResource {
+
+    @Path("/v1/cache/{service}")
+    @DELETE
+    @Metered
+    @ApiOperation(value = "Invalidate cached & last known good responses of a service, optionally narrowed down to an api and a path prefix")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Object> invalidate(@PathParam("service") final String service, @QueryParam("api") final String api,
+                                          @QueryParam("prefix") final String prefix) {
+        final RevolverHttpCommand command;
+        try {
+            command = RevolverBundle.getHttpCommand(service);
+        } catch (RevolverExecutionException e) {
+            throw new WebApplicationException(Response.Status.NOT_FOUND);
+        }
+        if (api != null && !command.getApiConfigurations().containsKey(api)) {
+            throw new WebApplicationException(Response.Status.NOT_FOUND);
+        }
+        final int invalidated = command.getResponseCache().invalidate(api, prefix) + command.getLastKnownGood().invalidate(api, prefix);
+        log.info("Invalidated {} cached responses of {}/{} with prefix {}", invalidated, service, api, prefix);
+        return ImmutableMap.of("service", service, "invalidated", invalidated);
+    }
+}
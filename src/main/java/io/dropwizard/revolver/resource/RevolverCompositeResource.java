@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.resource;
+
+import com.codahale.metrics.annotation.Metered;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import io.dropwizard.msgpack.MsgPackMediaType;
+import io.dropwizard.revolver.RevolverBundle;
+import io.dropwizard.revolver.composite.CompositeApiExecutor;
+import io.dropwizard.revolver.core.model.RevolverCompositeResponse;
+import io.dropwizard.revolver.util.ResponseTransformationUtil;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import javax.ws.rs.*;
+import javax.ws.rs.core.*;
+
+/**
+ * @author phaneesh
+ */
+@Path("/apis/composite")
+@Slf4j
+@Singleton
+public class RevolverCompositeResource {
+
+    private final ObjectMapper jsonObjectMapper;
+
+    private final XmlMapper xmlObjectMapper;
+
+    private final ObjectMapper msgPackObjectMapper;
+
+    public RevolverCompositeResource(final ObjectMapper jsonObjectMapper, final XmlMapper xmlObjectMapper,
+                                     final ObjectMapper msgPackObjectMapper) {
+        this.jsonObjectMapper = jsonObjectMapper;
+        this.xmlObjectMapper = xmlObjectMapper;
+        this.msgPackObjectMapper = msgPackObjectMapper;
+    }
+
+    @GET
+    @Path("/{name}")
+    @Metered
+    @ApiOperation(value = "Execute a composite api and return the merged responses of its steps")
+    @Produces({MediaType.APPLICATION_JSON, MsgPackMediaType.APPLICATION_MSGPACK, MediaType.APPLICATION_XML})
+    public Response execute(@PathParam("name") final String name, @Context final HttpHeaders headers,
+                            @Context final UriInfo uriInfo) throws Exception {
+        final CompositeApiExecutor executor = RevolverBundle.getCompositeApi(name);
+        if (executor == null) {
+            throw new WebApplicationException(Response.Status.NOT_FOUND);
+        }
+        final RevolverCompositeResponse response = executor.execute(uriInfo.getQueryParameters(), headers.getRequestHeaders());
+        final String mediaType = headers.getAcceptableMediaTypes().isEmpty() || headers.getAcceptableMediaTypes().get(0).isWildcardType()
+                ? MediaType.APPLICATION_JSON : headers.getAcceptableMediaTypes().get(0).toString();
+        return Response.status(executor.isSuccessful(response) ? Response.Status.OK : Response.Status.BAD_GATEWAY)
+                .entity(ResponseTransformationUtil.transform(response, mediaType, jsonObjectMapper, xmlObjectMapper, msgPackObjectMapper))
+                .type(mediaType)
+                .build();
+    }
+}
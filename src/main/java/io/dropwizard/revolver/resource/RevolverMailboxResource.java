@@ -26,6 +26,7 @@ import io.dropwizard.revolver.base.core.*;
 import io.dropwizard.revolver.exception.RevolverException;
 import io.dropwizard.revolver.http.RevolversHttpHeaders;
 import io.dropwizard.revolver.persistence.PersistenceProvider;
+import io.dropwizard.revolver.util.ConditionalRequestUtil;
 import io.dropwizard.revolver.util.HeaderUtil;
 import io.dropwizard.revolver.util.ResponseTransformationUtil;
 import io.swagger.annotations.Api;
@@ -160,17 +161,25 @@ public class RevolverMailboxResource {
         }
     }
 
+    /**
+     * The stored response of a mailbox request is the resource here; it does not change once stored, so client
+     * conditionals are answered from its validators alone without revalidating upstream.
+     */
     @Path("/v1/response/{requestId}")
     @GET
     @Metered
     @ApiOperation(value = "Get the response for a request in the mailbox")
     @Produces({MediaType.APPLICATION_JSON, MsgPackMediaType.APPLICATION_MSGPACK, MediaType.APPLICATION_XML, MediaType.TEXT_HTML})
-    public Response response(@PathParam("requestId") final String requestId) throws RevolverException {
+    public Response response(@PathParam("requestId") final String requestId, @Context final HttpHeaders headers) throws RevolverException {
         try {
             RevolverCallbackResponse callbackResponse = persistenceProvider.response(requestId);
             if (callbackResponse == null) {
                 throw NOT_FOUND_ERROR;
             }
+            if (headers != null && ConditionalRequestUtil.isNotModified(headers.getRequestHeaders(), callbackResponse.getStatusCode(),
+                    callbackResponse.getHeaders())) {
+                return ConditionalRequestUtil.notModified(callbackResponse.getHeaders()).build();
+            }
             val response = Response.status(callbackResponse.getStatusCode())
                     .entity(callbackResponse.getBody());
             callbackResponse.getHeaders().forEach((k, v) -> v.forEach(h -> response.header(k, h)));
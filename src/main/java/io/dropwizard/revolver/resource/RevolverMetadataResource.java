@@ -23,10 +23,12 @@ import com.flipkart.ranger.model.ServiceNode;
 import io.dropwizard.revolver.RevolverBundle;
 import io.dropwizard.revolver.core.config.RevolverConfig;
 import io.dropwizard.revolver.core.config.RevolverServiceConfig;
+import io.dropwizard.revolver.core.metrics.LatencyRegistry;
 import io.dropwizard.revolver.core.model.RevolverApiMetadata;
 import io.dropwizard.revolver.core.model.RevolverMetadataResponse;
 import io.dropwizard.revolver.core.model.RevolverServiceMetadata;
 import io.dropwizard.revolver.discovery.RevolverServiceResolver;
+import io.dropwizard.revolver.discovery.balancer.OutlierDetector;
 import io.dropwizard.revolver.discovery.model.RangerEndpointSpec;
 import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
 import io.swagger.annotations.ApiOperation;
@@ -81,6 +83,7 @@ public class RevolverMetadataResource {
             } else {
                 serviceMetadataBuilder.status(UNKNOWN);
             }
+            endpointStatus(s, serviceMetadataBuilder);
             metadataResponse.service(serviceMetadataBuilder.build());
         });
         return metadataResponse.build();
@@ -117,10 +120,21 @@ public class RevolverMetadataResource {
                 .name(a.getApi())
                 .path(a.getPath())
                 .methods(a.getMethods())
+                .latency(LatencyRegistry.snapshot(httpServiceConfig.getService(), a.getApi()))
                 .secured(!a.isWhitelist())
                 .build()).sorted(Comparator.comparing(RevolverApiMetadata::getPath)).collect(Collectors.toList());
     }
 
+    private void endpointStatus(RevolverHttpServiceConfig httpServiceConfig, RevolverServiceMetadata.RevolverServiceMetadataBuilder serviceMetadataBuilder) {
+        RevolverServiceResolver serviceResolver = RevolverBundle.getServiceNameResolver();
+        if(serviceResolver != null && httpServiceConfig.getEndpoint() != null) {
+            OutlierDetector outlierDetector = serviceResolver.outlierDetector(httpServiceConfig.getEndpoint());
+            if(outlierDetector.isEnabled()) {
+                serviceMetadataBuilder.endpoints(outlierDetector.status());
+            }
+        }
+    }
+
     private void instanceStats(RangerEndpointSpec endpoint, RevolverServiceMetadata.RevolverServiceMetadataBuilder serviceMetadataBuilder) {
         RevolverServiceResolver serviceResolver = RevolverBundle.getServiceNameResolver();
         if(serviceResolver == null) {
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.resource;
+
+import com.codahale.metrics.annotation.Metered;
+import io.dropwizard.revolver.RevolverBundle;
+import io.dropwizard.revolver.core.metrics.ConnectionMetrics;
+import io.dropwizard.revolver.core.metrics.LatencyRegistry;
+import io.dropwizard.revolver.core.model.RevolverConnectionMetrics;
+import io.dropwizard.revolver.core.model.RevolverLatencySnapshot;
+import io.dropwizard.revolver.core.model.RevolverZoneTraffic;
+import io.dropwizard.revolver.discovery.RevolverServiceResolver;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author phaneesh
+ */
+@Path("/revolver")
+@Slf4j
+@Singleton
+public class RevolverMetricsResource {
+
+    @Path("/v1/metrics")
+    @GET
+    @Metered
+    @ApiOperation(value = "Upstream latency percentiles & throughput over the last minute by service, api & status class")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Map<String, Map<String, RevolverLatencySnapshot>>> latencies(@QueryParam("service") final String service) {
+        return LatencyRegistry.snapshot(service);
+    }
+
+    @Path("/v1/metrics/connections")
+    @GET
+    @Metered
+    @ApiOperation(value = "Upstream connection phase timings (dns, connect, tls, acquire, ttfb) & connection reuse by service")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, RevolverConnectionMetrics> connections(@QueryParam("service") final String service) {
+        return ConnectionMetrics.snapshot(service);
+    }
+
+    @Path("/v1/metrics/zones")
+    @GET
+    @Metered
+    @ApiOperation(value = "Calls sent to each zone by services with zone affinity")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, RevolverZoneTraffic> zones(@QueryParam("service") final String service) {
+        final Map<String, RevolverZoneTraffic> zones = new TreeMap<>();
+        final RevolverServiceResolver serviceResolver = RevolverBundle.getServiceNameResolver();
+        if (serviceResolver == null) {
+            return zones;
+        }
+        RevolverBundle.getHttpCommands().forEach((name, command) -> {
+            if (service != null && !service.equals(name)) {
+                return;
+            }
+            final RevolverZoneTraffic traffic = serviceResolver.zoneTraffic(command.getServiceConfiguration().getEndpoint());
+            if (traffic != null) {
+                zones.put(name, traffic);
+            }
+        });
+        return zones;
+    }
+}
@@ -18,10 +18,13 @@
 package io.dropwizard.revolver.resource;
 
 import com.codahale.metrics.annotation.Metered;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
 import io.dropwizard.jersey.PATCH;
 import io.dropwizard.msgpack.MsgPackMediaType;
 import io.dropwizard.revolver.RevolverBundle;
@@ -30,29 +33,50 @@ import io.dropwizard.revolver.base.core.RevolverCallbackRequest;
 import io.dropwizard.revolver.base.core.RevolverCallbackResponse;
 import io.dropwizard.revolver.base.core.RevolverRequestState;
 import io.dropwizard.revolver.callback.CallbackHandler;
+import io.dropwizard.revolver.core.config.BatchConfig;
 import io.dropwizard.revolver.core.tracing.TraceInfo;
 import io.dropwizard.revolver.http.RevolverHttpCommand;
 import io.dropwizard.revolver.http.RevolversHttpHeaders;
 import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import io.dropwizard.revolver.http.model.RevolverHttpBatchRequest;
 import io.dropwizard.revolver.http.model.RevolverHttpRequest;
 import io.dropwizard.revolver.http.model.RevolverHttpResponse;
+import io.dropwizard.revolver.http.model.RevolverHttpSubRequest;
+import io.dropwizard.revolver.http.model.RevolverHttpSubResponse;
 import io.dropwizard.revolver.persistence.PersistenceProvider;
+import io.dropwizard.revolver.util.ConditionalRequestUtil;
 import io.dropwizard.revolver.util.ResponseTransformationUtil;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import javax.inject.Singleton;
 import javax.ws.rs.*;
 import javax.ws.rs.core.*;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * @author phaneesh
@@ -73,6 +97,10 @@ public class RevolverRequestResource {
 
     private final CallbackHandler callbackHandler;
 
+    private final BatchConfig batchConfig;
+
+    private static final String GZIP_ENCODING = "gzip";
+
     private static final Map<String, String> BAD_REQUEST_RESPONSE = Collections.singletonMap("message", "Bad Request");
 
     private static final Map<String, String> DUPLICATE_REQUEST_RESPONSE = Collections.singletonMap("message", "Duplicate");
@@ -81,11 +109,70 @@ public class RevolverRequestResource {
                                    final ObjectMapper msgPackObjectMapper,
                                    final XmlMapper xmlObjectMapper,
                                    final PersistenceProvider persistenceProvider, final CallbackHandler callbackHandler) {
+        this(jsonObjectMapper, msgPackObjectMapper, xmlObjectMapper, persistenceProvider, callbackHandler, new BatchConfig());
+    }
+
+    public RevolverRequestResource(final ObjectMapper jsonObjectMapper,
+                                   final ObjectMapper msgPackObjectMapper,
+                                   final XmlMapper xmlObjectMapper,
+                                   final PersistenceProvider persistenceProvider, final CallbackHandler callbackHandler,
+                                   final BatchConfig batchConfig) {
         this.jsonObjectMapper = jsonObjectMapper;
         this.msgPackObjectMapper = msgPackObjectMapper;
         this.xmlObjectMapper = xmlObjectMapper;
         this.persistenceProvider = persistenceProvider;
         this.callbackHandler = callbackHandler;
+        this.batchConfig = batchConfig;
+    }
+
+    @POST
+    @Path(value="/batch")
+    @Metered
+    @ApiOperation(value = "Revolver batch api endpoint; executes a list of requests in parallel and returns their responses")
+    public Response batch(@Context final HttpHeaders headers, final InputStream body) throws Exception {
+        final ObjectMapper requestMapper = isMsgPack(headers.getMediaType() == null ? null : headers.getMediaType().toString())
+                ? msgPackObjectMapper : jsonObjectMapper;
+        final RevolverHttpBatchRequest batchRequest;
+        try {
+            batchRequest = requestMapper.readValue(body, RevolverHttpBatchRequest.class);
+        } catch (IOException e) {
+            log.warn("Invalid batch request: {}", e.getMessage());
+            return badRequest(headers);
+        }
+        if(batchRequest.getRequests() == null || batchRequest.getRequests().isEmpty()
+                || batchRequest.getRequests().size() > batchConfig.getMaxRequests()) {
+            return badRequest(headers);
+        }
+        final boolean msgPackResponse = isMsgPack(headers.getHeaderString(HttpHeaders.ACCEPT));
+        final ObjectMapper responseMapper = msgPackResponse ? msgPackObjectMapper : jsonObjectMapper;
+        final String responseType = msgPackResponse ? MsgPackMediaType.APPLICATION_MSGPACK : MediaType.APPLICATION_JSON;
+        final Batch batch = new Batch(batchRequest.getRequests(), System.currentTimeMillis() + batchConfig.getTimeoutInMillis(),
+                headers.getHeaderString(RevolversHttpHeaders.REQUEST_ID_HEADER),
+                Strings.isNullOrEmpty(headers.getHeaderString(RevolversHttpHeaders.TXN_ID_HEADER))
+                        ? UUID.randomUUID().toString() : headers.getHeaderString(RevolversHttpHeaders.TXN_ID_HEADER));
+        final int concurrency = batchRequest.getConcurrency() > 0
+                ? Math.min(batchRequest.getConcurrency(), batchConfig.getConcurrency()) : batchConfig.getConcurrency();
+        for(int i = 0; i < concurrency; i++) {
+            launchNext(batch);
+        }
+        if(batchRequest.isStream()) {
+            return Response.ok((StreamingOutput) output -> {
+                final JsonGenerator generator = responseMapper.getFactory().createGenerator(output);
+                generator.writeStartArray();
+                for(int i = 0; i < batch.size(); i++) {
+                    responseMapper.writeValue(generator, await(batch).getResponse());
+                    generator.flush();
+                }
+                generator.writeEndArray();
+                generator.close();
+            }, responseType).build();
+        }
+        final RevolverHttpSubResponse[] responses = new RevolverHttpSubResponse[batch.size()];
+        for(int i = 0; i < batch.size(); i++) {
+            final Completion completion = await(batch);
+            responses[completion.getIndex()] = completion.getResponse();
+        }
+        return Response.ok(responseMapper.writeValueAsBytes(responses), responseType).build();
     }
 
     @GET
@@ -111,7 +198,7 @@ public class RevolverRequestResource {
     @Metered
     @ApiOperation(value = "Revolver POST api endpoint")
     public Response post(@PathParam("service") final String service,
-                        @PathParam("path") final String path, @Context final HttpHeaders headers, @Context final UriInfo uriInfo, final byte[] body) throws Exception {
+                        @PathParam("path") final String path, @Context final HttpHeaders headers, @Context final UriInfo uriInfo, final InputStream body) throws Exception {
         return processRequest(service, RevolverHttpApiConfig.RequestMethod.POST, path, headers, uriInfo, body);
     }
 
@@ -120,7 +207,7 @@ public class RevolverRequestResource {
     @Metered
     @ApiOperation(value = "Revolver PUT api endpoint")
     public Response put(@PathParam("service") final String service,
-                         @PathParam("path") final String path, @Context final HttpHeaders headers, @Context final UriInfo uriInfo, final byte[] body) throws Exception {
+                         @PathParam("path") final String path, @Context final HttpHeaders headers, @Context final UriInfo uriInfo, final InputStream body) throws Exception {
         return processRequest(service, RevolverHttpApiConfig.RequestMethod.PUT, path, headers, uriInfo, body);
     }
 
@@ -138,7 +225,7 @@ public class RevolverRequestResource {
     @Metered
     @ApiOperation(value = "Revolver PATCH api endpoint")
     public Response patch(@PathParam("service") final String service,
-                        @PathParam("path") final String path, @Context final HttpHeaders headers, @Context final UriInfo uriInfo, final byte[] body) throws Exception {
+                        @PathParam("path") final String path, @Context final HttpHeaders headers, @Context final UriInfo uriInfo, final InputStream body) throws Exception {
         return processRequest(service, RevolverHttpApiConfig.RequestMethod.PATCH, path, headers, uriInfo, body);
     }
 
@@ -147,13 +234,13 @@ public class RevolverRequestResource {
     @Metered
     @ApiOperation(value = "Revolver OPTIONS api endpoint")
     public Response options(@PathParam("service") final String service,
-                          @PathParam("path") final String path, @Context final HttpHeaders headers, @Context final UriInfo uriInfo, final byte[] body) throws Exception {
+                          @PathParam("path") final String path, @Context final HttpHeaders headers, @Context final UriInfo uriInfo, final InputStream body) throws Exception {
         return processRequest(service, RevolverHttpApiConfig.RequestMethod.OPTIONS, path, headers, uriInfo, body);
     }
 
 
     private Response processRequest(final String service, final RevolverHttpApiConfig.RequestMethod method, final String path,
-                                    final HttpHeaders headers, final UriInfo uriInfo, final byte[] body) throws Exception {
+                                    final HttpHeaders headers, final UriInfo uriInfo, final InputStream bodyStream) throws Exception {
         val apiMap = RevolverBundle.matchPath(service, path);
         if(apiMap == null) {
             return Response.status(Response.Status.BAD_REQUEST).entity(
@@ -164,8 +251,12 @@ public class RevolverRequestResource {
         }
         val callMode = headers.getRequestHeaders().getFirst(RevolversHttpHeaders.CALL_MODE_HEADER);
         if(Strings.isNullOrEmpty(callMode)) {
-          return executeInline(service, apiMap.getApi(), method, path, headers, uriInfo, body);
+            if(apiMap.getApi().isRequestStreaming()) {
+                return executeInline(service, apiMap.getApi(), method, path, headers, uriInfo, null, bodyStream);
+            }
+            return executeInline(service, apiMap.getApi(), method, path, headers, uriInfo, readBody(bodyStream), null);
         }
+        val body = readBody(bodyStream);
         switch (callMode.toUpperCase()) {
             case RevolverHttpCommand.CALL_MODE_POLLING:
                 return executeCommandAsync(service, apiMap.getApi(), method, path, headers, uriInfo, body, apiMap.getApi().isAsync(), callMode);
@@ -195,13 +286,236 @@ public class RevolverRequestResource {
         ).build();
     }
 
+    /**
+     * Starts the next pending sub request of the batch, if any and if the batch deadline has not passed. Every
+     * completion starts the next one, which keeps at most the batch concurrency in flight.
+     */
+    private void launchNext(final Batch batch) {
+        final int index = batch.getNext().getAndIncrement();
+        if(index >= batch.size() || System.currentTimeMillis() >= batch.getDeadline()) {
+            return;
+        }
+        final RevolverHttpSubRequest subRequest = batch.getRequests().get(index);
+        CompletableFuture<RevolverHttpSubResponse> response;
+        try {
+            response = executeSubRequest(batch, subRequest, subRequestId(subRequest, index));
+        } catch (Exception e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+        response.whenComplete((result, t) -> {
+            batch.getCompleted().add(new Completion(index, t == null ? result : subRequestFailure(subRequestId(subRequest, index), t)));
+            launchNext(batch);
+        });
+    }
+
+    private CompletableFuture<RevolverHttpSubResponse> executeSubRequest(final Batch batch, final RevolverHttpSubRequest subRequest,
+                                                                         final String id) throws IOException {
+        final String path = StringUtils.removeStart(subRequest.getPath(), "/");
+        val apiMap = RevolverBundle.matchPath(subRequest.getService(), path);
+        if(apiMap == null) {
+            return CompletableFuture.completedFuture(subResponse(id, Response.Status.BAD_REQUEST.getStatusCode(), BAD_REQUEST_RESPONSE));
+        }
+        val subRequestHeaders = new MultivaluedHashMap<String, String>();
+        if(subRequest.getHeaders() != null) {
+            subRequest.getHeaders().forEach(subRequestHeaders::putSingle);
+        }
+        cleanHeaders(subRequestHeaders, apiMap.getApi());
+        //Let the http client negotiate & decode compression; a cached or coalesced response can still be gzipped
+        subRequestHeaders.remove(HttpHeaders.ACCEPT_ENCODING);
+        subRequestHeaders.putSingle(RevolversHttpHeaders.DEADLINE_HEADER, String.valueOf(batch.getDeadline() - System.currentTimeMillis()));
+        final byte[] body = subRequestBody(subRequest.getBody(), subRequestHeaders);
+        val queryParams = new MultivaluedHashMap<String, String>();
+        if(subRequest.getQueryParams() != null) {
+            subRequest.getQueryParams().forEach(queryParams::put);
+        }
+        return RevolverBundle.getHttpCommand(subRequest.getService()).executeAsync(
+                RevolverHttpRequest.builder()
+                        .traceInfo(
+                                TraceInfo.builder()
+                                        .requestId(UUID.randomUUID().toString())
+                                        .parentRequestId(batch.getRequestId())
+                                        .transactionId(batch.getTransactionId())
+                                        .timestamp(System.currentTimeMillis())
+                                        .build())
+                        .api(apiMap.getApi().getApi())
+                        .service(subRequest.getService())
+                        .path(path)
+                        .method(subRequest.getMethod())
+                        .headers(subRequestHeaders)
+                        .queryParams(queryParams)
+                        .body(body)
+                        .build())
+                .thenApply(response -> subResponse(id, response));
+    }
+
+    private byte[] subRequestBody(final JsonNode body, final MultivaluedMap<String, String> headers) throws IOException {
+        if(body == null || body.isNull()) {
+            return null;
+        }
+        if(body.isTextual()) {
+            return body.asText().getBytes(StandardCharsets.UTF_8);
+        }
+        if(headers.keySet().stream().noneMatch(HttpHeaders.CONTENT_TYPE::equalsIgnoreCase)) {
+            headers.putSingle(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+        }
+        return jsonObjectMapper.writeValueAsBytes(body);
+    }
+
+    private RevolverHttpSubResponse subResponse(final String id, final RevolverHttpResponse response) {
+        if(response.getHeaders() != null && GZIP_ENCODING.equalsIgnoreCase(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            //Shared with an inline call that accepted gzip; sub response bodies are embedded decoded
+            try {
+                decompress(response);
+            } catch (IOException e) {
+                log.warn("Sub response {} has an invalid gzip body", id, e);
+                return subResponse(id, Response.Status.BAD_GATEWAY.getStatusCode(), Collections.singletonMap("message", "Invalid gzip body"));
+            }
+        }
+        final Map<String, List<String>> headers = new HashMap<>();
+        if(response.getHeaders() != null) {
+            response.getHeaders().forEach((name, values) -> {
+                if(!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && !"Transfer-Encoding".equalsIgnoreCase(name)) {
+                    headers.put(name, values);
+                }
+            });
+        }
+        final String contentType = ConditionalRequestUtil.header(headers, HttpHeaders.CONTENT_TYPE);
+        JsonNode body = null;
+        if(response.getBody() != null && response.getBody().length > 0) {
+            if(contentType != null && contentType.contains("json")) {
+                try {
+                    body = jsonObjectMapper.readTree(response.getBody());
+                } catch (IOException e) {
+                    log.debug("Sub response {} is not valid json", id);
+                }
+            }
+            if(body == null) {
+                body = TextNode.valueOf(new String(response.getBody(), StandardCharsets.UTF_8));
+            }
+        }
+        return RevolverHttpSubResponse.builder()
+                .id(id)
+                .statusCode(response.getStatusCode())
+                .headers(headers)
+                .body(body)
+                .build();
+    }
+
+    private RevolverHttpSubResponse subResponse(final String id, final int status, final Object message) {
+        return RevolverHttpSubResponse.builder()
+                .id(id)
+                .statusCode(status)
+                .headers(Collections.singletonMap(HttpHeaders.CONTENT_TYPE, Collections.singletonList(MediaType.APPLICATION_JSON)))
+                .body(jsonObjectMapper.valueToTree(message))
+                .build();
+    }
+
+    private RevolverHttpSubResponse subRequestFailure(final String id, final Throwable t) {
+        final Throwable cause = ExceptionUtils.getRootCause(t) == null ? t : ExceptionUtils.getRootCause(t);
+        if(cause instanceof TimeoutException) {
+            return subResponse(id, Response.Status.GATEWAY_TIMEOUT.getStatusCode(), Collections.singletonMap("message", "Timeout"));
+        }
+        return subResponse(id, Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                Collections.singletonMap("message", Strings.nullToEmpty(cause.getMessage())));
+    }
+
+    private static String subRequestId(final RevolverHttpSubRequest subRequest, final int index) {
+        return Strings.isNullOrEmpty(subRequest.getId()) ? String.valueOf(index) : subRequest.getId();
+    }
+
+    /**
+     * Next completed sub request of the batch; once the batch deadline passes, a 504 for a sub request that has not
+     * completed yet.
+     */
+    private Completion await(final Batch batch) {
+        while (true) {
+            final long remaining = batch.getDeadline() - System.currentTimeMillis();
+            Completion completion;
+            try {
+                completion = remaining > 0 ? batch.getCompleted().poll(remaining, TimeUnit.MILLISECONDS) : batch.getCompleted().poll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                completion = null;
+            }
+            if(completion == null) {
+                final int index = batch.nextPending();
+                return new Completion(index, subResponse(subRequestId(batch.getRequests().get(index), index),
+                        Response.Status.GATEWAY_TIMEOUT.getStatusCode(), Collections.singletonMap("message", "Timeout")));
+            }
+            if(!batch.getDone()[completion.getIndex()]) {
+                batch.getDone()[completion.getIndex()] = true;
+                return completion;
+            }
+        }
+    }
+
+    private Response badRequest(final HttpHeaders headers) throws IOException {
+        return Response.status(Response.Status.BAD_REQUEST).entity(
+                ResponseTransformationUtil.transform(BAD_REQUEST_RESPONSE,
+                        headers.getMediaType() != null ? headers.getMediaType().toString() : MediaType.APPLICATION_JSON,
+                        jsonObjectMapper, xmlObjectMapper, msgPackObjectMapper)
+        ).build();
+    }
+
+    private static boolean isMsgPack(final String mediaType) {
+        return mediaType != null && mediaType.startsWith(MsgPackMediaType.APPLICATION_MSGPACK);
+    }
+
+    @Getter
+    private static class Batch {
+        private final List<RevolverHttpSubRequest> requests;
+        private final long deadline;
+        private final String requestId;
+        private final String transactionId;
+        private final AtomicInteger next = new AtomicInteger();
+        private final BlockingQueue<Completion> completed = new LinkedBlockingQueue<>();
+        private final boolean[] done;
+
+        Batch(final List<RevolverHttpSubRequest> requests, final long deadline, final String requestId, final String transactionId) {
+            this.requests = requests;
+            this.deadline = deadline;
+            this.requestId = requestId;
+            this.transactionId = transactionId;
+            this.done = new boolean[requests.size()];
+        }
+
+        int size() {
+            return requests.size();
+        }
+
+        int nextPending() {
+            for(int i = 0; i < done.length; i++) {
+                if(!done[i]) {
+                    done[i] = true;
+                    return i;
+                }
+            }
+            throw new IllegalStateException("No pending sub requests");
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Completion {
+        private final int index;
+        private final RevolverHttpSubResponse response;
+    }
+
+    private byte[] readBody(final InputStream bodyStream) throws IOException {
+        return bodyStream == null ? null : ByteStreams.toByteArray(bodyStream);
+    }
+
     private Response executeInline(final String service, final RevolverHttpApiConfig api, final RevolverHttpApiConfig.RequestMethod method,
                                    final String path, final HttpHeaders headers,
-                                   final UriInfo uriInfo, final byte[] body) throws IOException, TimeoutException {
+                                   final UriInfo uriInfo, final byte[] body, final InputStream bodyStream) throws IOException, TimeoutException {
         val sanatizedHeaders = new MultivaluedHashMap<String, String>();
         headers.getRequestHeaders().forEach(sanatizedHeaders::put);
         cleanHeaders(sanatizedHeaders, api);
         val httpCommand = RevolverBundle.getHttpCommand(service);
+        if(httpCommand.getServiceConfiguration().isCompression()) {
+            sanatizedHeaders.putSingle(HttpHeaders.ACCEPT_ENCODING, GZIP_ENCODING);
+        }
         val response = httpCommand.execute(
                 RevolverHttpRequest.builder()
                         .traceInfo(
@@ -217,20 +531,46 @@ public class RevolverRequestResource {
                         .headers(sanatizedHeaders)
                         .queryParams(uriInfo.getQueryParameters())
                         .body(body)
+                        .bodyStream(bodyStream)
+                        .streamResponse(true)
                         .build()
         );
-        return transform(headers, response, api.getApi(), path, method);
+        return transform(headers, response, service, api.getApi(), path, method);
      }
 
-    private Response transform(HttpHeaders headers, RevolverHttpResponse response, String api, String path, RevolverHttpApiConfig.RequestMethod method) throws IOException {
+    private Response transform(HttpHeaders headers, RevolverHttpResponse response, String service, String api, String path, RevolverHttpApiConfig.RequestMethod method) throws IOException {
+        if(headers != null && (method == RevolverHttpApiConfig.RequestMethod.GET || method == RevolverHttpApiConfig.RequestMethod.HEAD)
+                && ConditionalRequestUtil.isNotModified(headers.getRequestHeaders(), response.getStatusCode(), response.getHeaders())) {
+            //Client already has this representation; answer without a body
+            if(response.getBodyStream() != null) {
+                response.getBodyStream().close();
+            }
+            return ConditionalRequestUtil.notModified(response.getHeaders())
+                    .header("X-REQUESTED-PATH", path)
+                    .header("X-REQUESTED-METHOD", method)
+                    .header("X-REQUESTED-API", api)
+                    .build();
+        }
         val httpResponse = Response.status(response.getStatusCode());
+        val serviceConfig = RevolverBundle.getHttpCommand(service).getServiceConfiguration();
+        final boolean acceptsGzip = acceptsGzip(headers);
+        boolean gzipped = response.getHeaders() != null && GZIP_ENCODING.equalsIgnoreCase(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
         //Add all the headers except content type header
         if(response.getHeaders() != null ) {
             response.getHeaders().keySet().stream()
                     .filter( h -> !h.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE))
                     .filter(h -> !h.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH))
+                    .filter(h -> !h.equalsIgnoreCase(HttpHeaders.CONTENT_ENCODING))
+                    .filter(h -> !h.equalsIgnoreCase(HttpHeaders.VARY))
                     .forEach( h -> httpResponse.header(h, response.getHeaders().getFirst(h)));
         }
+        final String vary = response.getHeaders() == null ? null : response.getHeaders().getFirst(HttpHeaders.VARY);
+        if(gzipped || serviceConfig.isResponseCompression()) {
+            //Encoding is negotiated per client; caches must not hand a gzip body to a client that did not ask for it
+            httpResponse.header(HttpHeaders.VARY, varyOnEncoding(vary));
+        } else if(!Strings.isNullOrEmpty(vary)) {
+            httpResponse.header(HttpHeaders.VARY, vary);
+        }
         httpResponse.header("X-REQUESTED-PATH", path);
         httpResponse.header("X-REQUESTED-METHOD", method);
         httpResponse.header("X-REQUESTED-API", api);
@@ -240,9 +580,40 @@ public class RevolverRequestResource {
         //Also send it as the content type as response content type if there requested content type is the same;
         if(Strings.isNullOrEmpty(requestMediaType) || requestMediaType.equals(responseMediaType)) {
             httpResponse.header(HttpHeaders.CONTENT_TYPE, responseMediaType);
-            httpResponse.entity(response.getBody());
+            if(gzipped && !acceptsGzip) {
+                decompress(response);
+                gzipped = false;
+            }
+            if(gzipped) {
+                //Already compressed by upstream; pass the bytes through untouched
+                httpResponse.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+            }
+            if(response.getBodyStream() != null) {
+                final long contentLength = contentLength(response);
+                if(!gzipped && shouldCompress(serviceConfig, acceptsGzip, contentLength)) {
+                    httpResponse.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+                    httpResponse.entity(gzipBody(response.getBodyStream()));
+                    return httpResponse.build();
+                }
+                if(contentLength >= 0) {
+                    httpResponse.header(HttpHeaders.CONTENT_LENGTH, contentLength);
+                }
+                httpResponse.entity(streamBody(response.getBodyStream()));
+            } else {
+                entity(httpResponse, response.getBody(), serviceConfig, acceptsGzip && !gzipped);
+            }
             return httpResponse.build();
         }
+        //Transcoding needs the whole, decoded body
+        if(gzipped) {
+            decompress(response);
+        }
+        if(response.getBodyStream() != null) {
+            try(InputStream bodyStream = response.getBodyStream()) {
+                response.setBody(ByteStreams.toByteArray(bodyStream));
+            }
+            response.setBodyStream(null);
+        }
         Object responseData = null;
         if(responseMediaType.startsWith(MediaType.APPLICATION_JSON)) {
             final JsonNode jsonNode = jsonObjectMapper.readTree(response.getBody());
@@ -267,27 +638,102 @@ public class RevolverRequestResource {
             }
         }
         if(responseData == null) {
-            httpResponse.entity(response.getBody());
+            entity(httpResponse, response.getBody(), serviceConfig, acceptsGzip);
         } else {
             if(requestMediaType.startsWith(MediaType.APPLICATION_JSON)) {
                 httpResponse.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
-                httpResponse.entity(jsonObjectMapper.writeValueAsBytes(responseData));
+                entity(httpResponse, jsonObjectMapper.writeValueAsBytes(responseData), serviceConfig, acceptsGzip);
             } else if(requestMediaType.startsWith(MediaType.APPLICATION_XML)) {
                 httpResponse.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_XML);
-                httpResponse.entity(xmlObjectMapper.writer()
-                        .withRootName("Response").writeValueAsBytes(responseData));
+                entity(httpResponse, xmlObjectMapper.writer()
+                        .withRootName("Response").writeValueAsBytes(responseData), serviceConfig, acceptsGzip);
             } else if(requestMediaType.startsWith(MsgPackMediaType.APPLICATION_MSGPACK)) {
                 httpResponse.header(HttpHeaders.CONTENT_TYPE, MsgPackMediaType.APPLICATION_MSGPACK);
-                httpResponse.entity(msgPackObjectMapper.writeValueAsBytes(responseData));
+                entity(httpResponse, msgPackObjectMapper.writeValueAsBytes(responseData), serviceConfig, acceptsGzip);
             } else {
                 httpResponse.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
-                httpResponse.entity(jsonObjectMapper.writeValueAsBytes(responseData));
+                entity(httpResponse, jsonObjectMapper.writeValueAsBytes(responseData), serviceConfig, acceptsGzip);
             }
         }
         return httpResponse.build();
     }
 
 
+    private void entity(final Response.ResponseBuilder httpResponse, final byte[] body, final RevolverHttpServiceConfig serviceConfig,
+                        final boolean acceptsGzip) {
+        if(body != null && shouldCompress(serviceConfig, acceptsGzip, body.length)) {
+            httpResponse.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+            httpResponse.entity(gzipBody(new ByteArrayInputStream(body)));
+        } else {
+            httpResponse.entity(body);
+        }
+    }
+
+    private static String varyOnEncoding(final String vary) {
+        if(Strings.isNullOrEmpty(vary)) {
+            return HttpHeaders.ACCEPT_ENCODING;
+        }
+        for(String header : vary.split(",")) {
+            if("*".equals(header.trim()) || HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(header.trim())) {
+                return vary;
+            }
+        }
+        return vary + ", " + HttpHeaders.ACCEPT_ENCODING;
+    }
+
+    private boolean shouldCompress(final RevolverHttpServiceConfig serviceConfig, final boolean acceptsGzip, final long contentLength) {
+        //Unknown lengths are compressed; they are large enough to have been streamed
+        return acceptsGzip && serviceConfig.isResponseCompression()
+                && (contentLength < 0 || contentLength >= serviceConfig.getCompressionThresholdInBytes());
+    }
+
+    private long contentLength(final RevolverHttpResponse response) {
+        final String contentLength = response.getHeaders() == null ? null : response.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH);
+        return Strings.isNullOrEmpty(contentLength) ? -1 : Long.parseLong(contentLength);
+    }
+
+    private void decompress(final RevolverHttpResponse response) throws IOException {
+        if(response.getBodyStream() != null) {
+            response.setBodyStream(new GZIPInputStream(response.getBodyStream()));
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        } else if(response.getBody() != null && response.getBody().length > 0) {
+            try(InputStream body = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+                response.setBody(ByteStreams.toByteArray(body));
+            }
+        }
+        response.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    private static boolean acceptsGzip(final HttpHeaders headers) {
+        final String acceptEncoding = headers == null ? null : headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING);
+        if(Strings.isNullOrEmpty(acceptEncoding)) {
+            return false;
+        }
+        for(String encoding : acceptEncoding.split(",")) {
+            final String[] parts = encoding.trim().split(";");
+            if(GZIP_ENCODING.equalsIgnoreCase(parts[0].trim()) || "*".equals(parts[0].trim())) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private StreamingOutput gzipBody(final InputStream body) {
+        return output -> {
+            try(InputStream input = body; GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+                ByteStreams.copy(input, gzip);
+            }
+        };
+    }
+
+    private StreamingOutput streamBody(final InputStream body) {
+        return output -> {
+            try(InputStream input = body) {
+                ByteStreams.copy(input, output);
+            }
+        };
+    }
+
     private void cleanHeaders(final MultivaluedMap<String, String> headers, RevolverHttpApiConfig apiConfig) {
         headers.remove(HttpHeaders.HOST);
         headers.remove(HttpHeaders.ACCEPT);
@@ -354,7 +800,7 @@ public class RevolverRequestResource {
                 persistenceProvider.setRequestState(requestId, RevolverRequestState.RESPONDED, mailBoxTtl);
                 saveResponse(requestId, result, callMode, mailBoxTtl);
             }
-            return transform(headers, result, api.getApi(), path, method);
+            return transform(headers, result, service, api.getApi(), path, method);
         } else {
             response.thenAcceptAsync( result -> {
                 try {
@@ -429,7 +875,7 @@ public class RevolverRequestResource {
         );
         val result = response.get();
         persistenceProvider.setRequestState(requestId, RevolverRequestState.REQUESTED, mailBoxTtl);
-        return transform(headers, result, api.getApi(), path, method);
+        return transform(headers, result, service, api.getApi(), path, method);
     }
 
     private void saveResponse(String requestId, RevolverHttpResponse result, final String callMode, final int ttl) {
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.util;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evaluation of If-None-Match / If-Modified-Since against a response (RFC 7232).
+ * @author phaneesh
+ */
+public final class ConditionalRequestUtil {
+
+    /**
+     * Headers a 304 carries over from the full response
+     */
+    public static final Set<String> NOT_MODIFIED_HEADERS = ImmutableSet.of(HttpHeaders.CACHE_CONTROL.toLowerCase(),
+            HttpHeaders.CONTENT_LOCATION.toLowerCase(), HttpHeaders.DATE.toLowerCase(), HttpHeaders.ETAG.toLowerCase(),
+            HttpHeaders.EXPIRES.toLowerCase(), HttpHeaders.LAST_MODIFIED.toLowerCase(), HttpHeaders.VARY.toLowerCase());
+
+    private ConditionalRequestUtil() {
+    }
+
+    /**
+     * Whether the client already holds the representation, i.e. a GET/HEAD for it can be answered with a 304.
+     */
+    public static boolean isNotModified(Map<String, List<String>> requestHeaders, int status, Map<String, List<String>> responseHeaders) {
+        if (requestHeaders == null || responseHeaders == null || status != Response.Status.OK.getStatusCode()) {
+            return false;
+        }
+        final String ifNoneMatch = header(requestHeaders, HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            final String etag = header(responseHeaders, HttpHeaders.ETAG);
+            if (etag == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.equals("*") || opaqueTag(tag).equals(opaqueTag(etag))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        final long ifModifiedSince = date(header(requestHeaders, HttpHeaders.IF_MODIFIED_SINCE));
+        final long lastModified = date(header(responseHeaders, HttpHeaders.LAST_MODIFIED));
+        return ifModifiedSince >= 0 && lastModified >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    public static boolean isConditional(Map<String, List<String>> requestHeaders) {
+        return requestHeaders != null && (header(requestHeaders, HttpHeaders.IF_NONE_MATCH) != null
+                || header(requestHeaders, HttpHeaders.IF_MODIFIED_SINCE) != null);
+    }
+
+    public static Response.ResponseBuilder notModified(Map<String, List<String>> responseHeaders) {
+        final Response.ResponseBuilder response = Response.notModified();
+        responseHeaders.forEach((name, values) -> {
+            if (NOT_MODIFIED_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> response.header(name, value));
+            }
+        });
+        return response;
+    }
+
+    /**
+     * First value of a header, looked up case insensitively
+     */
+    public static String header(Map<String, List<String>> headers, String name) {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name) && header.getValue() != null && !header.getValue().isEmpty()) {
+                return header.getValue().get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Weak comparison: W/"x" and "x" match
+     */
+    public static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    public static long date(String value) {
+        if (Strings.isNullOrEmpty(value)) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
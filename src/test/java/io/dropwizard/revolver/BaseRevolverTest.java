@@ -30,6 +30,7 @@ import io.dropwizard.revolver.core.config.*;
 import io.dropwizard.revolver.core.config.hystrix.ThreadPoolConfig;
 import io.dropwizard.revolver.discovery.ServiceResolverConfig;
 import io.dropwizard.revolver.discovery.model.SimpleEndpointSpec;
+import io.dropwizard.revolver.http.config.FallbackConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
 import io.dropwizard.revolver.http.config.RevolverHttpsServiceConfig;
@@ -47,6 +48,7 @@ import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
+import java.util.Collections;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -109,6 +111,31 @@ public class BaseRevolverTest {
         securedEndpoint.setHost("localhost");
         securedEndpoint.setPort(9933);
 
+        //Pools queue a few calls: a back to back call can arrive before the previous call has released the only thread
+        //Hystrix reads whether an api falls back once, so fallback apis are configured up front
+        val staticFallbackApi = RevolverHttpApiConfig.configBuilder()
+                .api("test_static_fallback")
+                .method(RevolverHttpApiConfig.RequestMethod.GET)
+                .path("{version}/fallback/static")
+                .runtime(HystrixCommandConfig.builder()
+                        .threadPool(ThreadPoolConfig.builder()
+                                .concurrency(1).maxRequestQueueSize(10).dynamicRequestQueueSize(10).timeout(2000)
+                                .build())
+                        .build()).build();
+        staticFallbackApi.setFallback(new FallbackConfig(FallbackConfig.Type.STATIC, 200,
+                Collections.singletonMap("Content-Type", "application/json"), "[]", 0));
+
+        val lastKnownGoodApi = RevolverHttpApiConfig.configBuilder()
+                .api("test_last_known_good")
+                .method(RevolverHttpApiConfig.RequestMethod.GET)
+                .path("{version}/fallback/last_known_good")
+                .runtime(HystrixCommandConfig.builder()
+                        .threadPool(ThreadPoolConfig.builder()
+                                .concurrency(1).maxRequestQueueSize(10).dynamicRequestQueueSize(10).timeout(2000)
+                                .build())
+                        .build()).build();
+        lastKnownGoodApi.getFallback().setType(FallbackConfig.Type.LAST_KNOWN_GOOD);
+
         revolverConfig = RevolverConfig.builder()
                 .mailBox(InMemoryMailBoxConfig.builder().build())
                 .serviceResolverConfig(ServiceResolverConfig.builder()
@@ -139,7 +166,7 @@ public class BaseRevolverTest {
                                 .path("{version}/test")
                                 .runtime(HystrixCommandConfig.builder()
                                         .threadPool(ThreadPoolConfig.builder()
-                                                .concurrency(1).timeout(2000)
+                                                .concurrency(1).maxRequestQueueSize(10).dynamicRequestQueueSize(10).timeout(2000)
                                                 .build())
                                         .build()).build())
                         .api(RevolverHttpApiConfig.configBuilder()
@@ -154,9 +181,11 @@ public class BaseRevolverTest {
                                 .path("{version}/test/{operation}")
                                 .runtime(HystrixCommandConfig.builder()
                                         .threadPool(ThreadPoolConfig.builder()
-                                                .concurrency(1).timeout(2000)
+                                                .concurrency(1).maxRequestQueueSize(10).dynamicRequestQueueSize(10).timeout(2000)
                                                 .build())
                                         .build()).build())
+                        .api(staticFallbackApi)
+                        .api(lastKnownGoodApi)
                         .build())
                 .service(RevolverHttpsServiceConfig.builder()
                         .authEnabled(false)
@@ -176,7 +205,7 @@ public class BaseRevolverTest {
                                 .path("{version}/test")
                                 .runtime(HystrixCommandConfig.builder()
                                         .threadPool(ThreadPoolConfig.builder()
-                                                .concurrency(1).timeout(2000)
+                                                .concurrency(1).maxRequestQueueSize(10).dynamicRequestQueueSize(10).timeout(2000)
                                                 .build())
                                         .build()).build())
                         .api(RevolverHttpApiConfig.configBuilder()
@@ -191,7 +220,7 @@ public class BaseRevolverTest {
                                 .path("{version}/test/{operation}")
                                 .runtime(HystrixCommandConfig.builder()
                                         .threadPool(ThreadPoolConfig.builder()
-                                                .concurrency(1).timeout(2000)
+                                                .concurrency(1).maxRequestQueueSize(10).dynamicRequestQueueSize(10).timeout(2000)
                                                 .build())
                                         .build()).build())
                         .build())
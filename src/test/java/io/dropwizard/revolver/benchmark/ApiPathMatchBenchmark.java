@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.benchmark;
+
+import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import io.dropwizard.revolver.http.model.ApiPathMap;
+import io.dropwizard.revolver.http.router.ApiPathRouter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the trie based router against the regex scan that RevolverBundle.matchPath used earlier.
+ * Run the main method from the test classpath to execute.
+ * @author phaneesh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ApiPathMatchBenchmark {
+
+    @Param({"10", "100", "300"})
+    private int apiCount;
+
+    private List<ApiPathMap> regexScan;
+
+    private ApiPathRouter router;
+
+    private String firstPath;
+
+    private String lastPath;
+
+    @Setup
+    public void setup() {
+        final List<RevolverHttpApiConfig> apis = new ArrayList<>();
+        for (int i = 0; i < apiCount; i++) {
+            apis.add(RevolverHttpApiConfig.configBuilder()
+                    .api("api_" + i)
+                    .path("{version}/resource_" + i + "/{id}/details")
+                    .method(RevolverHttpApiConfig.RequestMethod.GET)
+                    .build());
+        }
+        apis.sort(Comparator.comparing(RevolverHttpApiConfig::getPath));
+        regexScan = new ArrayList<>();
+        router = new ApiPathRouter();
+        apis.forEach(api -> {
+            final String expression = api.getPath().replaceAll("\\{(([^/])+\\})", "(([^/])+)");
+            regexScan.add(ApiPathMap.builder().api(api).path(expression).build());
+            router.register(api, expression);
+        });
+        firstPath = "v1/resource_0/1234/details";
+        lastPath = "v1/resource_" + (apiCount - 1) + "/1234/details";
+    }
+
+    @Benchmark
+    public ApiPathMap regexScanFirst() {
+        return regexScan(firstPath);
+    }
+
+    @Benchmark
+    public ApiPathMap regexScanLast() {
+        return regexScan(lastPath);
+    }
+
+    @Benchmark
+    public ApiPathMap routerFirst() {
+        return router.match(firstPath);
+    }
+
+    @Benchmark
+    public ApiPathMap routerLast() {
+        return router.match(lastPath);
+    }
+
+    private ApiPathMap regexScan(final String path) {
+        return regexScan.stream().filter(api -> path.matches(api.getPath())).findFirst().orElse(null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ApiPathMatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
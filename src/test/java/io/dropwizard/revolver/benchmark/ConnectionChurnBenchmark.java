@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.benchmark;
+
+import io.dropwizard.revolver.http.RevolverHttpClientFactory;
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import okhttp3.*;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent calls to a single upstream over http/1.1 and cleartext h2 (prior knowledge). Connections opened over the
+ * run are printed at teardown; with h2 the concurrent calls are multiplexed as streams over a handful of connections.
+ * WireMock (1.x) only speaks http/1.1 so the upstream here is OkHttp's MockWebServer.
+ * Run the main method from the test classpath to execute.
+ * @author phaneesh
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(64)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class ConnectionChurnBenchmark {
+
+    @Param({"http/1.1", "h2_prior_knowledge"})
+    private String protocol;
+
+    private MockWebServer server;
+
+    private OkHttpClient client;
+
+    private HttpUrl url;
+
+    private final AtomicInteger connects = new AtomicInteger();
+
+    @Setup
+    public void setup() throws Exception {
+        server = new MockWebServer();
+        server.setProtocols(Collections.singletonList(Protocol.get(protocol)));
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+                return new MockResponse().setBody("{}");
+            }
+        });
+        server.start();
+        url = server.url("/v1/test");
+        //Small pool so that http/1.1 has to churn connections under 64 concurrent callers
+        client = RevolverHttpClientFactory.buildClient(RevolverHttpServiceConfig.builder()
+                .service("churn_" + protocol)
+                .type("http")
+                .connectionPoolSize(8)
+                .protocols(Collections.singletonList(protocol))
+                .build())
+                .newBuilder()
+                .eventListener(new EventListener() {
+                    @Override
+                    public void connectStart(final Call call, final InetSocketAddress inetSocketAddress, final Proxy proxy) {
+                        connects.incrementAndGet();
+                    }
+                })
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.out.println(String.format("%n[%s] connections opened: %d, pooled at end: %d", protocol, connects.get(),
+                client.connectionPool().connectionCount()));
+        server.shutdown();
+    }
+
+    @Benchmark
+    public int call() throws IOException {
+        try (Response response = client.newCall(new Request.Builder().url(url).build()).execute()) {
+            return response.body().bytes().length;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConnectionChurnBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.benchmark;
+
+import io.dropwizard.revolver.http.RevolverHttpClientFactory;
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import okhttp3.EventListener;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost added to every upstream call by the connection lifecycle listener: creating the per call listener and the events
+ * of a call on a pooled connection, compared to okhttp's no-op listener.
+ * Run the main method from the test classpath to execute.
+ * @author phaneesh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class ConnectionEventListenerBenchmark {
+
+    private EventListener.Factory factory;
+
+    @Setup
+    public void setup() throws Exception {
+        factory = RevolverHttpClientFactory.buildClient(RevolverHttpServiceConfig.builder()
+                .service("listener_benchmark")
+                .type("http")
+                .connectionPoolSize(8)
+                .build())
+                .eventListenerFactory();
+    }
+
+    @Benchmark
+    public EventListener instrumented() {
+        return call(factory.create(null));
+    }
+
+    @Benchmark
+    public EventListener baseline() {
+        return call(EventListener.NONE);
+    }
+
+    private static EventListener call(final EventListener listener) {
+        listener.callStart(null);
+        listener.connectionAcquired(null, null);
+        listener.requestHeadersStart(null);
+        listener.requestHeadersEnd(null, null);
+        listener.responseHeadersStart(null);
+        listener.responseHeadersEnd(null, null);
+        listener.responseBodyStart(null);
+        listener.responseBodyEnd(null, 0);
+        listener.connectionReleased(null, null);
+        listener.callEnd(null);
+        return listener;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConnectionEventListenerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
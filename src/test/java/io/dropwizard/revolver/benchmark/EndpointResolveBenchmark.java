@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dropwizard.revolver.discovery.RevolverServiceResolver;
+import io.dropwizard.revolver.discovery.balancer.BalancerType;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import io.dropwizard.revolver.discovery.model.EndpointSpecType;
+import io.dropwizard.revolver.discovery.model.SimpleEndpointSpec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of picking an endpoint for a call from the precomputed endpoint snapshot of a service.
+ * Run with -prof gc to check allocations per call. Run the main method from the test classpath to execute.
+ * @author phaneesh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class EndpointResolveBenchmark {
+
+    @Param({"RANDOM", "P2C_EWMA"})
+    private BalancerType balancer;
+
+    private RevolverServiceResolver resolver;
+
+    private SimpleEndpointSpec spec;
+
+    @Setup
+    public void setup() {
+        resolver = RevolverServiceResolver.builder().objectMapper(new ObjectMapper()).build();
+        spec = SimpleEndpointSpec.builder().type(EndpointSpecType.simple).host("localhost").port(9999).build();
+        spec.setBalancer(balancer);
+        resolver.register(spec);
+    }
+
+    @Benchmark
+    public Endpoint resolve() {
+        return resolver.resolve(spec);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EndpointResolveBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
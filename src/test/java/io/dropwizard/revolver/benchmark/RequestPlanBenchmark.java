@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.benchmark;
+
+import io.dropwizard.revolver.core.config.ClientConfig;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import io.dropwizard.revolver.http.RevolverHttpApiPlan;
+import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import io.dropwizard.revolver.http.model.RevolverHttpRequest;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import org.apache.commons.text.StrSubstitutor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building the upstream url, path & body the way the per method doX calls did earlier against the
+ * per api {@link RevolverHttpApiPlan}. Run the main method from the test classpath; it attaches the gc profiler
+ * so that gc.alloc.rate.norm shows the bytes allocated per request.
+ * @author phaneesh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RequestPlanBenchmark {
+
+    private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private static final byte[] BODY = "{\"id\":1234}".getBytes();
+
+    private RevolverHttpApiConfig apiConfig;
+
+    private RevolverHttpApiPlan plan;
+
+    private RevolverHttpRequest request;
+
+    private Endpoint endpoint;
+
+    @Setup
+    public void setup() {
+        apiConfig = RevolverHttpApiConfig.configBuilder()
+                .api("details")
+                .path("{version}/resource/{id}/details")
+                .method(RevolverHttpApiConfig.RequestMethod.POST)
+                .build();
+        final RevolverHttpServiceConfig serviceConfig = RevolverHttpServiceConfig.builder()
+                .service("test")
+                .type("http")
+                .api(apiConfig)
+                .build();
+        plan = new RevolverHttpApiPlan(serviceConfig, apiConfig, ClientConfig.builder().clientName("bench").build(), 1000);
+        request = RevolverHttpRequest.builder()
+                .service("test")
+                .api("details")
+                .method(RevolverHttpApiConfig.RequestMethod.POST)
+                .pathParams(Collections.singletonMap("id", "1234"))
+                .build();
+        endpoint = new Endpoint("localhost", 9999);
+    }
+
+    @Benchmark
+    public void perRequest(final Blackhole blackhole) {
+        final HttpUrl.Builder builder = new HttpUrl.Builder();
+        builder.scheme("http");
+        String uri = StrSubstitutor.replace(apiConfig.getPath(), request.getPathParams());
+        uri = uri.charAt(0) == '/' ? uri : "/" + uri;
+        blackhole.consume(builder.host(endpoint.getHost()).port(endpoint.getPort()).encodedPath(uri).build());
+        blackhole.consume(RequestBody.create(MediaType.parse(CONTENT_TYPE), BODY));
+    }
+
+    @Benchmark
+    public void compiledPlan(final Blackhole blackhole) {
+        blackhole.consume(plan.urlBuilder(endpoint).encodedPath(plan.resolvePath(request)).build());
+        blackhole.consume(RequestBody.create(plan.mediaType(CONTENT_TYPE), BODY));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RequestPlanBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
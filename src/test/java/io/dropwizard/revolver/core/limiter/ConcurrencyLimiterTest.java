@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.limiter;
+
+import io.dropwizard.revolver.core.config.hystrix.ConcurrencyLimitConfig;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author phaneesh
+ */
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void testRejectsAtLimit() {
+        val config = new ConcurrencyLimitConfig();
+        config.setAlgorithm(ConcurrencyLimitConfig.Algorithm.AIMD);
+        config.setInitialLimit(2);
+        val limiter = new ConcurrencyLimiter(config, 10, 1000);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(limiter.getRejected(), 1);
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(5), false);
+        assertEquals(limiter.getLimit(), 3);
+        assertEquals(limiter.getInFlight(), 1);
+    }
+
+    @Test
+    public void testAimdBacksOffOnDropsAndTimeouts() {
+        val config = new ConcurrencyLimitConfig();
+        config.setAlgorithm(ConcurrencyLimitConfig.Algorithm.AIMD);
+        config.setBackoffRatio(0.5);
+        val limiter = new ConcurrencyLimiter(config, 20, 100);
+        assertEquals(limiter.getLimit(), 20);
+        limiter.tryAcquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(5), true);
+        assertEquals(limiter.getLimit(), 10);
+        limiter.tryAcquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(150), false);
+        assertEquals(limiter.getLimit(), 5);
+    }
+
+    @Test
+    public void testGradientShrinksAsLatencyInflates() {
+        val config = new ConcurrencyLimitConfig();
+        config.setMinLimit(4);
+        val algorithm = new GradientLimit(config, 100, 50);
+        int limit = 50;
+        for (int i = 0; i < 200; i++) {
+            limit = algorithm.update(limit, TimeUnit.MILLISECONDS.toNanos(10), 50, false);
+        }
+        assertEquals(limit, 100);
+        for (int i = 0; i < 50; i++) {
+            limit = algorithm.update(limit, TimeUnit.MILLISECONDS.toNanos(100), limit, false);
+        }
+        assertTrue(limit < 20);
+        assertTrue(limit >= 4);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.metrics;
+
+import lombok.val;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author phaneesh
+ */
+public class LatencyRecorderTest {
+
+    @Test
+    public void testPercentilesOverSlidingWindow() {
+        val recorder = new LatencyRecorder(60000, 6, false);
+        for (int i = 1; i <= 1000; i++) {
+            recorder.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        val snapshot = recorder.snapshot(100000);
+        assertEquals(snapshot.getCount(), 1000);
+        assertEquals(snapshot.getP50(), 500, 5);
+        assertEquals(snapshot.getP99(), 990, 10);
+        assertEquals(snapshot.getMax(), 1000, 10);
+        assertTrue(snapshot.getThroughput() > 0);
+        //Still within the window 50s later, gone once the window has moved past its bucket
+        assertEquals(recorder.snapshot(150000).getCount(), 1000);
+        val expired = recorder.snapshot(170000);
+        assertEquals(expired.getCount(), 0);
+        assertEquals(expired.getTotal(), 1000);
+    }
+
+    @Test
+    public void testRotationKeepsCallsInTheirSlot() {
+        val recorder = new LatencyRecorder(60000, 6, false);
+        for (int i = 1; i <= 10; i++) {
+            recorder.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        //Boundary of the first slot passed; calls after it belong to the next slot
+        recorder.rotate(10005);
+        for (int i = 1; i <= 5; i++) {
+            recorder.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(recorder.snapshot(15000).getCount(), 15);
+        //First read after the first slot left the window
+        assertEquals(recorder.snapshot(65000).getCount(), 5);
+    }
+
+    @Test
+    public void testStatusClasses() {
+        val latency = LatencyRegistry.forApi("latency", "test");
+        latency.record(200, TimeUnit.MILLISECONDS.toNanos(10));
+        latency.record(204, TimeUnit.MILLISECONDS.toNanos(10));
+        latency.record(503, TimeUnit.MILLISECONDS.toNanos(10));
+        latency.record(0, TimeUnit.MILLISECONDS.toNanos(10));
+        val snapshot = LatencyRegistry.snapshot("latency", "test");
+        assertEquals(snapshot.keySet().toString(), "[2xx, 5xx, error]");
+        assertEquals(snapshot.get("2xx").getCount(), 2);
+        assertEquals(LatencyRegistry.snapshot("latency").get("latency").get("test").get("error").getCount(), 1);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.core.tracing;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.revolver.core.config.TracingConfig;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author phaneesh
+ */
+public class AsyncTraceCollectorTest {
+
+    private final MetricRegistry metrics = new MetricRegistry();
+
+    private final List<List<Trace>> batches = new ArrayList<>();
+
+    @Test
+    public void testDropOnFullAndBatching() throws Exception {
+        val config = new TracingConfig();
+        config.setBufferSize(16);
+        config.setBatchSize(5);
+        val collector = new AsyncTraceCollector(config, Collections.singletonList(traces -> batches.add(new ArrayList<>(traces))), metrics);
+        for (int i = 0; i < 20; i++) {
+            collector.publish(trace(UUID.randomUUID().toString(), false));
+        }
+        assertEquals(metrics.meter("revolver.tracing.published").getCount(), 16);
+        assertEquals(metrics.meter("revolver.tracing.dropped").getCount(), 4);
+        collector.stop();
+        assertEquals(batches.size(), 4);
+        assertEquals(batches.get(3).size(), 1);
+        assertEquals(metrics.meter("revolver.tracing.flushed").getCount(), 16);
+        collector.publish(trace(UUID.randomUUID().toString(), false));
+        assertEquals(metrics.meter("revolver.tracing.published").getCount(), 17);
+    }
+
+    @Test
+    public void testErrorBiasedSampling() throws Exception {
+        val config = new TracingConfig();
+        config.setSampleRate(0.0);
+        val collector = new AsyncTraceCollector(config, Collections.singletonList(traces -> batches.add(new ArrayList<>(traces))), metrics);
+        collector.publish(trace("txn", false));
+        collector.publish(trace("txn", true));
+        collector.stop();
+        assertEquals(metrics.meter("revolver.tracing.sampled_out").getCount(), 1);
+        assertEquals(batches.size(), 1);
+        assertTrue(batches.get(0).get(0).isError());
+    }
+
+    private static Trace trace(final String transactionId, final boolean error) {
+        return Trace.builder()
+                .transactionId(transactionId)
+                .requestId(UUID.randomUUID().toString())
+                .service("test")
+                .api("test")
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flipkart.ranger.finder.sharded.SimpleShardedServiceFinder;
+import com.flipkart.ranger.healthcheck.HealthcheckStatus;
+import com.flipkart.ranger.model.ServiceNode;
+import com.google.common.collect.ImmutableList;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import io.dropwizard.revolver.discovery.model.RangerEndpointSpec;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author phaneesh
+ */
+public class EndpointSnapshotTest {
+
+    private final Endpoint first = Endpoint.builder().host("first").port(80).build();
+    private final Endpoint second = Endpoint.builder().host("second").port(80).build();
+    private final Endpoint third = Endpoint.builder().host("third").port(80).build();
+
+    @Test
+    public void testDebouncesBurstOfChanges() {
+        val snapshot = new EndpointSnapshot(new RangerEndpointSpec("test", "test"));
+        assertTrue(snapshot.offer(ImmutableList.of(second, first), 0, 100, 500));
+        assertEquals(snapshot.getEndpoints(), ImmutableList.of(first, second));
+        assertFalse(snapshot.offer(ImmutableList.of(first, second), 10, 100, 500));
+        //Burst of updates
+        assertFalse(snapshot.offer(ImmutableList.of(first), 20, 100, 500));
+        assertFalse(snapshot.offer(ImmutableList.of(first, third), 50, 100, 500));
+        assertFalse(snapshot.offer(ImmutableList.of(first, third), 100, 100, 500));
+        assertEquals(snapshot.getEndpoints(), ImmutableList.of(first, second));
+        assertTrue(snapshot.offer(ImmutableList.of(third, first), 150, 100, 500));
+        assertEquals(snapshot.getEndpoints(), ImmutableList.of(first, third));
+        assertEquals(snapshot.getRebuilds(), 2);
+    }
+
+    @Test
+    public void testPublishesWithinMaxDelay() {
+        val snapshot = new EndpointSnapshot(new RangerEndpointSpec("test", "test"));
+        snapshot.publish(ImmutableList.of(first));
+        long now = 0;
+        //Discovery data keeps flapping faster than the debounce time
+        for (; now < 500; now += 50) {
+            assertFalse(snapshot.offer(now % 100 == 0 ? ImmutableList.of(second) : ImmutableList.of(third), now, 100, 500));
+        }
+        assertTrue(snapshot.offer(ImmutableList.of(second), now, 100, 500));
+        assertEquals(snapshot.getEndpoints(), ImmutableList.of(second));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEmptySnapshotIsFilledWithoutWaitingForRefresh() throws InterruptedException {
+        //Not registered, so no refresher runs
+        val resolver = new RevolverServiceResolver(ServiceResolverConfig.builder().emptySnapshotRefreshIntervalInMillis(200).build(),
+                new ObjectMapper(), null);
+        final List<ServiceNode<RevolverServiceResolver.ShardInfo>> nodes = new ArrayList<>();
+        final SimpleShardedServiceFinder<RevolverServiceResolver.ShardInfo> finder = mock(SimpleShardedServiceFinder.class);
+        when(finder.getAll(any())).thenAnswer(invocation -> new ArrayList<>(nodes));
+        resolver.getServiceFinders().put("starting", RevolverServiceResolver.ShardedServiceDiscoveryInfo.builder()
+                .environment("test")
+                .shardFinder(finder)
+                .build());
+        val spec = new RangerEndpointSpec("starting", "test");
+        //Service finder has not loaded the nodes yet
+        assertNull(resolver.resolve(spec));
+        assertNull(resolver.resolve(spec));
+        val node = new ServiceNode<RevolverServiceResolver.ShardInfo>("first", 80, new RevolverServiceResolver.ShardInfo("test"));
+        node.setHealthcheckStatus(HealthcheckStatus.healthy);
+        nodes.add(node);
+        //Looked up again only once the interval has passed
+        assertNull(resolver.resolve(spec));
+        verify(finder, times(2)).getAll(any());
+        Thread.sleep(250);
+        assertEquals(resolver.resolve(spec), first);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import io.dropwizard.revolver.discovery.balancer.BalancerType;
+import io.dropwizard.revolver.discovery.config.HealthCheckConfig;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import io.dropwizard.revolver.discovery.model.MultiHostEndpointSpec;
+import io.dropwizard.revolver.discovery.model.WeightedEndpoint;
+import lombok.val;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author phaneesh
+ */
+public class MultiHostEndpointSpecTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(9999);
+
+    private final RevolverServiceResolver resolver = RevolverServiceResolver.builder()
+            .resolverConfig(ServiceResolverConfig.builder()
+                    .snapshotRefreshIntervalInMillis(20)
+                    .snapshotDebounceInMillis(20)
+                    .build())
+            .objectMapper(new ObjectMapper())
+            .build();
+
+    @Test
+    public void testWeightedHosts() {
+        val spec = MultiHostEndpointSpec.builder()
+                .host(WeightedEndpoint.builder().host("localhost").port(9999).weight(30).build())
+                .host(WeightedEndpoint.builder().host("127.0.0.1").port(9999).weight(10).build())
+                .build();
+        spec.setBalancer(BalancerType.ROUND_ROBIN);
+        resolver.register(spec);
+        final Map<String, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 400; i++) {
+            picks.merge(resolver.resolve(spec).getHost(), 1, Integer::sum);
+        }
+        assertEquals(picks.get("localhost").intValue(), 300);
+        assertEquals(picks.get("127.0.0.1").intValue(), 100);
+    }
+
+    @Test
+    public void testFailedHealthCheckTakesHostOutOfRotation() throws InterruptedException {
+        stubFor(get(urlEqualTo("/health")).willReturn(aResponse().withStatus(200)));
+        val healthCheck = new HealthCheckConfig();
+        healthCheck.setPath("/health");
+        healthCheck.setIntervalInMillis(100);
+        healthCheck.setUnhealthyThreshold(1);
+        val spec = MultiHostEndpointSpec.builder()
+                .host(WeightedEndpoint.builder().host("localhost").port(9999).build())
+                //Nothing listens here
+                .host(WeightedEndpoint.builder().host("localhost").port(1).build())
+                .healthCheck(healthCheck)
+                .build();
+        resolver.register(spec);
+        final Endpoint healthy = Endpoint.builder().host("localhost").port(9999).build();
+        boolean settled = false;
+        boolean checked = false;
+        //Checks are async; wait till the dead host is out of rotation and the live host's check has been answered
+        for (int i = 0; i < 100 && !(settled && checked); i++) {
+            Thread.sleep(50);
+            settled = true;
+            for (int j = 0; j < 20; j++) {
+                settled &= healthy.equals(resolver.resolve(spec));
+            }
+            checked = !findAll(getRequestedFor(urlEqualTo("/health"))).isEmpty();
+        }
+        assertTrue(settled);
+        assertTrue(checked);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flipkart.ranger.finder.sharded.SimpleShardedServiceFinder;
+import com.flipkart.ranger.healthcheck.HealthcheckStatus;
+import com.flipkart.ranger.model.ServiceNode;
+import io.dropwizard.revolver.discovery.config.ZoneAffinityConfig;
+import io.dropwizard.revolver.discovery.model.RangerEndpointSpec;
+import lombok.val;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author phaneesh
+ */
+public class ZoneAffinityTest {
+
+    private final List<ServiceNode<RevolverServiceResolver.ShardInfo>> nodes = new ArrayList<>();
+
+    private RevolverServiceResolver resolver;
+
+    private RangerEndpointSpec spec;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        resolver = new RevolverServiceResolver(ServiceResolverConfig.builder()
+                .zone("zone-a")
+                .snapshotDebounceInMillis(1)
+                .build(), new ObjectMapper(), null);
+        final SimpleShardedServiceFinder<RevolverServiceResolver.ShardInfo> finder = mock(SimpleShardedServiceFinder.class);
+        when(finder.getAll(any())).thenAnswer(invocation -> new ArrayList<>(nodes));
+        resolver.getServiceFinders().put("zoned", RevolverServiceResolver.ShardedServiceDiscoveryInfo.builder()
+                .environment("test")
+                .shardFinder(finder)
+                .build());
+        nodes.add(node("a1", "zone-a"));
+        nodes.add(node("a2", "zone-a"));
+        nodes.add(node("b1", "zone-b"));
+        val zoneAffinity = new ZoneAffinityConfig();
+        zoneAffinity.setEnabled(true);
+        zoneAffinity.setMinLocalHealthyPercent(70);
+        spec = new RangerEndpointSpec("zoned", "test");
+        spec.setZoneAffinity(zoneAffinity);
+    }
+
+    @Test
+    public void testPrefersLocalZone() {
+        assertEquals(resolved(), hosts("a1", "a2"));
+        val traffic = resolver.zoneTraffic(spec);
+        assertEquals(traffic.getLocalZone(), "zone-a");
+        assertFalse(traffic.isFailover());
+        assertEquals(traffic.getLocalShare(), 1.0, 0.0);
+        assertEquals(traffic.getRequests().get("zone-a").longValue(), 100L);
+    }
+
+    @Test
+    public void testFailsOverBelowLocalCapacity() throws InterruptedException {
+        assertEquals(resolved(), hosts("a1", "a2"));
+        nodes.get(1).setHealthcheckStatus(HealthcheckStatus.unhealthy);
+        //Published once the change has outlived the debounce time
+        resolver.refreshSnapshots();
+        Thread.sleep(5);
+        resolver.refreshSnapshots();
+        assertEquals(resolved(), hosts("a1", "b1"));
+        val traffic = resolver.zoneTraffic(spec);
+        assertTrue(traffic.isFailover());
+        assertTrue(traffic.getRequests().get("zone-b") > 0);
+        assertTrue(traffic.getLocalShare() < 1.0);
+    }
+
+    @Test
+    public void testWithoutAffinity() {
+        spec.setZoneAffinity(null);
+        assertEquals(resolved(), hosts("a1", "a2", "b1"));
+        assertNull(resolver.zoneTraffic(spec));
+    }
+
+    private Set<String> resolved() {
+        final Set<String> hosts = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            hosts.add(resolver.resolve(spec).getHost());
+        }
+        return hosts;
+    }
+
+    private static Set<String> hosts(final String... hosts) {
+        final Set<String> result = new HashSet<>();
+        for (String host : hosts) {
+            result.add(host);
+        }
+        return result;
+    }
+
+    private static ServiceNode<RevolverServiceResolver.ShardInfo> node(final String host, final String zone) {
+        final ServiceNode<RevolverServiceResolver.ShardInfo> node = new ServiceNode<>(host, 80,
+                RevolverServiceResolver.ShardInfo.builder().environment("test").zone(zone).build());
+        node.setHealthcheckStatus(HealthcheckStatus.healthy);
+        return node;
+    }
+}
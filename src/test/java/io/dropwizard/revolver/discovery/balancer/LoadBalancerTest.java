@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery.balancer;
+
+import com.google.common.collect.ImmutableList;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author phaneesh
+ */
+public class LoadBalancerTest {
+
+    private final Endpoint fast = Endpoint.builder().host("fast").port(80).build();
+    private final Endpoint slow = Endpoint.builder().host("slow").port(80).build();
+    private final List<Endpoint> endpoints = ImmutableList.of(fast, slow);
+
+    @Test
+    public void testPeakEwmaFavorsFastEndpoint() {
+        val balancer = LoadBalancer.create(BalancerType.P2C_EWMA);
+        balancer.onStart(fast);
+        balancer.onComplete(fast, TimeUnit.MILLISECONDS.toNanos(5), false);
+        balancer.onStart(slow);
+        balancer.onComplete(slow, TimeUnit.MILLISECONDS.toNanos(200), false);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(balancer.choose(endpoints), fast);
+        }
+    }
+
+    @Test
+    public void testPeakEwmaAvoidsFailingEndpoint() {
+        val balancer = LoadBalancer.create(BalancerType.P2C_EWMA);
+        balancer.onStart(fast);
+        balancer.onComplete(fast, TimeUnit.MILLISECONDS.toNanos(5), true);
+        balancer.onStart(slow);
+        balancer.onComplete(slow, TimeUnit.MILLISECONDS.toNanos(200), false);
+        assertEquals(balancer.choose(endpoints), slow);
+    }
+
+    @Test
+    public void testLeastOutstanding() {
+        val balancer = LoadBalancer.create(BalancerType.LEAST_OUTSTANDING);
+        balancer.onStart(slow);
+        balancer.onStart(slow);
+        balancer.onStart(fast);
+        assertEquals(balancer.choose(endpoints), fast);
+        balancer.onStart(fast);
+        balancer.onStart(fast);
+        assertEquals(balancer.choose(endpoints), slow);
+    }
+
+    @Test
+    public void testRoundRobin() {
+        val balancer = LoadBalancer.create(BalancerType.ROUND_ROBIN);
+        val first = balancer.choose(endpoints);
+        val second = balancer.choose(endpoints);
+        assertNotEquals(first, second);
+        assertEquals(balancer.choose(endpoints), first);
+    }
+
+    @Test
+    public void testRetainKeepsEndpointsWithCallsInFlight() {
+        val balancer = LoadBalancer.create(BalancerType.LEAST_OUTSTANDING);
+        balancer.onStart(slow);
+        balancer.onStart(fast);
+        balancer.onComplete(fast, TimeUnit.MILLISECONDS.toNanos(5), false);
+        //Neither endpoint is discovered any more; the call to slow is still running
+        balancer.retain(ImmutableList.of());
+        assertEquals(balancer.stats(slow).getOutstanding(), 1);
+        balancer.onComplete(slow, TimeUnit.MILLISECONDS.toNanos(200), false);
+        assertEquals(balancer.stats(slow).getOutstanding(), 0);
+        assertEquals(balancer.stats(fast).getEwmaNanos(), 0.0, 0.0);
+    }
+
+    @Test
+    public void testNoEndpoints() {
+        assertNull(LoadBalancer.create(null).choose(ImmutableList.of()));
+        assertEquals(LoadBalancer.create(BalancerType.RANDOM).choose(ImmutableList.of(fast)), fast);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.discovery.balancer;
+
+import com.google.common.collect.ImmutableList;
+import io.dropwizard.revolver.discovery.config.OutlierDetectionConfig;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import lombok.val;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author phaneesh
+ */
+public class OutlierDetectorTest {
+
+    private final Endpoint first = Endpoint.builder().host("first").port(80).build();
+    private final Endpoint second = Endpoint.builder().host("second").port(80).build();
+    private final Endpoint third = Endpoint.builder().host("third").port(80).build();
+    private final List<Endpoint> endpoints = ImmutableList.of(first, second, third);
+    private final AtomicLong now = new AtomicLong(1000000);
+
+    private OutlierDetectionConfig config;
+    private LoadBalancer balancer;
+
+    @Before
+    public void setup() {
+        config = new OutlierDetectionConfig();
+        config.setEnabled(true);
+        config.setMaxEjectionPercent(40);
+        balancer = LoadBalancer.create(BalancerType.RANDOM);
+    }
+
+    @Test
+    public void testEjectsOnConsecutiveErrorsWithGrowingEjectionTime() {
+        val detector = new OutlierDetector(config, balancer, now::get);
+        detector.retain(endpoints);
+        for (int i = 0; i < 4; i++) {
+            detector.record(first, OutlierDetector.Outcome.ERROR);
+        }
+        detector.record(first, OutlierDetector.Outcome.SUCCESS);
+        detector.record(first, OutlierDetector.Outcome.ERROR);
+        assertEquals(detector.filter(endpoints).size(), 3);
+        for (int i = 0; i < 4; i++) {
+            detector.record(first, OutlierDetector.Outcome.ERROR);
+        }
+        assertEquals(detector.filter(endpoints), ImmutableList.of(second, third));
+        assertTrue(detector.status().get(0).isEjected());
+        now.addAndGet(config.getBaseEjectionTimeInMillis());
+        assertEquals(detector.filter(endpoints).size(), 3);
+        for (int i = 0; i < 5; i++) {
+            detector.record(first, OutlierDetector.Outcome.ERROR);
+        }
+        assertEquals(detector.status().get(0).getEjectedUntil(), now.get() + 2 * config.getBaseEjectionTimeInMillis());
+    }
+
+    @Test
+    public void testEjectsOnConnectFailures() {
+        val detector = new OutlierDetector(config, balancer, now::get);
+        detector.retain(endpoints);
+        for (int i = 0; i < config.getConsecutiveConnectFailures(); i++) {
+            detector.record(second, OutlierDetector.Outcome.CONNECT_FAILURE);
+        }
+        assertEquals(detector.filter(endpoints), ImmutableList.of(first, third));
+    }
+
+    @Test
+    public void testMaxEjectionPercent() {
+        val detector = new OutlierDetector(config, balancer, now::get);
+        detector.retain(endpoints);
+        for (Endpoint endpoint : endpoints) {
+            for (int i = 0; i < config.getConsecutiveErrors(); i++) {
+                detector.record(endpoint, OutlierDetector.Outcome.ERROR);
+            }
+        }
+        assertEquals(detector.filter(endpoints), ImmutableList.of(second, third));
+    }
+
+    @Test
+    public void testMaxEjectionPercentCountsDistinctEndpoints() {
+        val detector = new OutlierDetector(config, balancer, now::get);
+        val weighted = ImmutableList.of(first, first, first, second, third);
+        detector.retain(weighted);
+        for (Endpoint endpoint : endpoints) {
+            for (int i = 0; i < config.getConsecutiveErrors(); i++) {
+                detector.record(endpoint, OutlierDetector.Outcome.ERROR);
+            }
+        }
+        assertEquals(detector.filter(weighted), ImmutableList.of(second, third));
+    }
+
+    @Test
+    public void testRetainForgetsRemovedEndpoints() {
+        config.setMaxEjectionPercent(50);
+        val detector = new OutlierDetector(config, balancer, now::get);
+        detector.retain(endpoints);
+        for (int i = 0; i < config.getConsecutiveErrors(); i++) {
+            detector.record(first, OutlierDetector.Outcome.ERROR);
+        }
+        detector.record(second, OutlierDetector.Outcome.SUCCESS);
+        assertEquals(detector.status().size(), 2);
+        detector.retain(ImmutableList.of(second, third));
+        assertEquals(detector.status().size(), 1);
+        assertEquals(detector.status().get(0).getHost(), "second");
+        //The ejection of the removed endpoint no longer counts against the cap
+        for (int i = 0; i < config.getConsecutiveErrors(); i++) {
+            detector.record(second, OutlierDetector.Outcome.ERROR);
+        }
+        assertEquals(detector.filter(ImmutableList.of(second, third)), ImmutableList.of(third));
+    }
+
+    @Test
+    public void testEjectsLatencyOutlier() {
+        val detector = new OutlierDetector(config, balancer, now::get);
+        for (Endpoint endpoint : endpoints) {
+            final long latency = TimeUnit.MILLISECONDS.toNanos(endpoint == third ? 500 : 20);
+            for (int i = 0; i < config.getMinimumRequests(); i++) {
+                balancer.onStart(endpoint);
+                balancer.onComplete(endpoint, latency, false);
+                detector.record(endpoint, OutlierDetector.Outcome.SUCCESS);
+            }
+        }
+        assertEquals(detector.filter(endpoints).size(), 3);
+        now.addAndGet(config.getIntervalInMillis());
+        assertEquals(detector.filter(endpoints), ImmutableList.of(first, second));
+    }
+
+    @Test
+    public void testDisabled() {
+        config.setEnabled(false);
+        val detector = new OutlierDetector(config, balancer, now::get);
+        for (int i = 0; i < 10; i++) {
+            detector.record(first, OutlierDetector.Outcome.ERROR);
+        }
+        assertEquals(detector.filter(endpoints).size(), 3);
+        assertTrue(detector.status().isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import lombok.val;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author phaneesh
+ */
+public class CallTimeoutInterceptorTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(9999);
+
+    private final OkHttpClient client = new OkHttpClient.Builder()
+            .readTimeout(5, TimeUnit.SECONDS)
+            .addInterceptor(new CallTimeoutInterceptor(Executors.newSingleThreadScheduledExecutor()))
+            .build();
+
+    @Test
+    public void testCallTimeoutOverridesClientTimeout() throws Exception {
+        stubFor(get(urlEqualTo("/v1/slow")).willReturn(aResponse().withStatus(200).withBody("slow").withFixedDelay(1000)));
+        val request = new Request.Builder().url("http://localhost:9999/v1/slow");
+        CallTimeoutInterceptor.timeout(request, 100);
+        final long start = System.currentTimeMillis();
+        try {
+            client.newCall(request.build()).execute().close();
+            fail("Call should have timed out");
+        } catch (SocketTimeoutException e) {
+            assertTrue(System.currentTimeMillis() - start < 1000);
+        }
+        try (val response = client.newCall(new Request.Builder().url("http://localhost:9999/v1/slow").build()).execute()) {
+            assertEquals(response.body().string(), "slow");
+        }
+    }
+
+    @Test
+    public void testDeadlineCoversTheWholeCall() throws Exception {
+        try (val server = new MockWebServer()) {
+            //Every chunk arrives well within the read timeout, the whole body does not within the deadline
+            server.enqueue(new MockResponse().setBody("0123456789").throttleBody(1, 100, TimeUnit.MILLISECONDS));
+            server.start();
+            val request = new Request.Builder().url(server.url("/v1/slow"));
+            CallTimeoutInterceptor.timeout(request, 300);
+            final long start = System.currentTimeMillis();
+            try (val response = client.newCall(request.build()).execute()) {
+                response.body().string();
+                fail("Call should have run past its deadline");
+            } catch (SocketTimeoutException e) {
+                assertTrue(System.currentTimeMillis() - start < 900);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import io.dropwizard.revolver.discovery.balancer.BalancerType;
+import io.dropwizard.revolver.discovery.balancer.LoadBalancer;
+import io.dropwizard.revolver.discovery.balancer.OutlierDetector;
+import io.dropwizard.revolver.discovery.config.OutlierDetectionConfig;
+import io.dropwizard.revolver.discovery.model.Endpoint;
+import lombok.val;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author phaneesh
+ */
+public class HedgedCallTest {
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(9999);
+
+    private final OkHttpClient client = new OkHttpClient();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @Test
+    public void testHedgeWinsOverSlowPrimary() throws Exception {
+        stubFor(get(urlEqualTo("/v1/slow")).willReturn(aResponse().withStatus(200).withBody("slow").withFixedDelay(2000)));
+        stubFor(get(urlEqualTo("/v1/fast")).willReturn(aResponse().withStatus(200).withBody("fast")));
+        val hedgedCall = HedgedCall.execute(client, scheduler, request("/v1/slow"), 50, () -> request("/v1/fast"));
+        try (val response = hedgedCall.response().get()) {
+            assertEquals(response.body().string(), "fast");
+        }
+        assertTrue(hedgedCall.isHedgeWon());
+    }
+
+    @Test
+    public void testHedgeLoserDoesNotRaiseCost() throws Exception {
+        stubFor(get(urlEqualTo("/v1/slow")).willReturn(aResponse().withStatus(200).withBody("slow").withFixedDelay(2000)));
+        stubFor(get(urlEqualTo("/v1/fast")).willReturn(aResponse().withStatus(200).withBody("fast")));
+        val balancer = LoadBalancer.create(BalancerType.P2C_EWMA);
+        val outlierDetection = new OutlierDetectionConfig();
+        outlierDetection.setEnabled(true);
+        val outlierDetector = new OutlierDetector(outlierDetection, balancer);
+        val feedbackClient = client.newBuilder()
+                .addInterceptor(new BalancerFeedbackInterceptor(balancer, outlierDetector))
+                .build();
+        //Both reach the same server but are different endpoints to the balancer
+        val hedgedCall = HedgedCall.execute(feedbackClient, scheduler, request("/v1/slow"), 50,
+                () -> new Request.Builder().url("http://127.0.0.1:9999/v1/fast").build());
+        try (val response = hedgedCall.response().get()) {
+            assertEquals(response.body().string(), "fast");
+        }
+        assertTrue(hedgedCall.isHedgeWon());
+        val loser = balancer.stats(Endpoint.builder().host("localhost").port(9999).build());
+        for (int i = 0; i < 100 && loser.getOutstanding() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(loser.getOutstanding(), 0);
+        assertEquals(loser.getEwmaNanos(), 0.0, 0.0);
+        assertEquals(outlierDetector.status().size(), 1);
+        assertEquals(outlierDetector.status().get(0).getHost(), "127.0.0.1");
+    }
+
+    @Test
+    public void testNoHedgeForFastPrimary() throws Exception {
+        stubFor(get(urlEqualTo("/v1/fast")).willReturn(aResponse().withStatus(200).withBody("fast")));
+        val hedges = new AtomicInteger();
+        val hedgedCall = HedgedCall.execute(client, scheduler, request("/v1/fast"), 1000, () -> {
+            hedges.incrementAndGet();
+            return request("/v1/fast");
+        });
+        try (val response = hedgedCall.response().get()) {
+            assertEquals(response.body().string(), "fast");
+        }
+        assertFalse(hedgedCall.isHedgeWon());
+        assertEquals(hedges.get(), 0);
+    }
+
+    @Test
+    public void testCancelCancelsPrimaryAndHedge() throws Exception {
+        stubFor(get(urlEqualTo("/v1/slow")).willReturn(aResponse().withStatus(200).withBody("slow").withFixedDelay(2000)));
+        val hedges = new AtomicInteger();
+        val hedgedCall = HedgedCall.execute(client, scheduler, request("/v1/slow"), 50, () -> {
+            hedges.incrementAndGet();
+            return request("/v1/slow");
+        });
+        for (int i = 0; i < 100 && hedges.get() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(hedges.get(), 1);
+        assertTrue(hedgedCall.response().cancel(true));
+        try {
+            hedgedCall.response().get();
+            fail("Cancelled call completed");
+        } catch (CancellationException e) {
+            //Expected
+        }
+        //Both calls were cancelled; neither waits out the slow response
+        for (int i = 0; i < 100 && client.dispatcher().runningCallsCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(client.dispatcher().runningCallsCount(), 0);
+    }
+
+    @Test
+    public void testBudgetCapsHedges() {
+        val budget = new RequestBudget(5.0, 10);
+        int initial = 0;
+        while (budget.tryWithdraw()) {
+            initial++;
+        }
+        assertEquals(initial, 10);
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+        int hedges = 0;
+        while (budget.tryWithdraw()) {
+            hedges++;
+        }
+        assertEquals(hedges, 5);
+    }
+
+    private static Request request(final String path) {
+        return new Request.Builder().url("http://localhost:9999" + path).build();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http;
+
+import com.codahale.metrics.Meter;
+import io.dropwizard.revolver.core.RevolverExecutionException;
+import io.dropwizard.revolver.http.model.RevolverHttpResponse;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author phaneesh
+ */
+public class RequestCoalescerTest {
+
+    private final Meter leaders = new Meter();
+
+    private final Meter followers = new Meter();
+
+    private final RequestCoalescer coalescer = new RequestCoalescer(leaders, followers);
+
+    @Test
+    public void testFollowerSharesLeaderResponse() throws Exception {
+        val release = new CountDownLatch(1);
+        val follower = follow("key", 1000, release);
+        val response = coalescer.execute("key", 1000, () -> {
+            release.countDown();
+            awaitFollower();
+            return RevolverHttpResponse.builder().statusCode(200).build();
+        });
+        assertEquals(response.getStatusCode(), 200);
+        assertEquals(follower.get(1, TimeUnit.SECONDS).getStatusCode(), 200);
+        assertNotSame(follower.get(), response);
+    }
+
+    @Test
+    public void testFollowerIsReleasedWhenLeaderThrowsError() throws Exception {
+        val release = new CountDownLatch(1);
+        val follower = follow("key", 5000, release);
+        try {
+            coalescer.execute("key", 1000, () -> {
+                release.countDown();
+                awaitFollower();
+                throw new AssertionError("leader failed");
+            });
+            fail("Leader should fail");
+        } catch (AssertionError e) {
+            assertEquals(e.getMessage(), "leader failed");
+        }
+        try {
+            follower.get(1, TimeUnit.SECONDS);
+            fail("Follower should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RevolverExecutionException);
+        }
+    }
+
+    @Test
+    public void testFollowerWaitsNoLongerThanItsDeadline() throws Exception {
+        val release = new CountDownLatch(1);
+        val follower = follow("key", 50, release);
+        coalescer.execute("key", 1000, () -> {
+            release.countDown();
+            awaitFollower();
+            try {
+                follower.get(1, TimeUnit.SECONDS);
+                fail("Follower should time out");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof TimeoutException);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return RevolverHttpResponse.builder().statusCode(200).build();
+        });
+    }
+
+    /**
+     * Joins the flight of the key once the leader has started it
+     */
+    private CompletableFuture<RevolverHttpResponse> follow(final String key, final long timeoutInMillis, final CountDownLatch leading) {
+        val result = new CompletableFuture<RevolverHttpResponse>();
+        new Thread(() -> {
+            try {
+                leading.await();
+                result.complete(coalescer.execute(key, timeoutInMillis, () -> {
+                    throw new IllegalStateException("Follower should not call upstream");
+                }));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }).start();
+        return result;
+    }
+
+    private void awaitFollower() {
+        for (int i = 0; i < 100 && followers.getCount() == 0; i++) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
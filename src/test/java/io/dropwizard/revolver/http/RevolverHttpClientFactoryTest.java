@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package io.dropwizard.revolver.http;
+
+import io.dropwizard.revolver.http.config.RevolverHttpServiceConfig;
+import lombok.val;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author phaneesh
+ */
+public class RevolverHttpClientFactoryTest {
+
+    @Test
+    public void testPriorKnowledgeH2() throws Exception {
+        val server = new MockWebServer();
+        server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        server.enqueue(new MockResponse().setBody("{}"));
+        server.enqueue(new MockResponse().setBody("{}"));
+        server.start();
+        try {
+            val client = RevolverHttpClientFactory.buildClient(RevolverHttpServiceConfig.builder()
+                    .service("h2c")
+                    .type("http")
+                    .connectionPoolSize(1)
+                    .protocols(Collections.singletonList("h2_prior_knowledge"))
+                    .build());
+            for (int i = 0; i < 2; i++) {
+                try (val response = client.newCall(new Request.Builder().url(server.url("/v1/test")).build()).execute()) {
+                    assertEquals(response.protocol(), Protocol.H2_PRIOR_KNOWLEDGE);
+                    assertEquals(response.body().string(), "{}");
+                }
+            }
+            server.takeRequest();
+            //Second call is a new stream on the same connection
+            assertEquals(server.takeRequest().getSequenceNumber(), 1);
+        } finally {
+            server.shutdown();
+        }
+    }
+}
@@ -18,15 +18,27 @@
 package io.dropwizard.revolver.http;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import io.dropwizard.revolver.BaseRevolverTest;
 import io.dropwizard.revolver.RevolverBundle;
+import io.dropwizard.revolver.core.RevolverExecutionException;
+import io.dropwizard.revolver.core.metrics.ConnectionMetrics;
 import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
 import io.dropwizard.revolver.http.model.RevolverHttpRequest;
+import io.dropwizard.revolver.http.model.RevolverHttpResponse;
 import lombok.val;
 import org.junit.Rule;
 import org.junit.Test;
 
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
 import static org.junit.Assert.*;
@@ -54,6 +66,28 @@ public class RevolverSimpleHttpCommandTest extends BaseRevolverTest {
                 .build();
         val response = httpCommand.execute(request);
         assertEquals(response.getStatusCode(), 200);
+        assertEquals(request.getTrace().getAttributes().get(RevolverHttpCommand.ENDPOINT_TRACE_ATTRIBUTE), "localhost:9999");
+    }
+
+    @Test
+    public void testConnectionMetrics() throws TimeoutException {
+        stubFor(get(urlEqualTo("/v1/test"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")));
+        val before = ConnectionMetrics.snapshot("test").get("test");
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        val request = RevolverHttpRequest.builder()
+                .service("test")
+                .api("test")
+                .method(RevolverHttpApiConfig.RequestMethod.GET)
+                .path("v1/test")
+                .build();
+        assertEquals(httpCommand.execute(request).getStatusCode(), 200);
+        val after = ConnectionMetrics.snapshot("test").get("test");
+        assertEquals(after.getAcquired() - (before == null ? 0 : before.getAcquired()), 1);
+        assertTrue(after.getPhases().get("ttfb").getTotal() > 0);
+        assertTrue(after.getOpened() > 0);
     }
 
     @Test
@@ -516,4 +550,434 @@ public class RevolverSimpleHttpCommandTest extends BaseRevolverTest {
         assertEquals(response.getStatusCode(), 404);
     }
 
+    @Test
+    public void testRetryOnRetryableStatus() throws TimeoutException {
+        stubFor(get(urlEqualTo("/v1/test/retry")).inScenario("retry")
+                .whenScenarioStateIs(STARTED)
+                .willReturn(aResponse()
+                        .withStatus(503))
+                .willSetStateTo("recovered"));
+        stubFor(get(urlEqualTo("/v1/test/retry")).inScenario("retry")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")));
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        val retryConfig = httpCommand.getApiConfigurations().get("test_multi").getRetry();
+        retryConfig.setEnabled(true);
+        try {
+            val request = RevolverHttpRequest.builder()
+                    .service("test")
+                    .api("test_multi")
+                    .method(RevolverHttpApiConfig.RequestMethod.GET)
+                    .path("v1/test/retry")
+                    .build();
+            val response = httpCommand.execute(request);
+            assertEquals(response.getStatusCode(), 200);
+            verify(2, getRequestedFor(urlEqualTo("/v1/test/retry")));
+        } finally {
+            retryConfig.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void testNonBlockingRetryOnRetryableStatus() throws Exception {
+        stubFor(get(urlEqualTo("/v1/test/retry")).inScenario("retry")
+                .whenScenarioStateIs(STARTED)
+                .willReturn(aResponse()
+                        .withStatus(503))
+                .willSetStateTo("recovered"));
+        stubFor(get(urlEqualTo("/v1/test/retry")).inScenario("retry")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")));
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        val apiConfig = httpCommand.getApiConfigurations().get("test_multi");
+        apiConfig.getRetry().setEnabled(true);
+        apiConfig.setNonBlocking(true);
+        try {
+            val request = RevolverHttpRequest.builder()
+                    .service("test")
+                    .api("test_multi")
+                    .method(RevolverHttpApiConfig.RequestMethod.GET)
+                    .path("v1/test/retry")
+                    .build();
+            val response = httpCommand.executeAsync(request).get();
+            assertEquals(response.getStatusCode(), 200);
+            verify(2, getRequestedFor(urlEqualTo("/v1/test/retry")));
+        } finally {
+            apiConfig.getRetry().setEnabled(false);
+            apiConfig.setNonBlocking(false);
+        }
+    }
+
+    @Test
+    public void testCoalescedConcurrentGets() throws Exception {
+        stubFor(get(urlPathEqualTo("/v1/test/coalesced"))
+                .withQueryParam("a", equalTo("1"))
+                .withQueryParam("b", equalTo("2"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(300)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{}")));
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        val coalescingConfig = httpCommand.getApiConfigurations().get("test_multi").getCoalescing();
+        coalescingConfig.setEnabled(true);
+        try {
+            final List<CompletableFuture<RevolverHttpResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                final MultivaluedMap<String, String> queryParams = new MultivaluedHashMap<>();
+                queryParams.add(i % 2 == 0 ? "b" : "a", i % 2 == 0 ? "2" : "1");
+                queryParams.add(i % 2 == 0 ? "a" : "b", i % 2 == 0 ? "1" : "2");
+                responses.add(httpCommand.executeAsync(RevolverHttpRequest.builder()
+                        .service("test")
+                        .api("test_multi")
+                        .method(RevolverHttpApiConfig.RequestMethod.GET)
+                        .path("v1/test/coalesced")
+                        .queryParams(queryParams)
+                        .build()));
+            }
+            for (CompletableFuture<RevolverHttpResponse> response : responses) {
+                assertEquals(response.get().getStatusCode(), 200);
+            }
+            assertNotSame(responses.get(0).get(), responses.get(1).get());
+            verify(1, getRequestedFor(urlPathEqualTo("/v1/test/coalesced")));
+        } finally {
+            coalescingConfig.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void testCachedGet() throws TimeoutException {
+        stubFor(get(urlEqualTo("/v1/test/cached"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Cache-Control", "public, max-age=60")
+                        .withBody("{}")));
+        stubFor(get(urlEqualTo("/v1/test"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Cache-Control", "no-store")
+                        .withBody("{}")));
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        val cacheConfig = httpCommand.getApiConfigurations().get("test_multi").getCache();
+        val uncachedConfig = httpCommand.getApiConfigurations().get("test").getCache();
+        cacheConfig.setEnabled(true);
+        uncachedConfig.setEnabled(true);
+        try {
+            assertEquals(httpCommand.execute(cacheRequest("test_multi", "v1/test/cached")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test", "v1/test")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test_multi", "v1/test/cached")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test_multi", "v1/test/cached")).getStatusCode(), 200);
+            verify(1, getRequestedFor(urlEqualTo("/v1/test/cached")));
+            assertEquals(httpCommand.getResponseCache().invalidate("test", null), 0);
+            assertEquals(httpCommand.getResponseCache().invalidate("test_multi", "v1/test/cached"), 1);
+            assertEquals(httpCommand.execute(cacheRequest("test_multi", "v1/test/cached")).getStatusCode(), 200);
+            verify(2, getRequestedFor(urlEqualTo("/v1/test/cached")));
+        } finally {
+            cacheConfig.setEnabled(false);
+            uncachedConfig.setEnabled(false);
+            httpCommand.getResponseCache().invalidate(null, null);
+        }
+    }
+
+    @Test
+    public void testCacheRevalidation() throws TimeoutException {
+        stubFor(get(urlEqualTo("/v1/test/etag"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Cache-Control", "no-cache")
+                        .withHeader("ETag", "\"v1\"")
+                        .withBody("{\"version\": 1}")));
+        stubFor(get(urlEqualTo("/v1/test/etag")).atPriority(1)
+                .withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse()
+                        .withStatus(304)
+                        .withHeader("Cache-Control", "no-cache")
+                        .withHeader("ETag", "\"v1\"")));
+        stubFor(get(urlEqualTo("/v1/test"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")));
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        val cacheConfig = httpCommand.getApiConfigurations().get("test_multi").getCache();
+        cacheConfig.setEnabled(true);
+        try {
+            assertEquals(new String(httpCommand.execute(cacheRequest("test_multi", "v1/test/etag")).getBody()), "{\"version\": 1}");
+            assertEquals(httpCommand.execute(cacheRequest("test", "v1/test")).getStatusCode(), 200);
+            val revalidated = httpCommand.execute(cacheRequest("test_multi", "v1/test/etag"));
+            assertEquals(revalidated.getStatusCode(), 200);
+            assertEquals(new String(revalidated.getBody()), "{\"version\": 1}");
+            verify(2, getRequestedFor(urlEqualTo("/v1/test/etag")));
+            verify(1, getRequestedFor(urlEqualTo("/v1/test/etag")).withHeader("If-None-Match", equalTo("\"v1\"")));
+        } finally {
+            cacheConfig.setEnabled(false);
+            httpCommand.getResponseCache().invalidate(null, null);
+        }
+    }
+
+    @Test
+    public void testStaleWhileRevalidateRefreshesInBackground() throws Exception {
+        stubFor(get(urlEqualTo("/v1/test/etag"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Cache-Control", "no-cache")
+                        .withHeader("ETag", "\"v1\"")
+                        .withBody("{\"version\": 1}")));
+        stubFor(get(urlEqualTo("/v1/test/etag")).atPriority(1)
+                .withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse()
+                        .withStatus(304)
+                        .withHeader("Cache-Control", "no-cache")
+                        .withHeader("ETag", "\"v1\"")));
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        val cacheConfig = httpCommand.getApiConfigurations().get("test_multi").getCache();
+        cacheConfig.setEnabled(true);
+        cacheConfig.setStaleWhileRevalidateInSeconds(30);
+        try {
+            assertEquals(httpCommand.execute(cacheRequest("test_multi", "v1/test/etag")).getStatusCode(), 200);
+            val request = cacheRequest("test_multi", "v1/test/etag");
+            request.setStreamResponse(true);
+            val stale = httpCommand.execute(request);
+            assertEquals(new String(stale.getBody()), "{\"version\": 1}");
+            assertNotNull(stale.getHeaders().getFirst(RevolversHttpHeaders.STALE_RESPONSE_HEADER));
+            for(int i = 0; i < 50 && findAll(getRequestedFor(urlEqualTo("/v1/test/etag"))).size() < 2; i++) {
+                Thread.sleep(50);
+            }
+            verify(1, getRequestedFor(urlEqualTo("/v1/test/etag")).withHeader("If-None-Match", equalTo("\"v1\"")));
+            //The refresh runs on a copy; the caller's request is left as it was sent
+            assertNull(request.getHeaders());
+            assertTrue(request.isStreamResponse());
+        } finally {
+            cacheConfig.setEnabled(false);
+            cacheConfig.setStaleWhileRevalidateInSeconds(0);
+            httpCommand.getResponseCache().invalidate(null, null);
+        }
+    }
+
+    @Test
+    public void testClientConditionalBypassesCache() throws TimeoutException {
+        stubFor(get(urlEqualTo("/v1/test/etag"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Cache-Control", "no-cache")
+                        .withHeader("ETag", "\"v1\"")
+                        .withBody("{\"version\": 1}")));
+        stubFor(get(urlEqualTo("/v1/test/etag")).atPriority(1)
+                .withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse()
+                        .withStatus(304)
+                        .withHeader("ETag", "\"v1\"")));
+        stubFor(get(urlEqualTo("/v1/test"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")));
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        val cacheConfig = httpCommand.getApiConfigurations().get("test_multi").getCache();
+        cacheConfig.setEnabled(true);
+        try {
+            assertEquals(httpCommand.execute(cacheRequest("test_multi", "v1/test/etag")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test", "v1/test")).getStatusCode(), 200);
+            val conditional = cacheRequest("test_multi", "v1/test/etag");
+            conditional.setHeaders(new MultivaluedHashMap<>());
+            conditional.getHeaders().putSingle("If-None-Match", "\"v1\"");
+            assertEquals(httpCommand.execute(conditional).getStatusCode(), 304);
+            assertEquals(httpCommand.execute(cacheRequest("test", "v1/test")).getStatusCode(), 200);
+            //The client's 304 neither replaced nor dropped the cached response; it is still revalidated
+            val revalidated = httpCommand.execute(cacheRequest("test_multi", "v1/test/etag"));
+            assertEquals(revalidated.getStatusCode(), 200);
+            assertEquals(new String(revalidated.getBody()), "{\"version\": 1}");
+            verify(3, getRequestedFor(urlEqualTo("/v1/test/etag")));
+            verify(2, getRequestedFor(urlEqualTo("/v1/test/etag")).withHeader("If-None-Match", equalTo("\"v1\"")));
+        } finally {
+            cacheConfig.setEnabled(false);
+            httpCommand.getResponseCache().invalidate(null, null);
+        }
+    }
+
+    @Test
+    public void testCacheHonoursVaryAndRevalidationWindow() throws TimeoutException {
+        stubFor(get(urlEqualTo("/v1/test/vary"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Vary", "Accept-Encoding, X-Tenant")
+                        .withBody("{}")));
+        stubFor(get(urlEqualTo("/v1/test/etag"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Cache-Control", "no-cache")
+                        .withHeader("ETag", "\"v1\"")
+                        .withBody("{}")));
+        stubFor(get(urlEqualTo("/v1/test"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")));
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        val cacheConfig = httpCommand.getApiConfigurations().get("test_multi").getCache();
+        cacheConfig.setEnabled(true);
+        try {
+            //X-Tenant is not part of the key; the response must not be shared across tenants
+            assertEquals(httpCommand.execute(cacheRequest("test_multi", "v1/test/vary")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test", "v1/test")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test_multi", "v1/test/vary")).getStatusCode(), 200);
+            verify(2, getRequestedFor(urlEqualTo("/v1/test/vary")));
+            cacheConfig.setVaryHeaders(Collections.singleton("X-Tenant"));
+            assertEquals(httpCommand.execute(cacheRequest("test_multi", "v1/test/vary")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test", "v1/test")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test_multi", "v1/test/vary")).getStatusCode(), 200);
+            verify(3, getRequestedFor(urlEqualTo("/v1/test/vary")));
+            //Without a revalidation window an always stale response is not kept for its validators
+            cacheConfig.setRevalidateWithinInSeconds(0);
+            assertEquals(httpCommand.execute(cacheRequest("test_multi", "v1/test/etag")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test", "v1/test")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test_multi", "v1/test/etag")).getStatusCode(), 200);
+            verify(2, getRequestedFor(urlEqualTo("/v1/test/etag")));
+            verify(0, getRequestedFor(urlEqualTo("/v1/test/etag")).withHeader("If-None-Match", equalTo("\"v1\"")));
+        } finally {
+            cacheConfig.setEnabled(false);
+            cacheConfig.setVaryHeaders(Collections.emptySet());
+            cacheConfig.setRevalidateWithinInSeconds(300);
+            httpCommand.getResponseCache().invalidate(null, null);
+        }
+    }
+
+    @Test
+    public void testCacheKeepsCredentialedResponsesApart() throws TimeoutException {
+        stubFor(get(urlEqualTo("/v1/test/private"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Cache-Control", "max-age=60")
+                        .withBody("{}")));
+        stubFor(get(urlEqualTo("/v1/test/public"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withHeader("Cache-Control", "public, max-age=60")
+                        .withBody("{}")));
+        stubFor(get(urlEqualTo("/v1/test"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")));
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        val cacheConfig = httpCommand.getApiConfigurations().get("test_multi").getCache();
+        cacheConfig.setEnabled(true);
+        try {
+            assertEquals(httpCommand.execute(authorized("v1/test/private", "Bearer alice")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test", "v1/test")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(authorized("v1/test/private", "Bearer bob")).getStatusCode(), 200);
+            verify(2, getRequestedFor(urlEqualTo("/v1/test/private")));
+            //Upstream says the response is the same for everyone
+            assertEquals(httpCommand.execute(authorized("v1/test/public", "Bearer alice")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test", "v1/test")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(authorized("v1/test/public", "Bearer bob")).getStatusCode(), 200);
+            verify(1, getRequestedFor(urlEqualTo("/v1/test/public")));
+            //The api opts in to sharing
+            cacheConfig.setShareCredentialed(true);
+            assertEquals(httpCommand.execute(authorized("v1/test/private", "Bearer alice")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(cacheRequest("test", "v1/test")).getStatusCode(), 200);
+            assertEquals(httpCommand.execute(authorized("v1/test/private", "Bearer bob")).getStatusCode(), 200);
+            verify(3, getRequestedFor(urlEqualTo("/v1/test/private")));
+        } finally {
+            cacheConfig.setEnabled(false);
+            cacheConfig.setShareCredentialed(false);
+            httpCommand.getResponseCache().invalidate(null, null);
+        }
+    }
+
+    @Test
+    public void testLastKnownGoodFallback() throws TimeoutException {
+        stubFor(get(urlEqualTo("/v1/fallback/last_known_good"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"known\": true}")));
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        try {
+            assertEquals(httpCommand.execute(cacheRequest("test_last_known_good", "v1/fallback/last_known_good")).getStatusCode(), 200);
+            stubFor(get(urlPathEqualTo("/v1/fallback/last_known_good"))
+                    .willReturn(aResponse()
+                            .withFault(Fault.EMPTY_RESPONSE)));
+            val response = httpCommand.execute(cacheRequest("test_last_known_good", "v1/fallback/last_known_good"));
+            assertEquals(response.getStatusCode(), 200);
+            assertEquals(new String(response.getBody()), "{\"known\": true}");
+            assertEquals(response.getHeaders().getFirst(RevolversHttpHeaders.STALE_RESPONSE_HEADER), "fallback");
+            //Nothing to fall back on for another request; the original failure surfaces
+            val other = cacheRequest("test_last_known_good", "v1/fallback/last_known_good");
+            other.setQueryParams(new MultivaluedHashMap<>());
+            other.getQueryParams().putSingle("page", "2");
+            try {
+                httpCommand.execute(other);
+                fail("Call without a last known good response should fail");
+            } catch (RevolverExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+            //Nor for a caller with credentials; the remembered response is not marked as shared
+            val credentialed = cacheRequest("test_last_known_good", "v1/fallback/last_known_good");
+            credentialed.setHeaders(new MultivaluedHashMap<>());
+            credentialed.getHeaders().putSingle("Authorization", "Bearer bob");
+            try {
+                httpCommand.execute(credentialed);
+                fail("Call with credentials should not fall back on a response that is not shared");
+            } catch (RevolverExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+        } finally {
+            httpCommand.getLastKnownGood().invalidate(null, null);
+        }
+    }
+
+    @Test
+    public void testStaticFallback() throws TimeoutException {
+        stubFor(get(urlEqualTo("/v1/fallback/static"))
+                .willReturn(aResponse()
+                        .withFault(Fault.EMPTY_RESPONSE)));
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        val response = httpCommand.execute(cacheRequest("test_static_fallback", "v1/fallback/static"));
+        assertEquals(response.getStatusCode(), 200);
+        assertEquals(new String(response.getBody()), "[]");
+        assertEquals(response.getHeaders().getFirst(RevolversHttpHeaders.STALE_RESPONSE_HEADER), "fallback");
+    }
+
+    @Test
+    public void testNoFallbackByDefault() {
+        stubFor(get(urlEqualTo("/v1/test"))
+                .willReturn(aResponse()
+                        .withFault(Fault.EMPTY_RESPONSE)));
+        RevolverHttpCommand httpCommand = RevolverBundle.getHttpCommand("test");
+        assertFalse(httpCommand.isFallbackEnabled("test"));
+        assertTrue(httpCommand.isFallbackEnabled("test_static_fallback"));
+        assertTrue(httpCommand.isFallbackEnabled("test_last_known_good"));
+        try {
+            httpCommand.execute(cacheRequest("test", "v1/test"));
+            fail("Call without a fallback should fail");
+        } catch (RevolverExecutionException | TimeoutException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    private static RevolverHttpRequest authorized(final String path, final String authorization) {
+        val request = cacheRequest("test_multi", path);
+        request.setHeaders(new MultivaluedHashMap<>());
+        request.getHeaders().putSingle("Authorization", authorization);
+        return request;
+    }
+
+    private static RevolverHttpRequest cacheRequest(final String api, final String path) {
+        return RevolverHttpRequest.builder()
+                .service("test")
+                .api(api)
+                .method(RevolverHttpApiConfig.RequestMethod.GET)
+                .path(path)
+                .build();
+    }
 }
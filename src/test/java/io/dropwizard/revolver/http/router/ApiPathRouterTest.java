@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 Phaneesh Nagaraja <phaneesh.n@gmail.com>.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package io.dropwizard.revolver.http.router;
+
+import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import lombok.val;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author phaneesh
+ */
+public class ApiPathRouterTest {
+
+    private ApiPathRouter router;
+
+    @Before
+    public void setup() {
+        router = new ApiPathRouter();
+        register("by_id", "{version}/users/{id}");
+        register("me", "{version}/users/me");
+        register("file", "{version}/files/{name}.json");
+        register("any", "{version}/any/*/details");
+        register("catch_all", "{version}/static/**");
+        register("root", "{version}");
+    }
+
+    private void register(final String api, final String path) {
+        router.register(RevolverHttpApiConfig.configBuilder()
+                .api(api)
+                .path(path)
+                .method(RevolverHttpApiConfig.RequestMethod.GET)
+                .build(), path);
+    }
+
+    @Test
+    public void testParamExtraction() {
+        val match = router.match("v1/users/42");
+        assertNotNull(match);
+        assertEquals("by_id", match.getApi().getApi());
+        assertEquals("v1", match.getPathParams().get("version"));
+        assertEquals("42", match.getPathParams().get("id"));
+    }
+
+    @Test
+    public void testLiteralWinsOverParam() {
+        val match = router.match("v1/users/me");
+        assertNotNull(match);
+        assertEquals("me", match.getApi().getApi());
+    }
+
+    @Test
+    public void testMixedSegment() {
+        val match = router.match("v2/files/report.json");
+        assertNotNull(match);
+        assertEquals("file", match.getApi().getApi());
+        assertEquals("report", match.getPathParams().get("name"));
+    }
+
+    @Test
+    public void testDottedSegments() {
+        register("format", "{version}/export/v1.{fmt}");
+        register("dotted", "{version}/reports/a.b");
+        val match = router.match("v1/export/v1.csv");
+        assertNotNull(match);
+        assertEquals("format", match.getApi().getApi());
+        assertEquals("csv", match.getPathParams().get("fmt"));
+        assertEquals("dotted", router.match("v1/reports/a.b").getApi().getApi());
+        //A dot matches any character, as it did when api paths were matched as one regex
+        assertEquals("dotted", router.match("v1/reports/a-b").getApi().getApi());
+        assertNull(router.match("v1/reports/ab"));
+    }
+
+    @Test
+    public void testWildcards() {
+        assertEquals("any", router.match("v1/any/thing/details").getApi().getApi());
+        assertEquals("catch_all", router.match("v1/static/css/site.css").getApi().getApi());
+        assertNull(router.match("v1/static"));
+    }
+
+    @Test
+    public void testNoMatch() {
+        assertNull(router.match("v1/users"));
+        assertNull(router.match("v1/users/42/extra"));
+        assertNull(router.match(""));
+        assertEquals("root", router.match("v1").getApi().getApi());
+    }
+
+    @Test
+    public void testSlashesAreSignificant() {
+        assertNull(router.match("v1/users/42/"));
+        assertNull(router.match("/v1/users/42"));
+        assertNull(router.match("v1/"));
+        register("trailing", "{version}/users/{id}/");
+        assertEquals("trailing", router.match("v1/users/42/").getApi().getApi());
+    }
+
+    @Test
+    public void testCatchAllMatchesEmptyRemainder() {
+        register("regex_catch_all", "{version}/assets/.*");
+        assertEquals("regex_catch_all", router.match("v1/assets/").getApi().getApi());
+        assertEquals("regex_catch_all", router.match("v1/assets/img//logo.png").getApi().getApi());
+        assertEquals("catch_all", router.match("v1/static/").getApi().getApi());
+        assertNull(router.match("v1/assets"));
+    }
+
+    @Test
+    public void testRootCatchAllMatchesEmptyPath() {
+        assertNull(router.match(""));
+        register("everything", ".*");
+        assertEquals("everything", router.match("").getApi().getApi());
+        assertEquals("everything", router.match("v2/unknown/").getApi().getApi());
+        assertEquals("root", router.match("v1").getApi().getApi());
+    }
+}
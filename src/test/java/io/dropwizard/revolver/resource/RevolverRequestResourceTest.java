@@ -20,19 +20,39 @@ package io.dropwizard.revolver.resource;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import io.dropwizard.revolver.BaseRevolverTest;
 import io.dropwizard.revolver.RevolverBundle;
+import io.dropwizard.revolver.composite.CompositeApiExecutor;
+import io.dropwizard.revolver.core.config.CompositeApiConfig;
+import io.dropwizard.revolver.core.config.CompositeStepConfig;
+import io.dropwizard.revolver.core.model.RevolverCompositeResponse;
+import io.dropwizard.revolver.core.model.RevolverCompositeStepTrace;
+import io.dropwizard.revolver.exception.TimeoutExceptionMapper;
 import io.dropwizard.revolver.http.RevolversHttpHeaders;
+import io.dropwizard.revolver.http.config.RevolverHttpApiConfig;
+import io.dropwizard.revolver.http.model.RevolverHttpBatchRequest;
+import io.dropwizard.revolver.http.model.RevolverHttpSubRequest;
+import io.dropwizard.revolver.http.model.RevolverHttpSubResponse;
 import io.dropwizard.testing.junit.ResourceTestRule;
+import lombok.val;
 import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
 
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author phaneesh
@@ -43,6 +63,9 @@ public class RevolverRequestResourceTest extends BaseRevolverTest {
     public static final ResourceTestRule resources = ResourceTestRule.builder()
             .addResource(new RevolverRequestResource(environment.getObjectMapper(),
                     RevolverBundle.msgPackObjectMapper, RevolverBundle.xmlObjectMapper, inMemoryPersistenceProvider, callbackHandler))
+            .addResource(new RevolverCompositeResource(environment.getObjectMapper(), RevolverBundle.xmlObjectMapper,
+                    RevolverBundle.msgPackObjectMapper))
+            .addProvider(new TimeoutExceptionMapper(environment.getObjectMapper()))
             .build();
 
     @Rule
@@ -132,5 +155,299 @@ public class RevolverRequestResourceTest extends BaseRevolverTest {
                 .options().getStatus());
     }
 
+    @Test
+    public void testDeadlinePropagation() {
+        stubFor(get(urlEqualTo("/v1/test"))
+                .withHeader(RevolversHttpHeaders.DEADLINE_HEADER, matching("[0-9]+"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")));
+        assertEquals(resources.client().target("/apis/test/v1/test").request()
+                .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                .header(RevolversHttpHeaders.DEADLINE_HEADER, "5000")
+                .get().getStatus(), 200);
+    }
+
+    @Test
+    public void testExpiredDeadline() {
+        stubFor(get(urlEqualTo("/v1/test/expired"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")));
+        assertEquals(resources.client().target("/apis/test/v1/test/expired").request()
+                .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                .header(RevolversHttpHeaders.DEADLINE_HEADER, "0")
+                .get().getStatus(), 504);
+        verify(0, getRequestedFor(urlEqualTo("/v1/test/expired")));
+    }
+
+    @Test
+    public void testGzipUpstreamResponse() throws IOException {
+        //Two apis: back to back calls on one api can be rejected by its single thread pool
+        for(String path : new String[]{"/v1/test", "/v1/test/gzip"}) {
+            stubFor(get(urlEqualTo(path))
+                    .withHeader(HttpHeaders.ACCEPT_ENCODING, equalTo("gzip"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withBody(gzip("{\"compressed\": true}"))
+                            .withHeader(HttpHeaders.CONTENT_ENCODING, "gzip")
+                            .withHeader(HttpHeaders.VARY, "Origin")
+                            .withHeader("Content-Type", "application/json")));
+        }
+        val serviceConfig = RevolverBundle.getHttpCommand("test").getServiceConfiguration();
+        serviceConfig.setCompression(true);
+        try {
+            //Client that does not accept gzip gets the decompressed body
+            val plain = resources.client().target("/apis/test/v1/test").request()
+                    .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                    .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                    .get();
+            assertEquals(plain.getStatus(), 200);
+            assertNull(plain.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+            assertEquals(plain.getHeaderString(HttpHeaders.VARY), "Origin, Accept-Encoding");
+            assertEquals(plain.readEntity(String.class), "{\"compressed\": true}");
+            //Client that accepts gzip gets the upstream bytes as is
+            val compressed = resources.client().target("/apis/test/v1/test/gzip").request()
+                    .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                    .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                    .get();
+            assertEquals(compressed.getStatus(), 200);
+            assertEquals(compressed.getHeaderString(HttpHeaders.CONTENT_ENCODING), "gzip");
+            assertEquals(compressed.getHeaderString(HttpHeaders.VARY), "Origin, Accept-Encoding");
+            assertArrayEquals(compressed.readEntity(byte[].class), gzip("{\"compressed\": true}"));
+        } finally {
+            serviceConfig.setCompression(false);
+        }
+    }
+
+    private static byte[] gzip(final String body) throws IOException {
+        val bytes = new ByteArrayOutputStream();
+        try(GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testStreamedGetRequest() {
+        stubFor(get(urlEqualTo("/v1/test"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withBody("{\"streamed\": true}")
+                        .withHeader("Content-Type", "application/json")));
+        val apiConfig = RevolverBundle.getHttpCommand("test").getApiConfigurations().get("test");
+        apiConfig.setStreaming(true);
+        try {
+            val response = resources.client().target("/apis/test/v1/test").request()
+                    .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                    .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                    .get();
+            assertEquals(200, response.getStatus());
+            assertEquals("{\"streamed\": true}", response.readEntity(String.class));
+        } finally {
+            apiConfig.setStreaming(false);
+        }
+    }
+
+    @Test
+    public void testStreamedPostRequest() {
+        stubFor(post(urlEqualTo("/v1/test"))
+                .withRequestBody(equalToJson("{\"streamed\": true}"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")));
+        val apiConfig = RevolverBundle.getHttpCommand("test").getApiConfigurations().get("test");
+        apiConfig.setRequestStreaming(true);
+        try {
+            assertEquals(200, resources.client().target("/apis/test/v1/test").request()
+                    .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                    .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                    .post(Entity.entity("{\"streamed\": true}", MediaType.APPLICATION_JSON)).getStatus());
+        } finally {
+            apiConfig.setRequestStreaming(false);
+        }
+    }
+
+    @Test
+    public void testConditionalGetNotModified() {
+        stubFor(get(urlEqualTo("/v1/test"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader(HttpHeaders.ETAG, "\"v1\"")
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"catalog\": []}")));
+        val response = resources.client().target("/apis/test/v1/test").request()
+                .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v0\", W/\"v1\"")
+                .get();
+        assertEquals(response.getStatus(), 304);
+        assertEquals(response.getHeaderString(HttpHeaders.ETAG), "\"v1\"");
+        assertFalse(response.hasEntity());
+    }
 
+    @Test
+    public void testBatchRequest() throws IOException {
+        stubFor(get(urlEqualTo("/v1/test"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"name\": \"test\"}")));
+        stubFor(post(urlEqualTo("/v1/test/multi"))
+                .withRequestBody(equalToJson("{\"id\": 1}"))
+                .willReturn(aResponse()
+                        .withStatus(201)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody("created")));
+        val batchRequest = RevolverHttpBatchRequest.builder()
+                .request(RevolverHttpSubRequest.builder()
+                        .id("get")
+                        .service("test")
+                        .method(RevolverHttpApiConfig.RequestMethod.GET)
+                        .path("v1/test")
+                        .build())
+                .request(RevolverHttpSubRequest.builder()
+                        .service("test")
+                        .method(RevolverHttpApiConfig.RequestMethod.POST)
+                        .path("/v1/test/multi")
+                        .body(mapper.readTree("{\"id\": 1}"))
+                        .build())
+                .request(RevolverHttpSubRequest.builder()
+                        .service("unknown")
+                        .method(RevolverHttpApiConfig.RequestMethod.GET)
+                        .path("v1/test")
+                        .build())
+                .build();
+        val response = resources.client().target("/apis/batch").request()
+                .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                .post(Entity.entity(mapper.writeValueAsBytes(batchRequest), MediaType.APPLICATION_JSON));
+        assertEquals(response.getStatus(), 200);
+        val subResponses = mapper.readValue(response.readEntity(byte[].class), RevolverHttpSubResponse[].class);
+        assertEquals(subResponses.length, 3);
+        assertEquals(subResponses[0].getId(), "get");
+        assertEquals(subResponses[0].getStatusCode(), 200);
+        assertEquals(subResponses[0].getBody().get("name").asText(), "test");
+        assertEquals(subResponses[1].getId(), "1");
+        assertEquals(subResponses[1].getStatusCode(), 201);
+        assertEquals(subResponses[1].getBody().asText(), "created");
+        assertEquals(subResponses[2].getStatusCode(), 400);
+    }
+
+    @Test
+    public void testBatchRequestSharesGzipCachedResponse() throws IOException {
+        stubFor(get(urlEqualTo("/v1/test/cached"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withBody(gzip("{\"compressed\": true}"))
+                        .withHeader(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .withHeader(HttpHeaders.CACHE_CONTROL, "max-age=60")
+                        .withHeader("Content-Type", "application/json")));
+        val httpCommand = RevolverBundle.getHttpCommand("test");
+        val cacheConfig = httpCommand.getApiConfigurations().get("test_multi").getCache();
+        cacheConfig.setEnabled(true);
+        httpCommand.getServiceConfiguration().setCompression(true);
+        try {
+            //Inline call asks upstream for gzip and caches the encoded body
+            val inline = resources.client().target("/apis/test/v1/test/cached").request()
+                    .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                    .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                    .get();
+            assertEquals(inline.getStatus(), 200);
+            assertEquals(inline.readEntity(String.class), "{\"compressed\": true}");
+            val batchRequest = RevolverHttpBatchRequest.builder()
+                    .request(RevolverHttpSubRequest.builder()
+                            .id("cached")
+                            .service("test")
+                            .method(RevolverHttpApiConfig.RequestMethod.GET)
+                            .path("v1/test/cached")
+                            .build())
+                    .build();
+            val response = resources.client().target("/apis/batch").request()
+                    .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                    .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                    .post(Entity.entity(mapper.writeValueAsBytes(batchRequest), MediaType.APPLICATION_JSON));
+            assertEquals(response.getStatus(), 200);
+            val subResponses = mapper.readValue(response.readEntity(byte[].class), RevolverHttpSubResponse[].class);
+            assertEquals(subResponses[0].getStatusCode(), 200);
+            assertFalse(subResponses[0].getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+            assertTrue(subResponses[0].getBody().get("compressed").asBoolean());
+            verify(1, getRequestedFor(urlEqualTo("/v1/test/cached")));
+        } finally {
+            cacheConfig.setEnabled(false);
+            httpCommand.getServiceConfiguration().setCompression(false);
+            httpCommand.getResponseCache().invalidate(null, null);
+        }
+    }
+
+    @Test
+    public void testCompositeApi() throws IOException {
+        stubFor(get(urlPathEqualTo("/v1/test"))
+                .withQueryParam("id", equalTo("7"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\": 7, \"name\": \"test\"}")));
+        stubFor(get(urlEqualTo("/v1/test/7"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[{\"sku\": \"a\"}]")));
+        RevolverBundle.addCompositeApi(new CompositeApiExecutor(CompositeApiConfig.builder()
+                .name("profile")
+                .step(CompositeStepConfig.builder()
+                        .name("user")
+                        .service("test")
+                        .method(RevolverHttpApiConfig.RequestMethod.GET)
+                        .path("v1/test")
+                        .queryParam("id", "{{request.query.id}}")
+                        .build())
+                .step(CompositeStepConfig.builder()
+                        .name("orders")
+                        .service("test")
+                        .method(RevolverHttpApiConfig.RequestMethod.GET)
+                        .path("v1/test/{{user.id}}")
+                        .build())
+                .step(CompositeStepConfig.builder()
+                        .name("offers")
+                        .service("test")
+                        .method(RevolverHttpApiConfig.RequestMethod.GET)
+                        .path("v1/offers/a/b")
+                        .optional(true)
+                        .build())
+                .build(), mapper));
+        val response = resources.client().target("/apis/composite/profile").queryParam("id", "7").request()
+                .header(RevolversHttpHeaders.REQUEST_ID_HEADER, UUID.randomUUID().toString())
+                .header(RevolversHttpHeaders.TXN_ID_HEADER, UUID.randomUUID().toString())
+                .get();
+        assertEquals(response.getStatus(), 200);
+        val composite = mapper.readValue(response.readEntity(byte[].class), RevolverCompositeResponse.class);
+        assertEquals(composite.getData().get("user").get("name").asText(), "test");
+        assertEquals(composite.getData().get("orders").get(0).get("sku").asText(), "a");
+        assertFalse(composite.getData().containsKey("offers"));
+        assertEquals(composite.getTrace().get(2).getStatus(), RevolverCompositeStepTrace.Status.FAILED);
+        assertEquals(resources.client().target("/apis/composite/unknown").request().get().getStatus(), 404);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompositeApiCycle() {
+        new CompositeApiExecutor(CompositeApiConfig.builder()
+                .name("cycle")
+                .step(CompositeStepConfig.builder()
+                        .name("a")
+                        .service("test")
+                        .method(RevolverHttpApiConfig.RequestMethod.GET)
+                        .path("v1/test/{{b.id}}")
+                        .build())
+                .step(CompositeStepConfig.builder()
+                        .name("b")
+                        .service("test")
+                        .method(RevolverHttpApiConfig.RequestMethod.GET)
+                        .path("v1/test/{{a.id}}")
+                        .build())
+                .build(), mapper);
+    }
 }